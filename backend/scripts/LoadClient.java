@@ -0,0 +1,175 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal closed-loop load generator for the authentication API, used by compare-thread-modes.sh.
+ * Every simulated client is registered first (untimed), then each one refreshes its token in a
+ * loop for the given duration. Refresh is the database-bound path; pass {@code refreshPerLogin}
+ * to also log in again after every that many refreshes, which adds BCrypt to the mix.
+ * Runs with the JDK alone: {@code java LoadClient.java}.
+ *
+ * Usage: java LoadClient.java <baseUrl> <clients> <durationSeconds> [refreshPerLogin]
+ */
+public class LoadClient {
+
+    private static final Pattern REFRESH_TOKEN = Pattern.compile("\"refreshToken\"\\s*:\\s*\"([^\"]+)\"");
+    private static final String PASSWORD = "load-test-password";
+    private static final int SETUP_CONCURRENCY = 8;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: java LoadClient.java <baseUrl> <clients> <durationSeconds> [refreshPerLogin]");
+            System.exit(2);
+        }
+        String baseUrl = args[0];
+        int clients = Integer.parseInt(args[1]);
+        Duration duration = Duration.ofSeconds(Long.parseLong(args[2]));
+        int refreshPerLogin = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+
+        HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        String runId = Long.toString(System.nanoTime(), 36);
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            emails.add("load-" + runId + "-" + i + "@example.com");
+        }
+
+        // Registration hashes a password too; it runs untimed and throttled so the measured
+        // phase starts with every account in place
+        Semaphore registrations = new Semaphore(SETUP_CONCURRENCY);
+        Map<String, String> refreshTokens = new ConcurrentHashMap<>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String email : emails) {
+                executor.submit(() -> register(http, baseUrl, email, registrations, refreshTokens));
+            }
+        }
+
+        Stats stats = new Stats();
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            refreshTokens.forEach((email, refreshToken) -> executor.submit(
+                    () -> runClient(http, baseUrl, email, refreshToken, refreshPerLogin, deadline, stats)));
+        }
+        stats.print(duration);
+    }
+
+    private static Void register(HttpClient http, String baseUrl, String email, Semaphore permits,
+                                 Map<String, String> refreshTokens) throws InterruptedException {
+        String body = "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD
+                + "\",\"firstName\":\"Load\",\"lastName\":\"Test\"}";
+        Stats ignored = new Stats();
+        permits.acquire();
+        try {
+            // Retried while the server sheds load with 503
+            for (int attempt = 0; attempt < 20; attempt++) {
+                String refreshToken = call(http, baseUrl + "/api/auth/register", body, "register", ignored);
+                if (refreshToken != null) {
+                    refreshTokens.put(email, refreshToken);
+                    return null;
+                }
+                sleep(Duration.ofMillis(500));
+            }
+            System.err.println("Could not register " + email);
+            return null;
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static Void runClient(HttpClient http, String baseUrl, String email, String refreshToken,
+                                  int refreshPerLogin, long deadline, Stats stats) {
+        String credentials = "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}";
+        long refreshes = 0;
+        while (System.nanoTime() < deadline) {
+            if (refreshPerLogin > 0 && ++refreshes % refreshPerLogin == 0) {
+                String renewed = call(http, baseUrl + "/api/auth/login", credentials, "login", stats);
+                if (renewed == null) {
+                    // Honour the server's Retry-After instead of hammering it with logins
+                    sleep(Duration.ofSeconds(1));
+                    continue;
+                }
+                refreshToken = renewed;
+            }
+            // Refresh tokens rotate: presenting the old one again would revoke the session
+            String rotated = call(http, baseUrl + "/api/auth/refresh", "{\"refreshToken\":\"" + refreshToken + "\"}", "refresh", stats);
+            if (rotated != null) {
+                refreshToken = rotated;
+            }
+        }
+        return null;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Returns the refresh token of a successful response, null otherwise
+    private static String call(HttpClient http, String url, String body, String operation, Stats stats) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            stats.record(operation, response.statusCode(), System.nanoTime() - start);
+            Matcher matcher = REFRESH_TOKEN.matcher(response.body());
+            return response.statusCode() == 200 && matcher.find() ? matcher.group(1) : null;
+        } catch (Exception ex) {
+            stats.record(operation, -1, System.nanoTime() - start);
+            return null;
+        }
+    }
+
+    private static final class Stats {
+
+        private final Map<String, List<Long>> latenciesByOperation = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> countsByStatus = new ConcurrentHashMap<>();
+
+        void record(String operation, int status, long latencyNanos) {
+            countsByStatus.computeIfAbsent(operation + " " + (status < 0 ? "error" : status), key -> new LongAdder()).increment();
+            if (status == 200 || status == 201) {
+                latenciesByOperation.computeIfAbsent(operation, key -> new CopyOnWriteArrayList<>()).add(latencyNanos);
+            }
+        }
+
+        void print(Duration duration) {
+            System.out.printf("%-10s %10s %10s %10s %10s %10s%n", "operation", "ok/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+            new TreeMap<>(latenciesByOperation).forEach((operation, latencies) -> {
+                List<Long> sorted = new ArrayList<>(latencies);
+                sorted.sort(null);
+                System.out.printf("%-10s %10.1f %10.1f %10.1f %10.1f %10.1f%n", operation,
+                        sorted.size() / (double) duration.toSeconds(),
+                        millis(sorted, 0.50), millis(sorted, 0.95), millis(sorted, 0.99), millis(sorted, 1.0));
+            });
+            System.out.println();
+            new TreeMap<>(countsByStatus).forEach((key, count) -> System.out.printf("%-20s %d%n", key, count.sum()));
+        }
+
+        private static double millis(List<Long> sorted, double percentile) {
+            int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+            return sorted.get(Math.max(0, index)) / 1_000_000.0;
+        }
+    }
+}
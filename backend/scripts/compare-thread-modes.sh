@@ -0,0 +1,59 @@
+#!/usr/bin/env bash
+# Runs the same authentication load against the backend on platform threads and on virtual
+# threads, one after the other, and prints latency percentiles and status counts for each.
+#
+# Usage: scripts/compare-thread-modes.sh [clients] [duration-seconds] [refreshes-per-login]
+#
+# The default profile uses in-memory H2, which hides JDBC latency. For representative numbers
+# start PostgreSQL (docker compose up postgres) and run with SPRING_PROFILES_ACTIVE=dev.
+set -euo pipefail
+
+CLIENTS="${1:-500}"
+DURATION="${2:-60}"
+REFRESH_PER_LOGIN="${3:-0}"
+PORT="${PORT:-8080}"
+BASE_URL="http://localhost:${PORT}"
+
+cd "$(dirname "$0")/.."
+
+if [[ -z "${SKIP_BUILD:-}" ]]; then
+    mvn -B -q -DskipTests package
+fi
+JAR="$(ls target/backend-*.jar | grep -v plain | head -n 1)"
+
+wait_for_startup() {
+    for _ in $(seq 1 120); do
+        if [[ "$(curl -s -o /dev/null -w '%{http_code}' "${BASE_URL}/api/auth/login")" != "000" ]]; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "Backend did not start on ${BASE_URL}" >&2
+    return 1
+}
+
+run_mode() {
+    local mode="$1" virtual="$2"
+    echo "=== ${mode} threads: ${CLIENTS} clients for ${DURATION}s ==="
+
+    # The base configuration logs security decisions at DEBUG, which would dominate the profile.
+    # Every simulated client shares one IP, so the login rate limits are turned off.
+    VIRTUAL_THREADS_ENABLED="${virtual}" SERVER_PORT="${PORT}" RATE_LIMIT_ENABLED=false \
+        LOGGING_LEVEL_COM_APONTAJA_BACKEND=INFO LOGGING_LEVEL_ORG_SPRINGFRAMEWORK_SECURITY=INFO \
+        java ${JAVA_OPTS:-} -jar "${JAR}" > "target/thread-mode-${mode}.log" 2>&1 &
+    local pid=$!
+    trap "kill ${pid} 2>/dev/null || true" EXIT
+
+    wait_for_startup
+    java scripts/LoadClient.java "${BASE_URL}" "${CLIENTS}" "${DURATION}" "${REFRESH_PER_LOGIN}" | tee "target/thread-mode-${mode}.txt"
+
+    kill "${pid}"
+    wait "${pid}" 2>/dev/null || true
+    trap - EXIT
+    echo
+}
+
+run_mode platform false
+run_mode virtual true
+
+echo "Results: target/thread-mode-platform.txt, target/thread-mode-virtual.txt (server logs next to them)"
@@ -0,0 +1,46 @@
+#!/bin/sh
+# Extracts the Spring Boot jar into its layers, laid out so that the JVM can use a
+# class data sharing (CDS) archive: CDS only archives classes loaded by the JDK's own class
+# loaders from plain jars, not from the nested jars read by Spring Boot's launcher.
+#
+#   <destination>/dependencies/lib/*.jar            released dependencies
+#   <destination>/snapshot-dependencies/lib/*.jar   SNAPSHOT dependencies
+#   <destination>/application/app.jar               application classes, Class-Path: lib/...
+#
+# Each layer is copied into the image on its own, so a code change only rebuilds the last one.
+# Copied into the same directory, they run with: java -jar app.jar
+#
+# Usage: extract-layers.sh <boot jar> <destination>
+set -eu
+
+if [ $# -ne 2 ]; then
+  echo "Usage: $0 <boot jar> <destination>" >&2
+  exit 1
+fi
+
+JAR=$(cd "$(dirname "$1")" && pwd)/$(basename "$1")
+DEST=$2
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+(cd "$WORK" && java -Djarmode=layertools -jar "$JAR" extract)
+
+rm -rf "$DEST"
+mkdir -p "$DEST/dependencies/lib" "$DEST/snapshot-dependencies/lib" "$DEST/application"
+for layer in dependencies snapshot-dependencies; do
+  if [ -d "$WORK/$layer/BOOT-INF/lib" ]; then
+    cp "$WORK/$layer/BOOT-INF/lib/"*.jar "$DEST/$layer/lib/"
+  fi
+done
+
+# Keep the launcher's classpath order; continuation lines start with a space, the second
+# one separates the entries
+MAIN_CLASS=$(sed -n 's/^Start-Class: *//p' "$WORK/application/META-INF/MANIFEST.MF" | tr -d '\r')
+{
+  echo "Main-Class: $MAIN_CLASS"
+  echo "Class-Path: "
+  sed -n 's|^- "BOOT-INF/lib/\(.*\)"$|  lib/\1|p' "$WORK/application/BOOT-INF/classpath.idx"
+} > "$WORK/manifest.txt"
+
+jar --create --file "$DEST/application/app.jar" --manifest "$WORK/manifest.txt" \
+  -C "$WORK/application/BOOT-INF/classes" .
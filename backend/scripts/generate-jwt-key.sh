@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+# Writes a new access token signing key to <dir>/<kid>.pem for the JWT key ring (jwt.keys.path).
+# The kid defaults to today's date, so the newest key sorts last and is the one that signs.
+#
+#   scripts/generate-jwt-key.sh secrets/jwt              # EC P-256, signs with ES256
+#   scripts/generate-jwt-key.sh secrets/jwt 2026-10-18 ed25519
+#
+# To retire a key, keep only its public part until the tokens it signed have expired:
+#   openssl pkey -in <dir>/<kid>.pem -pubout -out <dir>/<kid>.pem.tmp && mv <dir>/<kid>.pem.tmp <dir>/<kid>.pem
+set -euo pipefail
+
+DIR=${1:?usage: generate-jwt-key.sh <dir> [kid] [ec|ed25519]}
+KID=${2:-$(date -u +%Y-%m-%d)}
+TYPE=${3:-ec}
+FILE="$DIR/$KID.pem"
+
+if [[ -e "$FILE" ]]; then
+  echo "$FILE already exists" >&2
+  exit 1
+fi
+mkdir -p "$DIR"
+
+case "$TYPE" in
+  ec) PRIVATE=$(openssl genpkey -algorithm EC -pkeyopt ec_paramgen_curve:P-256) ;;
+  ed25519) PRIVATE=$(openssl genpkey -algorithm ED25519) ;;
+  *) echo "Unknown key type $TYPE, expected ec or ed25519" >&2; exit 1 ;;
+esac
+
+# Written to a temporary name first: the key ring skips files not ending in .pem
+umask 077
+{ echo "$PRIVATE"; echo "$PRIVATE" | openssl pkey -pubout; } > "$FILE.tmp"
+mv "$FILE.tmp" "$FILE"
+echo "Wrote $FILE"
@@ -0,0 +1,89 @@
+#!/bin/sh
+# Starts the JVM with its memory sized from the container's limit, instead of the default
+# ergonomics: a quarter of the memory for the heap, and the serial collector on containers with
+# less than 2 CPUs or 1792 MB.
+#
+# The limit (cgroup v2 or v1, else the machine's memory) is split into fixed budgets for
+# metaspace, code cache, direct buffers and thread stacks, a headroom for the rest of the
+# native memory (GC structures, symbols, JFR buffers), and the heap, which gets what is left.
+# A continuous JFR recording is kept on disk, bounded by age and size.
+#
+# Usage: jvm-entrypoint.sh <java arguments>, e.g. jvm-entrypoint.sh -jar app.jar
+#
+#   JVM_MEMORY_LIMIT_MB   Overrides the detected limit
+#   JVM_METASPACE_MB      128   JVM_CODE_CACHE_MB     48    JVM_DIRECT_MEMORY_MB  32
+#   JVM_THREAD_COUNT      250   JVM_THREAD_STACK_KB   512   JVM_HEADROOM_PERCENT  10
+#   JVM_GC                auto: G1 below 2 GB of heap, generational ZGC above; or g1, zgc
+#   JVM_GC_PAUSE_MS       100   G1 pause time goal
+#   JFR_ENABLED           true  JFR_DIR  /app/jfr  JFR_MAX_AGE  6h  JFR_MAX_SIZE  100m
+#   JAVA_OPTS             Appended last, so any flag above can be overridden
+set -eu
+
+MIN_HEAP_MB=64
+
+limit_mb() {
+  if [ -n "${JVM_MEMORY_LIMIT_MB:-}" ]; then
+    echo "${JVM_MEMORY_LIMIT_MB}"
+    return
+  fi
+  for file in /sys/fs/cgroup/memory.max /sys/fs/cgroup/memory/memory.limit_in_bytes; do
+    if [ -r "${file}" ]; then
+      value=$(cat "${file}")
+      # "max" on cgroup v2, close to 2^63 on cgroup v1 when there is no limit
+      if [ "${value}" != "max" ] && [ "${value}" -lt 4611686018427387904 ]; then
+        echo $((value / 1048576))
+        return
+      fi
+    fi
+  done
+  echo $(($(awk '/^MemTotal:/ { print $2 }' /proc/meminfo) / 1024))
+}
+
+LIMIT_MB=$(limit_mb)
+METASPACE_MB=${JVM_METASPACE_MB:-128}
+CODE_CACHE_MB=${JVM_CODE_CACHE_MB:-48}
+DIRECT_MB=${JVM_DIRECT_MEMORY_MB:-32}
+THREADS=${JVM_THREAD_COUNT:-250}
+STACK_KB=${JVM_THREAD_STACK_KB:-512}
+HEADROOM_MB=$((LIMIT_MB * ${JVM_HEADROOM_PERCENT:-10} / 100))
+STACKS_MB=$((THREADS * STACK_KB / 1024))
+HEAP_MB=$((LIMIT_MB - METASPACE_MB - CODE_CACHE_MB - DIRECT_MB - STACKS_MB - HEADROOM_MB))
+
+if [ "${HEAP_MB}" -lt "${MIN_HEAP_MB}" ]; then
+  echo "jvm-entrypoint: ${LIMIT_MB} MB leaves ${HEAP_MB} MB of heap after metaspace ${METASPACE_MB}," \
+    "code cache ${CODE_CACHE_MB}, direct ${DIRECT_MB}, stacks ${STACKS_MB} and headroom ${HEADROOM_MB} MB;" \
+    "raise the container limit or lower JVM_THREAD_COUNT" >&2
+  exit 1
+fi
+
+GC=${JVM_GC:-auto}
+if [ "${GC}" = "auto" ]; then
+  if [ "${HEAP_MB}" -lt 2048 ]; then GC=g1; else GC=zgc; fi
+fi
+case "${GC}" in
+  g1) GC_OPTS="-XX:+UseG1GC -XX:MaxGCPauseMillis=${JVM_GC_PAUSE_MS:-100}" ;;
+  zgc) GC_OPTS="-XX:+UseZGC -XX:+ZGenerational" ;;
+  *) echo "jvm-entrypoint: unknown JVM_GC ${GC}, expected auto, g1 or zgc" >&2; exit 1 ;;
+esac
+
+# The heap is committed up front: the budget is fixed anyway, and a burst doesn't pay for growing it
+MEMORY_OPTS="-Xms${HEAP_MB}m -Xmx${HEAP_MB}m -XX:MaxMetaspaceSize=${METASPACE_MB}m \
+-XX:ReservedCodeCacheSize=${CODE_CACHE_MB}m -XX:MaxDirectMemorySize=${DIRECT_MB}m -Xss${STACK_KB}k \
+-XX:+ExitOnOutOfMemoryError"
+
+JFR_OPTS=""
+if [ "${JFR_ENABLED:-true}" = "true" ]; then
+  JFR_DIR=${JFR_DIR:-/app/jfr}
+  mkdir -p "${JFR_DIR}/repository"
+  # Chunks roll over in the repository; older ones are deleted past the age or size limit
+  JFR_OPTS="-XX:FlightRecorderOptions=repository=${JFR_DIR}/repository \
+-XX:StartFlightRecording=name=continuous,settings=default,disk=true,maxage=${JFR_MAX_AGE:-6h},\
+maxsize=${JFR_MAX_SIZE:-100m},dumponexit=true,filename=${JFR_DIR}/exit.jfr"
+fi
+
+echo "jvm-entrypoint: ${LIMIT_MB} MB -> heap ${HEAP_MB} MB (${GC}), metaspace ${METASPACE_MB} MB," \
+  "code cache ${CODE_CACHE_MB} MB, direct ${DIRECT_MB} MB, ${THREADS} stacks x ${STACK_KB} KB," \
+  "headroom ${HEADROOM_MB} MB" >&2
+
+# shellcheck disable=SC2086 # the options are lists of flags
+exec "${JAVA_HOME:+${JAVA_HOME}/bin/}java" ${MEMORY_OPTS} ${GC_OPTS} ${JFR_OPTS} ${JAVA_OPTS:-} "$@"
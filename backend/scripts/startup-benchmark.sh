@@ -0,0 +1,101 @@
+#!/usr/bin/env bash
+# Measures cold start as the time from launching the JVM to the first successful
+# POST /api/auth/login, for the plain jar and for the fast-startup layout of the Docker image
+# (extracted layers, CDS archive from a training run, AOT-processed context).
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+#
+# Each run registers an account as soon as the server answers, then logs in until it gets a
+# 200. Prints every run and the median per mode. Set MAX_STARTUP_MS to fail when the median of
+# the fast-startup mode is above it. Runs on the default profile (in-memory H2).
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-8080}"
+BASE_URL="http://localhost:${PORT}"
+OUT="target/startup"
+
+cd "$(dirname "$0")/.."
+
+if [[ -z "${SKIP_BUILD:-}" ]]; then
+    mvn -B -q -DskipTests clean package
+    mkdir -p "${OUT}"
+    cp "$(ls target/backend-*.jar | grep -v plain | head -n 1)" "${OUT}/plain.jar"
+
+    mvn -B -q -DskipTests -Paot package
+    scripts/extract-layers.sh "$(ls target/backend-*.jar | grep -v plain | head -n 1)" "${OUT}/layers"
+    mkdir -p "${OUT}/fast"
+    for layer in dependencies snapshot-dependencies application; do
+        cp -R "${OUT}/layers/${layer}/." "${OUT}/fast/"
+    done
+    # Training run, as in the Dockerfile: start the context, exit, dump the loaded classes
+    (cd "${OUT}/fast" && java -XX:ArchiveClassesAtExit=app.jsa -Xlog:cds=error -Dspring.aot.enabled=true \
+        -Dspring.context.exit=onRefresh -jar app.jar > ../training.log 2>&1)
+fi
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+post() {
+    curl -s -o /dev/null -w '%{http_code}' -H 'Content-Type: application/json' -d "$2" "${BASE_URL}$1" || true
+}
+
+# Prints the milliseconds from launch to the first successful login
+run_once() {
+    local mode="$1" dir="$2"; shift 2
+    local email="startup-$(date +%s%N)@example.com"
+    local credentials="\"email\":\"${email}\",\"password\":\"startup-password\""
+
+    local start
+    start="$(now_ms)"
+    (cd "${dir}" && SERVER_PORT="${PORT}" LOGGING_LEVEL_ROOT=WARN LOGGING_LEVEL_COM_APONTAJA_BACKEND=WARN \
+        LOGGING_LEVEL_ORG_SPRINGFRAMEWORK_SECURITY=WARN exec java ${JAVA_OPTS:-} "$@") > "${OUT}/${mode}.log" 2>&1 &
+    local pid=$!
+    trap "kill ${pid} 2>/dev/null || true" EXIT
+
+    local registered="" elapsed=""
+    for _ in $(seq 1 1200); do
+        if [[ -z "${registered}" ]]; then
+            [[ "$(post /api/auth/register "{${credentials},\"firstName\":\"Startup\",\"lastName\":\"Benchmark\"}")" == "200" ]] \
+                && registered=1
+        elif [[ "$(post /api/auth/login "{${credentials}}")" == "200" ]]; then
+            elapsed=$(( $(now_ms) - start ))
+            break
+        fi
+        sleep 0.05
+    done
+
+    kill "${pid}" 2>/dev/null || true
+    wait "${pid}" 2>/dev/null || true
+    trap - EXIT
+    if [[ -z "${elapsed}" ]]; then
+        echo "No successful login on ${BASE_URL} in ${mode} mode, see ${OUT}/${mode}.log" >&2
+        return 1
+    fi
+    echo "${elapsed}"
+}
+
+# Prints the median of the runs, the runs themselves go to stderr
+benchmark() {
+    local mode="$1"; shift
+    local times=()
+    for i in $(seq 1 "${RUNS}"); do
+        times+=("$(run_once "${mode}" "$@")")
+        echo "${mode} run ${i}: ${times[-1]} ms" >&2
+    done
+    printf '%s\n' "${times[@]}" | sort -n | awk '{ t[NR] = $1 } END { print t[int((NR + 1) / 2)] }'
+}
+
+PLAIN="$(benchmark plain "${OUT}" -jar plain.jar)"
+FAST="$(benchmark fast "${OUT}/fast" -XX:SharedArchiveFile=app.jsa -Xlog:cds=error -Dspring.aot.enabled=true -jar app.jar)"
+
+echo
+echo "Median time to first successful login over ${RUNS} runs"
+echo "  plain jar:                 ${PLAIN} ms"
+echo "  CDS + AOT, extracted jar:  ${FAST} ms"
+
+if [[ -n "${MAX_STARTUP_MS:-}" && "${FAST}" -gt "${MAX_STARTUP_MS}" ]]; then
+    echo "Fast-startup median ${FAST} ms is above MAX_STARTUP_MS=${MAX_STARTUP_MS}" >&2
+    exit 1
+fi
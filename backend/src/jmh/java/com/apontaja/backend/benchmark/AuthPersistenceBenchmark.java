@@ -0,0 +1,102 @@
+package com.apontaja.backend.benchmark;
+
+import com.apontaja.backend.BackendApplication;
+import com.apontaja.backend.dto.AuthResponse;
+import com.apontaja.backend.dto.LoginRequest;
+import com.apontaja.backend.dto.RegisterRequest;
+import com.apontaja.backend.service.AuthenticationService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Register and login throughput through the full service stack on an embedded PostgreSQL,
+ * with the prod profile alone ({@code baseline}) and with the perf profile on top ({@code perf}).
+ * BCrypt runs at its lowest strength so that the database round trips, not hashing, dominate.
+ * <p>
+ * Numbers are relative: the database shares the CPU with the benchmark threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class AuthPersistenceBenchmark {
+
+    private static final String PASSWORD = "benchmark-password";
+    private static final int LOGIN_USERS = 256;
+
+    @Param({"baseline", "perf"})
+    public String configuration;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private AuthenticationService authenticationService;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        // Command-line arguments, so they win over the ${...} placeholders of application-prod.yml
+        context = new SpringApplicationBuilder(BackendApplication.class)
+                .profiles(configuration.equals("perf") ? new String[]{"prod", "perf"} : new String[]{"prod"})
+                .run(
+                        "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=postgres",
+                        "--server.port=0",
+                        "--spring.mail.host=localhost",
+                        "--spring.mail.port=2525",
+                        "--spring.mail.username=benchmark",
+                        "--spring.mail.password=benchmark",
+                        "--jwt.keys.path=",
+                        "--jwt.expiration=" + BenchmarkFixtures.ACCESS_TOKEN_EXPIRATION_MS,
+                        "--app.mail.outbox.poll-interval-ms=3600000",
+                        "--app.security.rate-limit.enabled=false",
+                        "--app.security.password-hashing.strength=4",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.apontaja.backend=WARN");
+        authenticationService = context.getBean(AuthenticationService.class);
+
+        for (int i = 0; i < LOGIN_USERS; i++) {
+            authenticationService.register(registration(loginEmail(i)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public AuthResponse register() {
+        return authenticationService.register(registration("register-" + sequence.incrementAndGet() + "@example.com"));
+    }
+
+    @Benchmark
+    public AuthResponse login() {
+        String email = loginEmail((int) (sequence.incrementAndGet() % LOGIN_USERS));
+        return authenticationService.login(LoginRequest.builder().email(email).password(PASSWORD).build());
+    }
+
+    private static String loginEmail(int index) {
+        return "login-" + index + "@example.com";
+    }
+
+    private static RegisterRequest registration(String email) {
+        return RegisterRequest.builder()
+                .email(email)
+                .password(PASSWORD)
+                .firstName("Bench")
+                .lastName("Mark")
+                .build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.apontaja.backend.benchmark;
+
+import com.apontaja.backend.model.Role;
+import com.apontaja.backend.model.User;
+import com.apontaja.backend.security.jwt.JwtKeyRing;
+import com.apontaja.backend.security.jwt.JwtTokenProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+/**
+ * Builds the objects under test the same way Spring would, without starting a context.
+ */
+final class BenchmarkFixtures {
+
+    static final long ACCESS_TOKEN_EXPIRATION_MS = 900_000L;
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtTokenProvider jwtTokenProvider() {
+        // Without a key directory the ring generates an ES256 key, which is what production signs with
+        JwtKeyRing keyRing = new JwtKeyRing("", Duration.ZERO);
+        JwtTokenProvider provider = new JwtTokenProvider(keyRing, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(provider, "accessTokenExpiration", ACCESS_TOKEN_EXPIRATION_MS);
+        return provider;
+    }
+
+    static User user() {
+        return User.builder()
+                .id(42L)
+                .email("benchmark@apontaja.com")
+                .password("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3ZsDwL0z5ZqFvYzWJ3Kx0y6")
+                .firstName("Bench")
+                .lastName("Mark")
+                .role(Role.USER)
+                .enabled(true)
+                .build();
+    }
+}
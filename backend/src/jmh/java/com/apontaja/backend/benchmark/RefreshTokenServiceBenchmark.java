@@ -0,0 +1,49 @@
+package com.apontaja.backend.benchmark;
+
+import com.apontaja.backend.model.RefreshToken;
+import com.apontaja.backend.model.User;
+import com.apontaja.backend.repository.RefreshTokenStore;
+import com.apontaja.backend.service.RefreshTokenServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process cost of creating a refresh token (token generation and entity building),
+ * with a store stub that returns the entity unchanged so no database time is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RefreshTokenServiceBenchmark {
+
+    private RefreshTokenServiceImpl refreshTokenService;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        RefreshTokenStore store = (RefreshTokenStore) Proxy.newProxyInstance(
+                RefreshTokenStore.class.getClassLoader(),
+                new Class<?>[]{RefreshTokenStore.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("save")) {
+                        return args[0];
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        refreshTokenService = new RefreshTokenServiceImpl(store);
+        ReflectionTestUtils.setField(refreshTokenService, "refreshTokenDurationMs", 604_800_000L);
+        user = BenchmarkFixtures.user();
+    }
+
+    @Benchmark
+    public RefreshToken createRefreshToken() {
+        return refreshTokenService.createRefreshToken(user);
+    }
+}
@@ -0,0 +1,99 @@
+package com.apontaja.backend.benchmark;
+
+import com.apontaja.backend.BackendApplication;
+import com.apontaja.backend.dto.RegisterRequest;
+import com.apontaja.backend.service.AuthenticationService;
+import com.apontaja.backend.service.RefreshTokenService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Refresh token rotation throughput on an embedded PostgreSQL, for each {@code app.refresh-token.store}.
+ * Every thread rotates its own family, as a client refreshing its session would.
+ * <p>
+ * Numbers are relative: the database shares the CPU with the benchmark threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class RefreshTokenStoreBenchmark {
+
+    @Param({"jpa", "jdbc", "write-behind"})
+    public String store;
+
+    private EmbeddedPostgres postgres;
+    private Path journalDir;
+    private ConfigurableApplicationContext context;
+    private AuthenticationService authenticationService;
+    private RefreshTokenService refreshTokenService;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        journalDir = Files.createTempDirectory("refresh-token-journal");
+        // Command-line arguments, so they win over the ${...} placeholders of application-prod.yml
+        context = new SpringApplicationBuilder(BackendApplication.class)
+                .profiles("prod")
+                .run(
+                        "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=postgres",
+                        "--server.port=0",
+                        "--spring.mail.host=localhost",
+                        "--spring.mail.port=2525",
+                        "--spring.mail.username=benchmark",
+                        "--spring.mail.password=benchmark",
+                        "--jwt.keys.path=",
+                        "--jwt.expiration=" + BenchmarkFixtures.ACCESS_TOKEN_EXPIRATION_MS,
+                        "--app.mail.outbox.poll-interval-ms=3600000",
+                        "--app.security.rate-limit.enabled=false",
+                        "--app.security.password-hashing.strength=4",
+                        "--app.refresh-token.store=" + store,
+                        "--app.refresh-token.write-behind.journal-dir=" + journalDir,
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.apontaja.backend=WARN");
+        authenticationService = context.getBean(AuthenticationService.class);
+        refreshTokenService = context.getBean(RefreshTokenService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+
+        private String refreshToken;
+
+        @Setup(Level.Trial)
+        public void login(RefreshTokenStoreBenchmark benchmark) {
+            refreshToken = benchmark.authenticationService.register(RegisterRequest.builder()
+                    .email("refresh-" + benchmark.sequence.incrementAndGet() + "@example.com")
+                    .password("benchmark-password")
+                    .firstName("Bench")
+                    .lastName("Mark")
+                    .build()).getRefreshToken();
+        }
+    }
+
+    @Benchmark
+    public String rotate(Session session) {
+        session.refreshToken = refreshTokenService.rotate(session.refreshToken).getToken();
+        return session.refreshToken;
+    }
+}
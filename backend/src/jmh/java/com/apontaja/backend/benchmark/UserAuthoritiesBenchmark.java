@@ -0,0 +1,40 @@
+package com.apontaja.backend.benchmark;
+
+import com.apontaja.backend.model.User;
+import com.apontaja.backend.security.UserPrincipal;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authority lookup on the entity (allocates on every call) versus the claims-based principal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserAuthoritiesBenchmark {
+
+    private User user;
+    private UserPrincipal principal;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkFixtures.user();
+        principal = new UserPrincipal(user.getId(), user.getEmail(), user.getRole());
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> userGetAuthorities() {
+        return user.getAuthorities();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> principalGetAuthorities() {
+        return principal.getAuthorities();
+    }
+}
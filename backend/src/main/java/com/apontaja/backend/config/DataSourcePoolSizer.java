@@ -0,0 +1,56 @@
+package com.apontaja.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sizes the Hikari pool from the hardware instead of a fixed number (enabled by the perf profile).
+ * <p>
+ * Starts from the PostgreSQL rule of thumb, {@code cores * 2 + 1}: past that, extra connections
+ * only queue inside the database. The result is capped by this replica's share of the
+ * database's {@code max_connections}, after keeping some for migrations and admin sessions.
+ * The pool is fixed-size (minimum idle = maximum), so no connection is opened under load.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.datasource.pool-sizing.enabled", havingValue = "true")
+public class DataSourcePoolSizer implements BeanPostProcessor {
+
+    private final int databaseCores;
+    private final int maxConnections;
+    private final int reservedConnections;
+    private final int replicas;
+
+    public DataSourcePoolSizer(@Value("${app.datasource.pool-sizing.database-cores:0}") int databaseCores,
+                               @Value("${app.datasource.pool-sizing.max-connections:100}") int maxConnections,
+                               @Value("${app.datasource.pool-sizing.reserved-connections:10}") int reservedConnections,
+                               @Value("${app.datasource.pool-sizing.replicas:1}") int replicas) {
+        this.databaseCores = databaseCores > 0 ? databaseCores : Runtime.getRuntime().availableProcessors();
+        this.maxConnections = maxConnections;
+        this.reservedConnections = reservedConnections;
+        this.replicas = Math.max(1, replicas);
+    }
+
+    // After initialization: Hikari's properties are bound by then, and the pool only starts on first use
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource) {
+            int size = poolSize();
+            dataSource.setMaximumPoolSize(size);
+            dataSource.setMinimumIdle(size);
+            log.info("Sized connection pool {} to {} connections ({} database cores, {} of {} connections for {} replicas)",
+                    dataSource.getPoolName(), size, databaseCores, maxConnections - reservedConnections, maxConnections, replicas);
+        }
+        return bean;
+    }
+
+    int poolSize() {
+        int cpuBound = databaseCores * 2 + 1;
+        int connectionShare = (maxConnections - reservedConnections) / replicas;
+        return Math.max(1, Math.min(cpuBound, connectionShare));
+    }
+}
@@ -0,0 +1,86 @@
+package com.apontaja.backend.config;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import com.sun.management.OperatingSystemMXBean;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import org.springframework.boot.actuate.info.Info;
+import org.springframework.boot.actuate.info.InfoContributor;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adds the effective JVM settings to {@code /actuator/info} under {@code jvm}: the memory the
+ * JVM sees (the container's limit), its processors, collectors, the memory flags set by
+ * {@code scripts/jvm-entrypoint.sh} and the flight recordings in progress. Flags are reported
+ * as the JVM resolved them, so a default shows up as well as an explicit value.
+ */
+@Component
+public class JvmInfoContributor implements InfoContributor {
+
+    static final List<String> FLAGS = List.of(
+            "MaxHeapSize", "InitialHeapSize", "MaxMetaspaceSize", "ReservedCodeCacheSize",
+            "MaxDirectMemorySize", "ThreadStackSize", "UseG1GC", "UseZGC", "ZGenerational",
+            "UseSerialGC", "MaxGCPauseMillis", "ExitOnOutOfMemoryError");
+
+    private final HotSpotDiagnosticMXBean diagnostics =
+            ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+    private final OperatingSystemMXBean operatingSystem =
+            ManagementFactory.getPlatformMXBean(OperatingSystemMXBean.class);
+
+    @Override
+    public void contribute(Info.Builder builder) {
+        Map<String, Object> jvm = new LinkedHashMap<>();
+        jvm.put("memory", operatingSystem.getTotalMemorySize());
+        jvm.put("processors", Runtime.getRuntime().availableProcessors());
+        jvm.put("garbageCollectors", ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .map(GarbageCollectorMXBean::getName)
+                .toList());
+        jvm.put("flags", flags());
+        jvm.put("flightRecordings", flightRecordings());
+        builder.withDetail("jvm", jvm);
+    }
+
+    private Map<String, String> flags() {
+        Map<String, String> flags = new LinkedHashMap<>();
+        // No HotSpot flags in a native image
+        if (diagnostics == null) {
+            return flags;
+        }
+        for (String flag : FLAGS) {
+            try {
+                flags.put(flag, diagnostics.getVMOption(flag).getValue());
+            } catch (IllegalArgumentException ex) {
+                // Not a flag of this JVM build
+            }
+        }
+        return flags;
+    }
+
+    private List<Map<String, Object>> flightRecordings() {
+        // Asking for the recorder would start JFR when no recording did
+        if (!FlightRecorder.isAvailable() || !FlightRecorder.isInitialized()) {
+            return List.of();
+        }
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .map(JvmInfoContributor::describe)
+                .toList();
+    }
+
+    private static Map<String, Object> describe(Recording recording) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("name", recording.getName());
+        details.put("state", recording.getState().name());
+        details.put("toDisk", recording.isToDisk());
+        details.put("maxAge", recording.getMaxAge() == null ? null : recording.getMaxAge().toString());
+        details.put("maxSize", recording.getMaxSize());
+        details.put("destination", recording.getDestination() == null ? null : recording.getDestination().toString());
+        details.put("repository", System.getProperty("jdk.jfr.repository"));
+        return details;
+    }
+}
@@ -0,0 +1,104 @@
+package com.apontaja.backend.config.profiling;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * {@code GET /actuator/flightrecording?minutes=N} returns the last N minutes of the continuous
+ * flight recording started by {@code scripts/jvm-entrypoint.sh}, as a {@code .jfr} file that
+ * {@code jfr} or JDK Mission Control opens. Restricted to admins by {@code SecurityConfig}.
+ * <p>
+ * The recording keeps running: a stopped copy of it is streamed, then discarded. JFR stores
+ * data in chunks, so the file may start a little before the requested window.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "flightrecording")
+public class FlightRecordingEndpoint {
+
+    private final String recordingName;
+    private final int defaultMinutes;
+    private final int maxMinutes;
+
+    public FlightRecordingEndpoint(@Value("${app.profiling.recording-name:continuous}") String recordingName,
+                                   @Value("${app.profiling.dump.default-minutes:10}") int defaultMinutes,
+                                   @Value("${app.profiling.dump.max-minutes:360}") int maxMinutes) {
+        this.recordingName = recordingName;
+        this.defaultMinutes = defaultMinutes;
+        this.maxMinutes = maxMinutes;
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump(@Nullable Integer minutes) throws IOException {
+        int window = minutes == null ? defaultMinutes : minutes;
+        if (window < 1 || window > maxMinutes) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        Optional<Recording> recording = continuousRecording();
+        if (recording.isEmpty()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+
+        Recording snapshot = recording.get().copy(true);
+        Instant end = Instant.now();
+        InputStream stream;
+        try {
+            stream = snapshot.getStream(end.minus(Duration.ofMinutes(window)), end);
+        } catch (IOException | RuntimeException ex) {
+            snapshot.close();
+            throw ex;
+        }
+        if (stream == null) {
+            snapshot.close();
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        log.info("Dumping the last {} minutes of flight recording '{}'", window, recordingName);
+        return new WebEndpointResponse<>(new InputStreamResource(new SnapshotStream(stream, snapshot)));
+    }
+
+    private Optional<Recording> continuousRecording() {
+        // Asking for the recorder would start JFR when no recording did
+        if (!FlightRecorder.isAvailable() || !FlightRecorder.isInitialized()) {
+            return Optional.empty();
+        }
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(recording -> recordingName.equals(recording.getName()))
+                .findFirst();
+    }
+
+    // Closed by the message converter once the response is written, which releases the copy's chunks
+    private static final class SnapshotStream extends FilterInputStream {
+
+        private final Recording snapshot;
+
+        private SnapshotStream(InputStream stream, Recording snapshot) {
+            super(stream);
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                snapshot.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.apontaja.backend.config.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * An access token signed or verified by {@code JwtTokenProvider}. Only calls of 1 ms or more
+ * are recorded, since every authenticated request verifies a token.
+ */
+@Name("com.apontaja.Jwt")
+@Label("JWT")
+@Category({"Apontaja", "Authentication"})
+@Description("Access token signed or verified")
+@StackTrace(false)
+@Threshold("1 ms")
+public class JwtEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Valid")
+    @Description("Whether a verified token was accepted; always true when signing")
+    public boolean valid;
+
+    public JwtEvent(String operation) {
+        this.operation = operation;
+    }
+}
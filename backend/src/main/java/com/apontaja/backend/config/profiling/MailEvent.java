@@ -0,0 +1,36 @@
+package com.apontaja.backend.config.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * An email queued in the outbox by {@code EmailServiceImpl}, or a batch of them sent over SMTP
+ * by {@code EmailOutboxDispatcher}.
+ */
+@Name("com.apontaja.Mail")
+@Label("Mail")
+@Category({"Apontaja", "Mail"})
+@Description("Email queued in the outbox or batch sent over SMTP")
+@StackTrace(false)
+public class MailEvent extends Event {
+
+    @Label("Operation")
+    @Description("The EmailService method, or smtp for a batch sent by the dispatcher")
+    public String operation;
+
+    @Label("Messages")
+    public int messages;
+
+    @Label("Failures")
+    @Description("Messages the SMTP server didn't accept")
+    public int failures;
+
+    public MailEvent(String operation, int messages) {
+        this.operation = operation;
+        this.messages = messages;
+    }
+}
@@ -0,0 +1,36 @@
+package com.apontaja.backend.config.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A password hashed or checked, e.g. by {@code DaoAuthenticationProvider} during a login. The
+ * event covers the wait for a hashing worker, which {@link #queueWait} isolates from BCrypt itself.
+ */
+@Name("com.apontaja.PasswordHash")
+@Label("Password Hash")
+@Category({"Apontaja", "Authentication"})
+@Description("Password hashed or checked against its BCrypt hash, including the queue wait")
+@StackTrace(false)
+public class PasswordHashEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Queue Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    public long queueWait;
+
+    @Label("Rejected")
+    @Description("The queue was full and the request was turned away")
+    public boolean rejected;
+
+    public PasswordHashEvent(String operation) {
+        this.operation = operation;
+    }
+}
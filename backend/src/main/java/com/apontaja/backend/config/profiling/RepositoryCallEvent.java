@@ -0,0 +1,36 @@
+package com.apontaja.backend.config.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A Spring Data repository call, e.g. {@code UserRepository.findByEmail}, including the wait for
+ * a connection. Only calls of 5 ms or more are recorded, to keep the continuous recording small.
+ */
+@Name("com.apontaja.RepositoryCall")
+@Label("Repository Call")
+@Category({"Apontaja", "Database"})
+@Description("Spring Data repository method call")
+@StackTrace(false)
+@Threshold("5 ms")
+public class RepositoryCallEvent extends Event {
+
+    @Label("Repository")
+    public String repository;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Failed")
+    public boolean failed;
+
+    public RepositoryCallEvent(String repository, String method) {
+        this.repository = repository;
+        this.method = method;
+    }
+}
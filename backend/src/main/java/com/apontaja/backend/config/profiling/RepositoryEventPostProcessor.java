@@ -0,0 +1,40 @@
+package com.apontaja.backend.config.profiling;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records a {@link RepositoryCallEvent} for every Spring Data repository call, such as those of
+ * {@code UserRepository} and {@code RefreshTokenRepository}. When no recording enables the
+ * event, {@code begin} and {@code commit} return at once.
+ */
+@Component
+class RepositoryEventPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactoryBean) {
+            repositoryFactoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, repository) -> proxyFactory.addAdvice(
+                            interceptor(repository.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+    }
+
+    private static MethodInterceptor interceptor(String repositoryName) {
+        return invocation -> {
+            RepositoryCallEvent event = new RepositoryCallEvent(repositoryName, invocation.getMethod().getName());
+            event.begin();
+            try {
+                return invocation.proceed();
+            } catch (Throwable ex) {
+                event.failed = true;
+                throw ex;
+            } finally {
+                event.commit();
+            }
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package com.apontaja.backend.config.tracing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps every Spring Data repository call in a span named after the repository and method,
+ * e.g. {@code RefreshTokenRepository.deleteByUser}. Custom fragments such as the refresh token
+ * rotation are covered too, since they are called through the same proxy.
+ */
+@Component
+class RepositoryTracingPostProcessor implements BeanPostProcessor {
+
+    // Resolved on first use: post-processors are created before the beans they depend on
+    private final ObjectProvider<Tracing> tracing;
+
+    RepositoryTracingPostProcessor(ObjectProvider<Tracing> tracing) {
+        this.tracing = tracing;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactoryBean) {
+            repositoryFactoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, repository) -> proxyFactory.addAdvice(
+                            interceptor(repository.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+    }
+
+    private MethodInterceptor interceptor(String repositoryName) {
+        return invocation -> tracing.getObject().inSpan(
+                repositoryName + "." + invocation.getMethod().getName(), span -> invocation.proceed());
+    }
+}
@@ -0,0 +1,62 @@
+package com.apontaja.backend.config.tracing;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opens spans around the stages of a request that Spring doesn't instrument itself: token
+ * authentication, password hashing, repository calls and SMTP sends. A span becomes a child of
+ * whatever span is current, usually the HTTP request's.
+ * <p>
+ * Falls back to a no-op tracer when tracing is off ({@code management.tracing.enabled=false},
+ * and in tests unless they opt in), so callers never check.
+ */
+@Component
+public class Tracing {
+
+    private static final Tracing NOOP = new Tracing(Tracer.NOOP);
+
+    private final Tracer tracer;
+
+    @Autowired
+    public Tracing(ObjectProvider<Tracer> tracer) {
+        this(tracer.getIfAvailable(() -> Tracer.NOOP));
+    }
+
+    Tracing(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    public static Tracing noop() {
+        return NOOP;
+    }
+
+    /**
+     * Run work in a new span, which records the exception if the work throws.
+     * Unsampled spans are not recorded, so this costs little outside sampled traces.
+     *
+     * @param name The span name, e.g. {@code UserRepository.findByEmail}
+     * @param work The work, which may tag the span
+     * @return What the work returned
+     */
+    public <T, E extends Throwable> T inSpan(String name, SpanWork<T, E> work) throws E {
+        Span span = tracer.nextSpan().name(name).start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            return work.run(span);
+        } catch (Throwable ex) {
+            span.error(ex);
+            throw ex;
+        } finally {
+            span.end();
+        }
+    }
+
+    @FunctionalInterface
+    public interface SpanWork<T, E extends Throwable> {
+
+        T run(Span span) throws E;
+    }
+}
@@ -0,0 +1,27 @@
+package com.apontaja.backend.config.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Span exporters beyond Spring Boot's OTLP one, which is created when
+ * {@code management.otlp.tracing.endpoint} is set. Every exporter bean is fed by the same
+ * batch span processor.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.tracing.file.enabled", havingValue = "true")
+    public SpanExporter jsonLinesSpanExporter(@Value("${app.tracing.file.path:traces.jsonl}") Path path,
+                                              ObjectMapper objectMapper) throws IOException {
+        return new JsonLinesSpanExporter(path, objectMapper);
+    }
+}
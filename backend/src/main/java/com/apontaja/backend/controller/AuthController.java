@@ -4,6 +4,7 @@ import com.apontaja.backend.dto.AuthResponse;
 import com.apontaja.backend.dto.LoginRequest;
 import com.apontaja.backend.dto.RefreshTokenRequest;
 import com.apontaja.backend.dto.RegisterRequest;
+import com.apontaja.backend.service.AuthMetrics;
 import com.apontaja.backend.service.AuthenticationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -16,28 +17,29 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final AuthenticationService authenticationService;
+    private final AuthMetrics authMetrics;
 
     @PostMapping("/register")
     public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest request) {
-        AuthResponse response = authenticationService.register(request);
+        AuthResponse response = authMetrics.record(AuthMetrics.REGISTER, () -> authenticationService.register(request));
         return ResponseEntity.ok(response);
     }
 
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
-        AuthResponse response = authenticationService.login(request);
+        AuthResponse response = authMetrics.record(AuthMetrics.LOGIN, () -> authenticationService.login(request));
         return ResponseEntity.ok(response);
     }
 
     @PostMapping("/refresh")
     public ResponseEntity<AuthResponse> refreshToken(@Valid @RequestBody RefreshTokenRequest request) {
-        AuthResponse response = authenticationService.refreshToken(request);
+        AuthResponse response = authMetrics.record(AuthMetrics.REFRESH, () -> authenticationService.refreshToken(request));
         return ResponseEntity.ok(response);
     }
 
     @PostMapping("/logout")
     public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request) {
-        authenticationService.logout(request.getRefreshToken());
+        authMetrics.record(AuthMetrics.LOGOUT, () -> authenticationService.logout(request.getRefreshToken()));
         return ResponseEntity.noContent().build();
     }
 }
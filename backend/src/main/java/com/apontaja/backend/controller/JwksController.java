@@ -0,0 +1,61 @@
+package com.apontaja.backend.controller;
+
+import com.apontaja.backend.security.OpaqueTokens;
+import com.apontaja.backend.security.jwt.JwtKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Publishes the public keys access tokens are signed with, so that other services can verify
+ * them without calling this one.
+ * <p>
+ * The document only changes when the key ring does. Clients revalidate with the ETag once
+ * {@code jwt.jwks.max-age} has passed and get a 304 while the keys are unchanged.
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private static final MediaType JWK_SET = MediaType.parseMediaType("application/jwk-set+json");
+
+    private final JwtKeyRing keyRing;
+
+    @Value("${jwt.jwks.max-age:5m}")
+    private Duration maxAge;
+
+    // Rendered once per key set; replaced when the ring reloads
+    private volatile Rendered rendered;
+
+    private record Rendered(JwtKeyRing.KeySet source, String etag) {
+    }
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<String> jwks() {
+        JwtKeyRing.KeySet keySet = keyRing.current();
+        Rendered current = rendered;
+        if (current == null || current.source() != keySet) {
+            current = new Rendered(keySet, etag(keySet.jwks()));
+            rendered = current;
+        }
+        // Spring answers 304 itself when If-None-Match matches the ETag
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(maxAge).cachePublic())
+                .eTag(current.etag())
+                .contentType(JWK_SET)
+                .body(keySet.jwks());
+    }
+
+    private static String etag(String body) {
+        byte[] digest = Arrays.copyOf(OpaqueTokens.sha256(body), 16);
+        return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+    }
+}
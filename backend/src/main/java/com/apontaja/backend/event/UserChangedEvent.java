@@ -0,0 +1,11 @@
+package com.apontaja.backend.event;
+
+/**
+ * Published whenever a {@code User} row is inserted, updated or deleted,
+ * so in-process caches holding that user can be invalidated.
+ *
+ * @param userId The id of the changed user
+ * @param email  The email of the user after the change
+ */
+public record UserChangedEvent(Long userId, String email) {
+}
@@ -6,7 +6,24 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ResponseStatus(HttpStatus.FORBIDDEN)
 public class TokenRefreshException extends RuntimeException {
 
+    public enum Reason {
+        EXPIRED,
+        REUSED,
+        INVALID
+    }
+
+    private final Reason reason;
+
     public TokenRefreshException(String token, String message) {
+        this(token, Reason.INVALID, message);
+    }
+
+    public TokenRefreshException(String token, Reason reason, String message) {
         super(String.format("Failed for [%s]: %s", token, message));
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
     }
 }
@@ -0,0 +1,7 @@
+package com.apontaja.backend.model;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENT,
+    DEAD
+}
@@ -7,29 +7,51 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
+import java.util.UUID;
 
 @Entity
-@Table(name = "refresh_tokens")
+@NamedEntityGraph(name = RefreshToken.WITH_USER, attributeNodes = @NamedAttributeNode("user"))
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_user_id", columnList = "user_id"),
+        @Index(name = "idx_refresh_tokens_expiry_date", columnList = "expiry_date"),
+        @Index(name = "idx_refresh_tokens_family_id", columnList = "family_id")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class RefreshToken {
 
+    public static final String WITH_USER = "RefreshToken.user";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_tokens_seq")
+    @SequenceGenerator(name = "refresh_tokens_seq", sequenceName = "refresh_tokens_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    // Only the SHA-256 digest is stored; the raw token is handed to the client once
+    @Column(name = "token_hash", nullable = false, unique = true, length = 32)
+    private byte[] tokenHash;
+
+    @Transient
     private String token;
 
-    @ManyToOne
+    // Lazy: most statements on refresh tokens never need the user, those that do fetch it with WITH_USER
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
     @Column(nullable = false)
     private Instant expiryDate;
 
+    // Shared by all the tokens issued from one login through successive refreshes
+    @Column(name = "family_id", nullable = false)
+    private UUID familyId;
+
+    // Set once the token has been exchanged for its successor; presenting it again is a replay
+    @Column(name = "rotated_at")
+    private Instant rotatedAt;
+
     public boolean isExpired() {
         return Instant.now().isAfter(expiryDate);
     }
@@ -0,0 +1,25 @@
+package com.apontaja.backend.model;
+
+import com.apontaja.backend.event.UserChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Turns JPA lifecycle callbacks on {@link User} into {@link UserChangedEvent}s.
+ * Instantiated by Hibernate through Spring's bean container, so dependencies are injected.
+ */
+@RequiredArgsConstructor
+public class UserEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onUserChanged(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getEmail()));
+    }
+}
@@ -0,0 +1,50 @@
+package com.apontaja.backend.repository;
+
+import com.apontaja.backend.model.EmailOutboxMessage;
+import com.apontaja.backend.model.EmailOutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    // SKIP LOCKED (lock timeout -2) lets several replicas claim disjoint batches.
+    // The status is a literal, not a parameter, so cached generic plans can still match
+    // the partial index idx_email_outbox_pending_due.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m FROM EmailOutboxMessage m " +
+            "WHERE m.status = com.apontaja.backend.model.EmailOutboxStatus.PENDING AND m.nextAttemptAt <= :now " +
+            "ORDER BY m.nextAttemptAt")
+    List<EmailOutboxMessage> findPendingDueForUpdate(Instant now, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.status = :status, m.sentAt = :sentAt WHERE m.id IN :ids")
+    int markSent(List<Long> ids, EmailOutboxStatus status, Instant sentAt);
+
+    // Retention sweep, oldest first; literal statuses so the partial indexes of V10 match
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m.id FROM EmailOutboxMessage m " +
+            "WHERE m.status = com.apontaja.backend.model.EmailOutboxStatus.SENT AND m.sentAt < :cutoff " +
+            "ORDER BY m.sentAt")
+    List<Long> findSentIdsForUpdate(Instant cutoff, Pageable pageable);
+
+    // A dead message's last claim pushed next_attempt_at past its final attempt
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m.id FROM EmailOutboxMessage m " +
+            "WHERE m.status = com.apontaja.backend.model.EmailOutboxStatus.DEAD AND m.nextAttemptAt < :cutoff " +
+            "ORDER BY m.nextAttemptAt")
+    List<Long> findDeadIdsForUpdate(Instant cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM EmailOutboxMessage m WHERE m.id IN :ids")
+    int deleteByIdIn(List<Long> ids);
+}
@@ -0,0 +1,114 @@
+package com.apontaja.backend.repository;
+
+import com.apontaja.backend.model.RefreshToken;
+import com.apontaja.backend.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Refresh tokens in PostgreSQL through plain SQL, with no entity manager, persistence context
+ * or dirty checking in the way. Every operation is one statement, the rotation included (see
+ * {@link RefreshTokenRotationImpl}). Mostly there to compare with the other stores.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.refresh-token.store", havingValue = "jdbc")
+public class JdbcRefreshTokenStore implements RefreshTokenStore {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO refresh_tokens (token_hash, user_id, family_id, expiry_date)
+            VALUES (?, ?, ?, ?)
+            RETURNING id
+            """;
+
+    private static final String SELECT_SQL = """
+            SELECT rt.id, rt.family_id, rt.expiry_date, rt.rotated_at,
+                   u.id AS user_id, u.email, u.first_name, u.last_name, u.role, u.enabled
+            FROM refresh_tokens rt JOIN users u ON u.id = rt.user_id
+            WHERE rt.token_hash = ?
+            """;
+
+    private static final String SELECT_STATE_SQL =
+            "SELECT id, user_id, family_id, expiry_date, rotated_at FROM refresh_tokens WHERE token_hash = ?";
+
+    private static final String DELETE_FAMILY_OF_TOKEN_SQL = """
+            DELETE FROM refresh_tokens
+            WHERE family_id = (SELECT family_id FROM refresh_tokens WHERE token_hash = ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public RefreshToken save(RefreshToken refreshToken) {
+        Long id = jdbcTemplate.queryForObject(INSERT_SQL, Long.class,
+                refreshToken.getTokenHash(), refreshToken.getUser().getId(), refreshToken.getFamilyId(),
+                Timestamp.from(refreshToken.getExpiryDate()));
+        refreshToken.setId(id);
+        return refreshToken;
+    }
+
+    @Override
+    public Optional<RefreshToken> findByTokenHash(byte[] tokenHash) {
+        List<RefreshToken> found = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> RefreshToken.builder()
+                .id(rs.getLong("id"))
+                .tokenHash(tokenHash)
+                .user(RefreshTokenRotationImpl.mapUser(rs))
+                .familyId(rs.getObject("family_id", UUID.class))
+                .expiryDate(rs.getTimestamp("expiry_date").toInstant())
+                .rotatedAt(toInstant(rs.getTimestamp("rotated_at")))
+                .build(), tokenHash);
+        return found.stream().findFirst();
+    }
+
+    @Override
+    public Optional<RefreshTokenState> findStateByTokenHash(byte[] tokenHash) {
+        List<RefreshTokenState> found = jdbcTemplate.query(SELECT_STATE_SQL, (rs, rowNum) -> new RefreshTokenState(
+                rs.getLong("id"),
+                rs.getLong("user_id"),
+                rs.getObject("family_id", UUID.class),
+                rs.getTimestamp("expiry_date").toInstant(),
+                toInstant(rs.getTimestamp("rotated_at"))), tokenHash);
+        return found.stream().findFirst();
+    }
+
+    @Override
+    public Optional<RefreshToken> rotate(byte[] tokenHash, byte[] successorHash, Instant now) {
+        Timestamp timestamp = Timestamp.from(now);
+        List<RefreshToken> issued = jdbcTemplate.query(RefreshTokenRotationImpl.ROTATE_SQL,
+                (rs, rowNum) -> RefreshTokenRotationImpl.mapSuccessor(rs, successorHash),
+                timestamp, tokenHash, timestamp, successorHash);
+        return issued.stream().findFirst();
+    }
+
+    @Override
+    public int deleteByFamilyId(UUID familyId) {
+        return jdbcTemplate.update("DELETE FROM refresh_tokens WHERE family_id = ?", familyId);
+    }
+
+    @Override
+    public int deleteFamilyByTokenHash(byte[] tokenHash) {
+        return jdbcTemplate.update(DELETE_FAMILY_OF_TOKEN_SQL, (Object) tokenHash);
+    }
+
+    @Override
+    public void deleteByUser(User user) {
+        jdbcTemplate.update("DELETE FROM refresh_tokens WHERE user_id = ?", user.getId());
+    }
+
+    @Override
+    public void deleteByTokenHash(byte[] tokenHash) {
+        jdbcTemplate.update("DELETE FROM refresh_tokens WHERE token_hash = ?", (Object) tokenHash);
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+}
@@ -0,0 +1,66 @@
+package com.apontaja.backend.repository;
+
+import com.apontaja.backend.model.RefreshToken;
+import com.apontaja.backend.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Refresh tokens through {@link RefreshTokenRepository} (default store). Every operation is a
+ * database round trip; on PostgreSQL a rotation is a single statement.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.refresh-token.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaRefreshTokenStore implements RefreshTokenStore {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Override
+    public RefreshToken save(RefreshToken refreshToken) {
+        RefreshToken saved = refreshTokenRepository.save(refreshToken);
+        saved.setToken(refreshToken.getToken());
+        return saved;
+    }
+
+    @Override
+    public Optional<RefreshToken> findByTokenHash(byte[] tokenHash) {
+        return refreshTokenRepository.findByTokenHash(tokenHash);
+    }
+
+    @Override
+    public Optional<RefreshTokenState> findStateByTokenHash(byte[] tokenHash) {
+        return refreshTokenRepository.findStateByTokenHash(tokenHash);
+    }
+
+    @Override
+    public Optional<RefreshToken> rotate(byte[] tokenHash, byte[] successorHash, Instant now) {
+        return refreshTokenRepository.rotate(tokenHash, successorHash, now);
+    }
+
+    @Override
+    public int deleteByFamilyId(UUID familyId) {
+        return refreshTokenRepository.deleteByFamilyId(familyId);
+    }
+
+    @Override
+    public int deleteFamilyByTokenHash(byte[] tokenHash) {
+        return refreshTokenRepository.deleteFamilyByTokenHash(tokenHash);
+    }
+
+    // Runs in the caller's transaction, which the bulk delete requires
+    @Override
+    public void deleteByUser(User user) {
+        refreshTokenRepository.deleteByUser(user);
+    }
+
+    @Override
+    public void deleteByTokenHash(byte[] tokenHash) {
+        refreshTokenRepository.deleteByTokenHash(tokenHash);
+    }
+}
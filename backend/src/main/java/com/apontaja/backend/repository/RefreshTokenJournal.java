@@ -0,0 +1,326 @@
+package com.apontaja.backend.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of the refresh token changes not yet written to the database, in numbered
+ * segment files. A change is acknowledged once {@link #sync} returns, so a crash can only lose
+ * changes nobody was told about.
+ * <p>
+ * Each record is {@code [length][CRC-32C][type][fields]}. A record cut short by a crash fails
+ * its length or checksum and ends the segment when it is read back. Concurrent writers share
+ * the same {@code fsync}: whoever syncs first covers everything appended before it started.
+ * <p>
+ * Segment creation and deletion also force the directory to disk, so a synced segment can't
+ * lose its directory entry and a deleted one can't come back, to be replayed twice, after a crash.
+ * <p>
+ * Appends and {@link #roll} must be serialized by the caller.
+ */
+final class RefreshTokenJournal implements Closeable {
+
+    private static final String PREFIX = "refresh-tokens-";
+    private static final String SUFFIX = ".journal";
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int MAX_RECORD_BYTES = 1024;
+
+    private static final byte INSERT = 1;
+    private static final byte ROTATE = 2;
+    private static final byte DELETE_TOKEN = 3;
+    private static final byte DELETE_FAMILY = 4;
+    private static final byte DELETE_USER = 5;
+
+    private final Path directory;
+    private final List<Path> closedSegments;
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final ByteBuffer buffer = ByteBuffer.allocate(MAX_RECORD_BYTES);
+
+    private long segmentNumber;
+    private Path segment;
+    private FileChannel channel;
+    private volatile long appendedBytes;
+    private volatile long syncedBytes;
+
+    /**
+     * Open a new segment after the existing ones, which are left for {@link #closedSegments}.
+     */
+    RefreshTokenJournal(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+            closedSegments = listSegments(directory);
+            segmentNumber = closedSegments.isEmpty() ? 0 : number(closedSegments.get(closedSegments.size() - 1));
+            openNextSegment();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * @return The segments left by a previous run, oldest first
+     */
+    List<Path> closedSegments() {
+        return closedSegments;
+    }
+
+    /**
+     * Write a change to the current segment, without waiting for the disk.
+     *
+     * @return The position to {@link #sync} up to
+     */
+    long append(Change change) {
+        buffer.clear().position(HEADER_BYTES);
+        change.writeTo(buffer);
+        int length = buffer.position() - HEADER_BYTES;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), HEADER_BYTES, length);
+        buffer.putInt(0, length).putInt(Integer.BYTES, (int) crc.getValue()).flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        appendedBytes += HEADER_BYTES + length;
+        return appendedBytes;
+    }
+
+    /**
+     * Wait until everything appended up to {@code position} is on disk.
+     */
+    void sync(long position) {
+        if (syncedBytes >= position) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (syncedBytes >= position) {
+                return;
+            }
+            long upTo = appendedBytes;
+            channel.force(false);
+            syncedBytes = upTo;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Close the current segment and start a new one.
+     *
+     * @return The closed segment, to delete once its changes are in the database
+     */
+    Path roll() {
+        syncLock.lock();
+        try {
+            channel.force(false);
+            channel.close();
+            syncedBytes = appendedBytes;
+            Path closed = segment;
+            openNextSegment();
+            return closed;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        syncLock.lock();
+        try {
+            channel.force(false);
+            channel.close();
+            // Nothing was appended since the last roll
+            if (Files.size(segment) == 0) {
+                Files.delete(segment);
+                syncDirectory();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Delete segments whose changes are in the database, and force the deletion to disk.
+     */
+    void delete(List<Path> segments) throws IOException {
+        if (segments.isEmpty()) {
+            return;
+        }
+        for (Path closed : segments) {
+            Files.deleteIfExists(closed);
+        }
+        syncDirectory();
+    }
+
+    /**
+     * Read back the changes of a segment, up to its first incomplete or corrupt record.
+     */
+    static List<Change> read(Path segment) throws IOException {
+        ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(segment));
+        List<Change> changes = new ArrayList<>();
+        while (content.remaining() >= HEADER_BYTES) {
+            int length = content.getInt();
+            int checksum = content.getInt();
+            if (length <= 0 || length > content.remaining()) {
+                break;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(content.array(), content.position(), length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            changes.add(readChange(content.slice(content.position(), length)));
+            content.position(content.position() + length);
+        }
+        return changes;
+    }
+
+    private void openNextSegment() throws IOException {
+        segmentNumber++;
+        segment = directory.resolve(PREFIX + String.format("%020d", segmentNumber) + SUFFIX);
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        syncDirectory();
+    }
+
+    // fsync of the directory itself, which holds the entries of the segment files
+    private void syncDirectory() throws IOException {
+        try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            directoryChannel.force(true);
+        }
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(PREFIX)
+                            && file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long number(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static Change readChange(ByteBuffer record) {
+        byte type = record.get();
+        return switch (type) {
+            case INSERT -> new Insert(readHash(record), record.getLong(), readUuid(record), readInstant(record));
+            case ROTATE -> new Rotate(readHash(record), readInstant(record),
+                    new Insert(readHash(record), record.getLong(), readUuid(record), readInstant(record)));
+            case DELETE_TOKEN -> new DeleteToken(readHash(record));
+            case DELETE_FAMILY -> new DeleteFamily(readUuid(record));
+            case DELETE_USER -> new DeleteUser(record.getLong());
+            default -> throw new IllegalStateException("Unknown refresh token journal record type " + type);
+        };
+    }
+
+    private static byte[] readHash(ByteBuffer record) {
+        byte[] hash = new byte[record.get()];
+        record.get(hash);
+        return hash;
+    }
+
+    private static UUID readUuid(ByteBuffer record) {
+        return new UUID(record.getLong(), record.getLong());
+    }
+
+    private static Instant readInstant(ByteBuffer record) {
+        return Instant.ofEpochSecond(record.getLong(), record.getInt());
+    }
+
+    private static void writeHash(ByteBuffer buffer, byte[] hash) {
+        buffer.put((byte) hash.length).put(hash);
+    }
+
+    private static void writeUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static void writeInstant(ByteBuffer buffer, Instant instant) {
+        buffer.putLong(instant.getEpochSecond()).putInt(instant.getNano());
+    }
+
+    /**
+     * A change to the {@code refresh_tokens} table, as journaled and then written in batches.
+     */
+    sealed interface Change {
+
+        void writeTo(ByteBuffer buffer);
+    }
+
+    record Insert(byte[] tokenHash, long userId, UUID familyId, Instant expiryDate) implements Change {
+
+        @Override
+        public void writeTo(ByteBuffer buffer) {
+            buffer.put(INSERT);
+            writeFields(buffer);
+        }
+
+        void writeFields(ByteBuffer buffer) {
+            writeHash(buffer, tokenHash);
+            buffer.putLong(userId);
+            writeUuid(buffer, familyId);
+            writeInstant(buffer, expiryDate);
+        }
+    }
+
+    // One record for both halves of a rotation, so a crash can't keep one without the other
+    record Rotate(byte[] tokenHash, Instant rotatedAt, Insert successor) implements Change {
+
+        @Override
+        public void writeTo(ByteBuffer buffer) {
+            buffer.put(ROTATE);
+            writeHash(buffer, tokenHash);
+            writeInstant(buffer, rotatedAt);
+            successor.writeFields(buffer);
+        }
+    }
+
+    record DeleteToken(byte[] tokenHash) implements Change {
+
+        @Override
+        public void writeTo(ByteBuffer buffer) {
+            buffer.put(DELETE_TOKEN);
+            writeHash(buffer, tokenHash);
+        }
+    }
+
+    record DeleteFamily(UUID familyId) implements Change {
+
+        @Override
+        public void writeTo(ByteBuffer buffer) {
+            buffer.put(DELETE_FAMILY);
+            writeUuid(buffer, familyId);
+        }
+    }
+
+    record DeleteUser(long userId) implements Change {
+
+        @Override
+        public void writeTo(ByteBuffer buffer) {
+            buffer.put(DELETE_USER);
+            buffer.putLong(userId);
+        }
+    }
+}
@@ -2,19 +2,66 @@ package com.apontaja.backend.repository;
 
 import com.apontaja.backend.model.RefreshToken;
 import com.apontaja.backend.model.User;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
-import org.springframework.data.jpa.repository.Query;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
-public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long>, RefreshTokenRotation {
     
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
+    
+    @Query("SELECT new com.apontaja.backend.repository.RefreshTokenState(rt.id, rt.user.id, rt.familyId, rt.expiryDate, rt.rotatedAt) "
+            + "FROM RefreshToken rt WHERE rt.tokenHash = :tokenHash")
+    Optional<RefreshTokenState> findStateByTokenHash(byte[] tokenHash);
     
     @Modifying
     @Query("DELETE FROM RefreshToken rt WHERE rt.user = :user")
     void deleteByUser(User user);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.tokenHash = :tokenHash")
+    int deleteByTokenHash(byte[] tokenHash);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.familyId = :familyId")
+    int deleteByFamilyId(UUID familyId);
+    
+    // One statement for logout: the presented token and every token of its family
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.familyId = "
+            + "(SELECT t.familyId FROM RefreshToken t WHERE t.tokenHash = :tokenHash)")
+    int deleteFamilyByTokenHash(byte[] tokenHash);
+    
+    // SKIP LOCKED (lock timeout -2) lets sweepers on several replicas work on disjoint batches
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT rt.id FROM RefreshToken rt WHERE rt.expiryDate < :now ORDER BY rt.expiryDate")
+    List<Long> findExpiredIdsForUpdate(Instant now, Pageable pageable);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT rt.id FROM RefreshToken rt WHERE rt.rotatedAt < :cutoff ORDER BY rt.rotatedAt")
+    List<Long> findRotatedIdsForUpdate(Instant cutoff, Pageable pageable);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.id IN :ids")
+    int deleteByIdIn(List<Long> ids);
+    
+    // Planner estimate kept current by autovacuum, -1 until the table is first analyzed (PostgreSQL only)
+    @Query(value = "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = CAST('refresh_tokens' AS regclass)",
+            nativeQuery = true)
+    long estimateRowCount();
 }
@@ -0,0 +1,24 @@
+package com.apontaja.backend.repository;
+
+import com.apontaja.backend.model.RefreshToken;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Custom fragment of {@link RefreshTokenRepository}.
+ */
+public interface RefreshTokenRotation {
+
+    /**
+     * Atomically mark a token as rotated and insert its successor in the same family, with the
+     * same expiry date. Nothing changes unless the token exists, has not been rotated yet and
+     * has not expired.
+     *
+     * @param tokenHash     The digest of the presented token
+     * @param successorHash The digest of the token replacing it
+     * @param now           The current time
+     * @return The successor with its user, or empty if the presented token can't be rotated
+     */
+    Optional<RefreshToken> rotate(byte[] tokenHash, byte[] successorHash, Instant now);
+}
@@ -0,0 +1,132 @@
+package com.apontaja.backend.repository;
+
+import com.apontaja.backend.model.RefreshToken;
+import com.apontaja.backend.model.Role;
+import com.apontaja.backend.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * On PostgreSQL the rotation is a single statement, so a refresh costs one round trip: the
+ * conditional update claims the presented token, the insert issues its successor and the
+ * final select returns the user the access token is signed for. Two requests presenting the
+ * same token serialize on its row lock, and only the first one gets a row back.
+ * <p>
+ * Other databases (H2 in development and tests) lack data-modifying CTEs and run the same
+ * conditional update through JPA, followed by the insert, in one transaction.
+ */
+@RequiredArgsConstructor
+class RefreshTokenRotationImpl implements RefreshTokenRotation {
+
+    // Parameters: now, token hash, now, successor hash
+    static final String ROTATE_SQL = """
+            WITH used AS (
+                UPDATE refresh_tokens SET rotated_at = ?
+                WHERE token_hash = ? AND rotated_at IS NULL AND expiry_date > ?
+                RETURNING user_id, family_id, expiry_date
+            ), issued AS (
+                INSERT INTO refresh_tokens (token_hash, user_id, family_id, expiry_date)
+                SELECT ?, user_id, family_id, expiry_date FROM used
+                RETURNING id, user_id, family_id, expiry_date
+            )
+            SELECT issued.id, issued.family_id, issued.expiry_date,
+                   u.id AS user_id, u.email, u.first_name, u.last_name, u.role, u.enabled
+            FROM issued JOIN users u ON u.id = issued.user_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    @Override
+    public Optional<RefreshToken> rotate(byte[] tokenHash, byte[] successorHash, Instant now) {
+        return isPostgres()
+                ? rotateInOneStatement(tokenHash, successorHash, now)
+                : rotateWithJpa(tokenHash, successorHash, now);
+    }
+
+    private Optional<RefreshToken> rotateInOneStatement(byte[] tokenHash, byte[] successorHash, Instant now) {
+        Timestamp timestamp = Timestamp.from(now);
+        List<RefreshToken> issued = jdbcTemplate.query(ROTATE_SQL,
+                (rs, rowNum) -> mapSuccessor(rs, successorHash),
+                timestamp, tokenHash, timestamp, successorHash);
+        return issued.stream().findFirst();
+    }
+
+    private Optional<RefreshToken> rotateWithJpa(byte[] tokenHash, byte[] successorHash, Instant now) {
+        return transactionTemplate.execute(status -> {
+            // The conditional update is what claims the token, as in the single statement
+            int claimed = entityManager.createQuery("UPDATE RefreshToken rt SET rt.rotatedAt = :now "
+                            + "WHERE rt.tokenHash = :tokenHash AND rt.rotatedAt IS NULL AND rt.expiryDate > :now")
+                    .setParameter("tokenHash", tokenHash)
+                    .setParameter("now", now)
+                    .executeUpdate();
+            if (claimed == 0) {
+                return Optional.empty();
+            }
+
+            RefreshToken used = entityManager.createQuery(
+                            "SELECT rt FROM RefreshToken rt WHERE rt.tokenHash = :tokenHash", RefreshToken.class)
+                    .setParameter("tokenHash", tokenHash)
+                    .setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(RefreshToken.WITH_USER))
+                    .getSingleResult();
+            RefreshToken successor = RefreshToken.builder()
+                    .tokenHash(successorHash)
+                    .user(used.getUser())
+                    .familyId(used.getFamilyId())
+                    .expiryDate(used.getExpiryDate())
+                    .build();
+            entityManager.persist(successor);
+            return Optional.of(successor);
+        });
+    }
+
+    static RefreshToken mapSuccessor(ResultSet rs, byte[] successorHash) throws SQLException {
+        return RefreshToken.builder()
+                .id(rs.getLong("id"))
+                .tokenHash(successorHash)
+                .user(mapUser(rs))
+                .familyId(rs.getObject("family_id", UUID.class))
+                .expiryDate(rs.getTimestamp("expiry_date").toInstant())
+                .build();
+    }
+
+    // The user is a detached snapshot without password, enough to sign an access token
+    static User mapUser(ResultSet rs) throws SQLException {
+        return User.builder()
+                .id(rs.getLong("user_id"))
+                .email(rs.getString("email"))
+                .firstName(rs.getString("first_name"))
+                .lastName(rs.getString("last_name"))
+                .role(Role.valueOf(rs.getString("role")))
+                .enabled(rs.getBoolean("enabled"))
+                .build();
+    }
+
+    private boolean isPostgres() {
+        Boolean detected = postgres;
+        if (detected == null) {
+            detected = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+            postgres = detected;
+        }
+        return detected;
+    }
+}
@@ -0,0 +1,20 @@
+package com.apontaja.backend.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The columns of a refresh token needed to tell why it was refused, read without its user.
+ *
+ * @param id         The id of the token row
+ * @param userId     The id of the owner, read from the foreign key
+ * @param familyId   The family of the token
+ * @param expiryDate When the token expires
+ * @param rotatedAt  When the token was exchanged for its successor, null if it wasn't
+ */
+public record RefreshTokenState(Long id, Long userId, UUID familyId, Instant expiryDate, Instant rotatedAt) {
+
+    public boolean isExpired(Instant now) {
+        return !expiryDate.isAfter(now);
+    }
+}
@@ -0,0 +1,64 @@
+package com.apontaja.backend.repository;
+
+import com.apontaja.backend.model.RefreshToken;
+import com.apontaja.backend.model.User;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Storage of refresh tokens, looked up by the SHA-256 digest of the raw token. Selected with
+ * {@code app.refresh-token.store}:
+ * <ul>
+ *     <li>{@code jpa} (default): {@link RefreshTokenRepository}</li>
+ *     <li>{@code jdbc}: plain SQL on PostgreSQL, without an entity manager</li>
+ *     <li>{@code write-behind}: an in-memory tier that serves every lookup and is flushed to
+ *     PostgreSQL in batches, behind a journal on local disk. Single instance only.</li>
+ * </ul>
+ */
+public interface RefreshTokenStore {
+
+    /**
+     * Store a new token.
+     *
+     * @param refreshToken A token with its digest, user, family and expiry date
+     * @return The stored token, keeping the raw token of the argument
+     */
+    RefreshToken save(RefreshToken refreshToken);
+
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
+
+    /**
+     * The columns needed to tell why a token was refused, without loading its user.
+     */
+    Optional<RefreshTokenState> findStateByTokenHash(byte[] tokenHash);
+
+    /**
+     * Atomically mark a token as rotated and issue its successor in the same family, with the
+     * same expiry date. Nothing changes unless the token exists, has not been rotated yet and
+     * has not expired.
+     *
+     * @param tokenHash     The digest of the presented token
+     * @param successorHash The digest of the token replacing it
+     * @param now           The current time
+     * @return The successor with its user, or empty if the presented token can't be rotated
+     */
+    Optional<RefreshToken> rotate(byte[] tokenHash, byte[] successorHash, Instant now);
+
+    /**
+     * @return The number of tokens deleted
+     */
+    int deleteByFamilyId(UUID familyId);
+
+    /**
+     * Delete a token and every token of its family. Unknown tokens are ignored.
+     *
+     * @return The number of tokens deleted
+     */
+    int deleteFamilyByTokenHash(byte[] tokenHash);
+
+    void deleteByUser(User user);
+
+    void deleteByTokenHash(byte[] tokenHash);
+}
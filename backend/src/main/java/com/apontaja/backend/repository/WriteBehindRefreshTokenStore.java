@@ -0,0 +1,585 @@
+package com.apontaja.backend.repository;
+
+import com.apontaja.backend.event.UserChangedEvent;
+import com.apontaja.backend.model.RefreshToken;
+import com.apontaja.backend.model.User;
+import com.apontaja.backend.repository.RefreshTokenJournal.Change;
+import com.apontaja.backend.repository.RefreshTokenJournal.DeleteFamily;
+import com.apontaja.backend.repository.RefreshTokenJournal.DeleteToken;
+import com.apontaja.backend.repository.RefreshTokenJournal.DeleteUser;
+import com.apontaja.backend.repository.RefreshTokenJournal.Insert;
+import com.apontaja.backend.repository.RefreshTokenJournal.Rotate;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongToIntFunction;
+
+/**
+ * Refresh tokens served from memory and written to PostgreSQL behind the requests.
+ * <p>
+ * Every change is applied to the in-memory tier and appended to a {@link RefreshTokenJournal}
+ * on local disk, and only acknowledged once the journal is synced. A scheduled flush then
+ * writes the changes to {@code refresh_tokens} in batches, in one transaction, and drops the
+ * journal segments it covered. On startup, segments left by a crash are written to the
+ * database before anything is served. Replaying a change twice has no further effect.
+ * <p>
+ * The tier holds the live tokens and the changes not flushed yet. Tokens issued before a
+ * restart are read from the database on first use and kept; rotated, expired and deleted ones
+ * are dropped once flushed. Past {@code maximum-cached} tokens, each flush also drops flushed live
+ * tokens, oldest change first; they are read back on their next use like those issued before a
+ * restart. Changes not flushed yet are never dropped, so only a database outage lets the tier
+ * outgrow its bound. Deletions of rows the tier never loaded are remembered as family
+ * and user tombstones until flushed, so such a row can't be read back in the meantime. At
+ * steady state, a refresh costs a journal write and no database round trip.
+ * <p>
+ * The tier is local to this instance: another replica would neither see its tokens before
+ * they are flushed nor share its rotations. Run a single instance, or use the jpa or jdbc store.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.refresh-token.store", havingValue = "write-behind")
+public class WriteBehindRefreshTokenStore implements RefreshTokenStore {
+
+    // Parameters: token hash, user id, family id, expiry date, user id
+    private static final String INSERT_SQL = """
+            INSERT INTO refresh_tokens (token_hash, user_id, family_id, expiry_date)
+            SELECT ?, ?, ?, ? WHERE EXISTS (SELECT 1 FROM users WHERE id = ?)
+            ON CONFLICT (token_hash) DO NOTHING
+            """;
+
+    private static final String ROTATE_SQL =
+            "UPDATE refresh_tokens SET rotated_at = ? WHERE token_hash = ? AND rotated_at IS NULL";
+
+    private static final String SELECT_STATE_SQL =
+            "SELECT id, user_id, family_id, expiry_date, rotated_at FROM refresh_tokens WHERE token_hash = ?";
+
+    private static final String SELECT_USER_SQL =
+            "SELECT id AS user_id, email, first_name, last_name, role, enabled FROM users WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RefreshTokenJournal journal;
+    private final Cache<Long, User> users;
+    private final Counter flushedCounter;
+    private final int maximumCached;
+
+    // Read without locking; every change happens under writeLock, with the journal append
+    private final ConcurrentHashMap<TokenKey, Entry> tokens = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // Guarded by writeLock
+    private final Map<UUID, Set<TokenKey>> familyTokens = new HashMap<>();
+    private final Map<Long, Set<UUID>> userFamilies = new HashMap<>();
+    private final Map<UUID, Long> deletedFamilies = new HashMap<>();
+    private final Map<Long, Long> deletedUsers = new HashMap<>();
+    private List<Pending> pending = new ArrayList<>();
+    private long sequence;
+
+    // Bumped whenever flushed entries are dropped, so a concurrent database read can tell it may be stale
+    private volatile long generation;
+
+    // Guarded by flushLock
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final List<Pending> unflushed = new ArrayList<>();
+    private final List<Path> flushedSegments = new ArrayList<>();
+    private final AtomicInteger unflushedCount = new AtomicInteger();
+
+    public WriteBehindRefreshTokenStore(JdbcTemplate jdbcTemplate,
+                                        PlatformTransactionManager transactionManager,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${app.refresh-token.write-behind.journal-dir:journal}") String journalDir,
+                                        @Value("${app.cache.users.maximum-size:10000}") long usersMaximumSize,
+                                        @Value("${app.refresh-token.write-behind.maximum-cached:100000}") int maximumCached) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maximumCached = maximumCached;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journal = new RefreshTokenJournal(Path.of(journalDir));
+        this.users = Caffeine.newBuilder().maximumSize(usersMaximumSize).build();
+        this.flushedCounter = Counter.builder("auth.refresh.tokens.flushed")
+                .description("Refresh token changes written to the database by the write-behind store")
+                .register(meterRegistry);
+        Gauge.builder("auth.refresh.tokens.unflushed", unflushedCount, AtomicInteger::get)
+                .description("Refresh token changes the last flush failed to write, kept for the next one")
+                .register(meterRegistry);
+        Gauge.builder("auth.refresh.tokens.cached", tokens, Map::size)
+                .description("Refresh tokens held in memory by the write-behind store")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Write the segments left by the previous run to the database, oldest first.
+     */
+    @PostConstruct
+    void recover() throws IOException {
+        for (Path segment : journal.closedSegments()) {
+            List<Change> changes = RefreshTokenJournal.read(segment);
+            if (!changes.isEmpty()) {
+                write(changes);
+                log.info("Recovered {} refresh token changes from {}", changes.size(), segment.getFileName());
+            }
+            journal.delete(List.of(segment));
+        }
+    }
+
+    @Override
+    public RefreshToken save(RefreshToken refreshToken) {
+        User user = snapshot(refreshToken.getUser());
+        Insert insert = new Insert(refreshToken.getTokenHash(), user.getId(),
+                refreshToken.getFamilyId(), refreshToken.getExpiryDate());
+        // The user may not be committed yet; flushed before it, the insert would find no user
+        afterCommit(() -> {
+            users.asMap().putIfAbsent(user.getId(), user);
+            change(insert, seq -> put(new TokenKey(insert.tokenHash()), Entry.issued(insert, seq)));
+        });
+        return refreshToken;
+    }
+
+    @Override
+    public Optional<RefreshToken> findByTokenHash(byte[] tokenHash) {
+        return find(new TokenKey(tokenHash)).map(entry -> entry.toRefreshToken(tokenHash, user(entry.userId())));
+    }
+
+    @Override
+    public Optional<RefreshTokenState> findStateByTokenHash(byte[] tokenHash) {
+        return find(new TokenKey(tokenHash)).map(Entry::toState);
+    }
+
+    @Override
+    public Optional<RefreshToken> rotate(byte[] tokenHash, byte[] successorHash, Instant now) {
+        TokenKey key = new TokenKey(tokenHash);
+        // Loads a token issued before a restart, so that the checks below only look at memory
+        if (find(key).filter(entry -> entry.isLive(now)).isEmpty()) {
+            return Optional.empty();
+        }
+
+        Entry successor;
+        long position;
+        writeLock.lock();
+        try {
+            Entry presented = tokens.get(key);
+            if (presented == null || !presented.isLive(now)) {
+                return Optional.empty();
+            }
+            Insert issued = new Insert(successorHash, presented.userId(), presented.familyId(), presented.expiryDate());
+            long seq = ++sequence;
+            tokens.put(key, presented.rotated(now, seq));
+            successor = Entry.issued(issued, seq);
+            put(new TokenKey(successorHash), successor);
+            position = record(new Rotate(tokenHash, now, issued), seq);
+        } finally {
+            writeLock.unlock();
+        }
+        journal.sync(position);
+        return Optional.of(successor.toRefreshToken(successorHash, user(successor.userId())));
+    }
+
+    @Override
+    public int deleteByFamilyId(UUID familyId) {
+        return change(new DeleteFamily(familyId), seq -> {
+            deletedFamilies.put(familyId, seq);
+            return markDeleted(familyId, seq);
+        });
+    }
+
+    @Override
+    public int deleteFamilyByTokenHash(byte[] tokenHash) {
+        return find(new TokenKey(tokenHash))
+                .map(entry -> deleteByFamilyId(entry.familyId()))
+                .orElse(0);
+    }
+
+    @Override
+    public void deleteByUser(User user) {
+        long userId = user.getId();
+        afterCommit(() -> change(new DeleteUser(userId), seq -> {
+            deletedUsers.put(userId, seq);
+            int deleted = 0;
+            for (UUID familyId : userFamilies.getOrDefault(userId, Set.of())) {
+                deleted += markDeleted(familyId, seq);
+            }
+            return deleted;
+        }));
+    }
+
+    @Override
+    public void deleteByTokenHash(byte[] tokenHash) {
+        TokenKey key = new TokenKey(tokenHash);
+        change(new DeleteToken(tokenHash), seq -> {
+            Entry current = tokens.get(key);
+            tokens.put(key, current == null ? Entry.tombstone(seq) : current.deleted(seq));
+            return 1;
+        });
+    }
+
+    /**
+     * Drop the cached snapshot of a changed user, read again on its next refresh.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        users.invalidate(event.userId());
+    }
+
+    /**
+     * Write the journaled changes to the database. A failed flush keeps them, and their journal
+     * segments, for the next run.
+     */
+    @Scheduled(initialDelayString = "${app.refresh-token.write-behind.flush-interval-ms:1000}",
+            fixedDelayString = "${app.refresh-token.write-behind.flush-interval-ms:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            writeLock.lock();
+            try {
+                if (!pending.isEmpty()) {
+                    unflushed.addAll(pending);
+                    pending = new ArrayList<>();
+                    flushedSegments.add(journal.roll());
+                }
+            } finally {
+                writeLock.unlock();
+            }
+            if (unflushed.isEmpty()) {
+                return;
+            }
+
+            write(unflushed.stream().map(Pending::change).toList());
+            long flushedUpTo = unflushed.get(unflushed.size() - 1).sequence();
+            flushedCounter.increment(unflushed.size());
+            unflushed.clear();
+            journal.delete(flushedSegments);
+            flushedSegments.clear();
+            forget(flushedUpTo, Instant.now());
+        } catch (DataAccessException | TransactionException ex) {
+            log.warn("Could not flush {} refresh token changes, retrying on the next run: {}",
+                    unflushed.size(), ex.getMessage());
+        } catch (IOException ex) {
+            log.warn("Could not delete a flushed refresh token journal segment", ex);
+        } finally {
+            unflushedCount.set(unflushed.size());
+            flushLock.unlock();
+        }
+    }
+
+    // The journal keeps whatever this last flush can't write, for the next start
+    @PreDestroy
+    void shutdown() throws IOException {
+        flush();
+        journal.close();
+    }
+
+    /**
+     * Apply a change to the tier and journal it, under the write lock, then wait for the
+     * journal to reach the disk.
+     */
+    private int change(Change change, LongToIntFunction apply) {
+        int affected;
+        long position;
+        writeLock.lock();
+        try {
+            long seq = ++sequence;
+            affected = apply.applyAsInt(seq);
+            position = record(change, seq);
+        } finally {
+            writeLock.unlock();
+        }
+        journal.sync(position);
+        return affected;
+    }
+
+    private long record(Change change, long seq) {
+        pending.add(new Pending(seq, change));
+        return journal.append(change);
+    }
+
+    private int put(TokenKey key, Entry entry) {
+        tokens.put(key, entry);
+        familyTokens.computeIfAbsent(entry.familyId(), familyId -> new HashSet<>()).add(key);
+        userFamilies.computeIfAbsent(entry.userId(), userId -> new HashSet<>()).add(entry.familyId());
+        return 1;
+    }
+
+    private int markDeleted(UUID familyId, long seq) {
+        int deleted = 0;
+        for (TokenKey key : familyTokens.getOrDefault(familyId, Set.of())) {
+            Entry entry = tokens.get(key);
+            if (entry != null && !entry.deleted()) {
+                tokens.put(key, entry.deleted(seq));
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Find a token in memory, else in the database. A live token read from the database is
+     * kept, unless one of the tombstones covers it.
+     */
+    private Optional<Entry> find(TokenKey key) {
+        Entry cached = tokens.get(key);
+        if (cached != null) {
+            return cached.deleted() ? Optional.empty() : Optional.of(cached);
+        }
+        while (true) {
+            long seenGeneration = generation;
+            List<RefreshTokenState> rows = jdbcTemplate.query(SELECT_STATE_SQL, (rs, rowNum) -> new RefreshTokenState(
+                    rs.getLong("id"),
+                    rs.getLong("user_id"),
+                    rs.getObject("family_id", UUID.class),
+                    rs.getTimestamp("expiry_date").toInstant(),
+                    Optional.ofNullable(rs.getTimestamp("rotated_at")).map(Timestamp::toInstant).orElse(null)),
+                    (Object) key.hash());
+            writeLock.lock();
+            try {
+                if (generation != seenGeneration) {
+                    // A flush dropped entries since the read, which may predate its changes
+                    continue;
+                }
+                Entry current = tokens.get(key);
+                if (current != null) {
+                    return current.deleted() ? Optional.empty() : Optional.of(current);
+                }
+                if (rows.isEmpty()) {
+                    return Optional.empty();
+                }
+                RefreshTokenState row = rows.get(0);
+                if (deletedFamilies.containsKey(row.familyId()) || deletedUsers.containsKey(row.userId())) {
+                    return Optional.empty();
+                }
+                Entry loaded = Entry.loaded(row);
+                if (loaded.isLive(Instant.now())) {
+                    put(key, loaded);
+                }
+                return Optional.of(loaded);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Drop what the database now holds: rotated, expired and deleted tokens, and tombstones,
+     * whose last change was flushed. Then drop flushed live tokens if the tier is over its bound.
+     */
+    private void forget(long flushedUpTo, Instant now) {
+        writeLock.lock();
+        try {
+            tokens.entrySet().removeIf(mapping -> {
+                Entry entry = mapping.getValue();
+                boolean drop = entry.sequence() <= flushedUpTo && !entry.isLive(now);
+                if (drop && entry.familyId() != null) {
+                    unindex(mapping.getKey(), entry);
+                }
+                return drop;
+            });
+            evictOverflow(flushedUpTo);
+            deletedFamilies.values().removeIf(seq -> seq <= flushedUpTo);
+            deletedUsers.values().removeIf(seq -> seq <= flushedUpTo);
+            generation++;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Oldest change first: tokens loaded from the database, then the longest since issued
+    private void evictOverflow(long flushedUpTo) {
+        int excess = tokens.size() - maximumCached;
+        if (excess <= 0) {
+            return;
+        }
+        tokens.entrySet().stream()
+                .filter(mapping -> mapping.getValue().sequence() <= flushedUpTo && !mapping.getValue().deleted())
+                .sorted(Comparator.comparingLong(mapping -> mapping.getValue().sequence()))
+                .limit(excess)
+                .toList()
+                .forEach(mapping -> {
+                    tokens.remove(mapping.getKey());
+                    unindex(mapping.getKey(), mapping.getValue());
+                });
+    }
+
+    private void unindex(TokenKey key, Entry entry) {
+        Set<TokenKey> family = familyTokens.get(entry.familyId());
+        if (family != null && family.remove(key) && family.isEmpty()) {
+            familyTokens.remove(entry.familyId());
+            Set<UUID> families = userFamilies.get(entry.userId());
+            if (families != null && families.remove(entry.familyId()) && families.isEmpty()) {
+                userFamilies.remove(entry.userId());
+            }
+        }
+    }
+
+    /**
+     * Write changes in order, in one transaction. Consecutive changes of one kind are batched.
+     */
+    private void write(List<Change> changes) {
+        transactionTemplate.executeWithoutResult(status -> {
+            int start = 0;
+            while (start < changes.size()) {
+                Class<?> kind = changes.get(start).getClass();
+                int end = start + 1;
+                while (end < changes.size() && changes.get(end).getClass() == kind) {
+                    end++;
+                }
+                writeBatch(changes.subList(start, end));
+                start = end;
+            }
+        });
+    }
+
+    private void writeBatch(List<Change> batch) {
+        switch (batch.get(0)) {
+            case Insert ignored -> jdbcTemplate.batchUpdate(INSERT_SQL, batch.stream()
+                    .map(change -> insertArguments((Insert) change))
+                    .toList());
+            case Rotate ignored -> {
+                // Successors first: a later rotation in the batch may mark one of them as rotated
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch.stream()
+                        .map(change -> insertArguments(((Rotate) change).successor()))
+                        .toList());
+                jdbcTemplate.batchUpdate(ROTATE_SQL, batch.stream()
+                        .map(change -> (Rotate) change)
+                        .map(rotate -> new Object[]{Timestamp.from(rotate.rotatedAt()), rotate.tokenHash()})
+                        .toList());
+            }
+            case DeleteToken ignored -> jdbcTemplate.batchUpdate("DELETE FROM refresh_tokens WHERE token_hash = ?",
+                    batch.stream().map(change -> new Object[]{((DeleteToken) change).tokenHash()}).toList());
+            case DeleteFamily ignored -> jdbcTemplate.batchUpdate("DELETE FROM refresh_tokens WHERE family_id = ?",
+                    batch.stream().map(change -> new Object[]{((DeleteFamily) change).familyId()}).toList());
+            case DeleteUser ignored -> jdbcTemplate.batchUpdate("DELETE FROM refresh_tokens WHERE user_id = ?",
+                    batch.stream().map(change -> new Object[]{((DeleteUser) change).userId()}).toList());
+        }
+    }
+
+    private static Object[] insertArguments(Insert insert) {
+        return new Object[]{insert.tokenHash(), insert.userId(), insert.familyId(),
+                Timestamp.from(insert.expiryDate()), insert.userId()};
+    }
+
+    private User user(long userId) {
+        User cached = users.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+        // Read outside Caffeine's compute, which would pin a virtual thread during the query
+        User user = jdbcTemplate.queryForObject(SELECT_USER_SQL,
+                (rs, rowNum) -> RefreshTokenRotationImpl.mapUser(rs), userId);
+        users.put(userId, user);
+        return user;
+    }
+
+    // Without the password, like the user returned by the rotation statement
+    private static User snapshot(User user) {
+        return User.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .role(user.getRole())
+                .enabled(user.getEnabled())
+                .build();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record Pending(long sequence, Change change) {
+    }
+
+    // byte[] compares by identity, so digests are wrapped to be used as keys
+    private record TokenKey(byte[] hash) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof TokenKey key && Arrays.equals(hash, key.hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(hash);
+        }
+    }
+
+    /**
+     * A token in the tier. {@code sequence} is the journal sequence of its last change, 0 if
+     * it was read from the database and never changed.
+     */
+    private record Entry(Long id, Long userId, UUID familyId, Instant expiryDate, Instant rotatedAt,
+                         boolean deleted, long sequence) {
+
+        static Entry issued(Insert insert, long sequence) {
+            return new Entry(null, insert.userId(), insert.familyId(), insert.expiryDate(), null, false, sequence);
+        }
+
+        static Entry loaded(RefreshTokenState row) {
+            return new Entry(row.id(), row.userId(), row.familyId(), row.expiryDate(), row.rotatedAt(), false, 0);
+        }
+
+        // A deleted token the tier never loaded
+        static Entry tombstone(long sequence) {
+            return new Entry(null, null, null, Instant.EPOCH, null, true, sequence);
+        }
+
+        Entry rotated(Instant now, long sequence) {
+            return new Entry(id, userId, familyId, expiryDate, now, false, sequence);
+        }
+
+        Entry deleted(long sequence) {
+            return new Entry(id, userId, familyId, expiryDate, rotatedAt, true, sequence);
+        }
+
+        boolean isLive(Instant now) {
+            return !deleted && rotatedAt == null && expiryDate.isAfter(now);
+        }
+
+        RefreshTokenState toState() {
+            return new RefreshTokenState(id, userId, familyId, expiryDate, rotatedAt);
+        }
+
+        RefreshToken toRefreshToken(byte[] tokenHash, User user) {
+            return RefreshToken.builder()
+                    .id(id)
+                    .tokenHash(tokenHash)
+                    .user(user)
+                    .familyId(familyId)
+                    .expiryDate(expiryDate)
+                    .rotatedAt(rotatedAt)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.apontaja.backend.security;
+
+import com.apontaja.backend.config.profiling.PasswordHashEvent;
+import com.apontaja.backend.config.tracing.Tracing;
+import com.apontaja.backend.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a dedicated, fixed-size pool with a bounded queue.
+ * <p>
+ * BCrypt is deliberately CPU-expensive: without a bound, a login storm pins every request
+ * thread on hashing and starves cheap endpoints. When the queue is full the call fails fast
+ * with a {@link ServiceOverloadedException}, which is mapped to 503 with {@code Retry-After}.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    // Hashing requests running or queued, at most the pool size plus the queue capacity
+    private final Semaphore admissions;
+    private final long retryAfterSeconds;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+    private final Tracing tracing;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate,
+                                  int poolSize,
+                                  int queueCapacity,
+                                  long retryAfterSeconds,
+                                  MeterRegistry meterRegistry,
+                                  Tracing tracing) {
+        this.delegate = delegate;
+        this.tracing = tracing;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.admissions = new Semaphore(poolSize + queueCapacity);
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                // Bounded by admissions, which also accepts a queue capacity of 0
+                new LinkedBlockingQueue<>(),
+                new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("auth.password.hash")
+                .description("Time spent hashing passwords, excluding queue wait")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.password.hash")
+                .description("Time spent hashing passwords, excluding queue wait")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.password.hash.rejected")
+                .description("Hashing requests rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Hashing requests waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Workers currently hashing")
+                .register(meterRegistry);
+
+        log.info("Password hashing pool started with {} threads and a queue of {}", poolSize, queueCapacity);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        PasswordHashEvent event = new PasswordHashEvent("encode");
+        event.begin();
+        try {
+            return tracing.inSpan("password encode",
+                    span -> submit(span, event, () -> encodeTimer.record(() -> delegate.encode(rawPassword))));
+        } finally {
+            event.commit();
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        PasswordHashEvent event = new PasswordHashEvent("matches");
+        event.begin();
+        try {
+            return tracing.inSpan("password matches",
+                    span -> submit(span, event, () -> matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword))));
+        } finally {
+            event.commit();
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    // The span covers the queue wait too; its "hashing" event marks when a worker took the task.
+    // The worker writes the event's queue wait, which the future's completion makes visible here
+    private <T> T submit(Span span, PasswordHashEvent event, Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        if (!admissions.tryAcquire()) {
+            event.rejected = true;
+            rejectedCounter.increment();
+            log.warn("Password hashing queue is full, rejecting request");
+            throw new ServiceOverloadedException(
+                    "Authentication service is busy, please retry later", retryAfterSeconds);
+        }
+
+        // Released by the task before its result is published, so the caller's next request finds
+        // the permit free. BCrypt ignores interrupts, so a task cancelled mid-hash keeps its permit
+        // until the hash finishes; done() only releases it for a task cancelled before it started
+        AtomicBoolean started = new AtomicBoolean();
+        FutureTask<T> future = new FutureTask<>(() -> {
+            if (!started.compareAndSet(false, true)) {
+                throw new CancellationException();
+            }
+            try {
+                event.queueWait = System.nanoTime() - submittedAt;
+                span.event("hashing");
+                return task.get();
+            } finally {
+                admissions.release();
+            }
+        }) {
+            @Override
+            protected void done() {
+                if (started.compareAndSet(false, true)) {
+                    admissions.release();
+                }
+            }
+        };
+        try {
+            executor.execute(future);
+        } catch (RejectedExecutionException ex) {
+            admissions.release();
+            throw new IllegalStateException("Password hashing pool is shut down", ex);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", ex.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
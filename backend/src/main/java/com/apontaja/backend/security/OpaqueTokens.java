@@ -0,0 +1,45 @@
+package com.apontaja.backend.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Generation and hashing of opaque bearer tokens.
+ * <p>
+ * Tokens carry 256 bits of randomness, so a single unsalted SHA-256 is enough to store them:
+ * the digest is fixed-width, cheap to index and compare, and a database dump does not leak
+ * usable tokens.
+ */
+public final class OpaqueTokens {
+
+    private static final int TOKEN_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private OpaqueTokens() {
+    }
+
+    /**
+     * @return A new URL-safe token of 43 characters
+     */
+    public static String generate() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        return ENCODER.encodeToString(bytes);
+    }
+
+    /**
+     * @param token The raw token
+     * @return The 32-byte SHA-256 digest of its UTF-8 bytes
+     */
+    public static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
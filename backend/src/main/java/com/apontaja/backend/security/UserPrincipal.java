@@ -0,0 +1,35 @@
+package com.apontaja.backend.security;
+
+import com.apontaja.backend.model.Role;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lightweight principal rebuilt from access token claims, so authenticated requests
+ * don't need to load the {@code User} entity.
+ */
+public record UserPrincipal(Long id, String email, Role role) implements AuthenticatedPrincipal {
+
+    private static final Map<Role, List<GrantedAuthority>> AUTHORITIES = new EnumMap<>(Role.class);
+
+    static {
+        Arrays.stream(Role.values())
+                .forEach(role -> AUTHORITIES.put(role, List.of(new SimpleGrantedAuthority("ROLE_" + role.name()))));
+    }
+
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return AUTHORITIES.get(role);
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
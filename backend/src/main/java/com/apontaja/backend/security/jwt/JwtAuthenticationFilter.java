@@ -1,5 +1,9 @@
 package com.apontaja.backend.security.jwt;
 
+import com.apontaja.backend.config.tracing.Tracing;
+import com.apontaja.backend.security.UserPrincipal;
+import com.apontaja.backend.service.AccountStatusService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,21 +11,22 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private final VerifiedTokenCache verifiedTokenCache;
     private final JwtTokenProvider jwtTokenProvider;
-    private final UserDetailsService userDetailsService;
+    private final AccountStatusService accountStatusService;
+    private final Tracing tracing;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -29,20 +34,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
-
-            if (StringUtils.hasText(jwt) && jwtTokenProvider.validateToken(jwt)) {
-                String username = jwtTokenProvider.getUsernameFromToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities()
-                        );
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            // Anonymous requests (login, register, refresh) have nothing to verify and get no span
+            if (StringUtils.hasText(jwt)) {
+                tracing.inSpan("jwt authenticate", span -> {
+                    span.tag("outcome", authenticate(jwt, request) ? "authenticated" : "rejected");
+                    return null;
+                });
             }
         } catch (Exception ex) {
             logger.error("Could not set user authentication in security context", ex);
@@ -51,6 +48,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private boolean authenticate(String jwt, HttpServletRequest request) {
+        Optional<Claims> claims = verifiedTokenCache.getVerifiedClaims(jwt);
+
+        // The principal is rebuilt from the token claims alone; only the account status
+        // is checked against the database, through a short-lived cache
+        Optional<UserPrincipal> principal = claims.flatMap(jwtTokenProvider::toPrincipal)
+                .filter(user -> accountStatusService.isActive(user.id()));
+
+        if (principal.isEmpty()) {
+            return false;
+        }
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(
+                        principal.get(),
+                        null,
+                        principal.get().getAuthorities()
+                );
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        return true;
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -0,0 +1,218 @@
+package com.apontaja.backend.security.jwt;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The keys access tokens are signed and verified with.
+ * <p>
+ * Keys are read from {@code jwt.keys.path}, one {@code <kid>.pem} file per key holding a
+ * {@code PUBLIC KEY} block and, for keys that may still sign, a {@code PRIVATE KEY} block.
+ * EC P-256 keys sign with ES256 and Ed25519 keys with EdDSA. Every key verifies and is
+ * published in the JWKS; the one that signs is the last by kid among those with a private key
+ * whose file is older than {@code jwt.keys.publish-ahead}, so verifiers have fetched a new key
+ * before the first token signed with it reaches them. The directory is re-read every
+ * {@code jwt.keys.reload-interval-ms}, so keys rotate without a restart:
+ * <ol>
+ *     <li>add the new key pair; it is published at once and starts signing after publish-ahead,</li>
+ *     <li>later, remove the old private key; the old key keeps verifying,</li>
+ *     <li>once the last token it signed has expired, delete the old file.</li>
+ * </ol>
+ * Without {@code jwt.keys.path}, a key is generated at startup. Tokens signed with it don't
+ * survive a restart and can't be verified by other replicas, so this is for development only.
+ */
+@Slf4j
+@Component
+public class JwtKeyRing {
+
+    private static final String KEY_FILE_SUFFIX = ".pem";
+    private static final String KID_PATTERN = "[A-Za-z0-9._-]+";
+
+    /**
+     * One key of the ring.
+     *
+     * @param kid         The {@code kid} header of the tokens it signs
+     * @param privateKey  The signing key, or null once the key is retired
+     * @param publicKey   The verification key
+     * @param algorithm   ES256 or EdDSA, depending on the key type
+     * @param jwk         The public key as published in the JWKS
+     * @param publishedAt When the key file was last written
+     */
+    public record SigningKey(String kid, PrivateKey privateKey, PublicKey publicKey, SignatureAlgorithm algorithm,
+                             PublicJwk<?> jwk, Instant publishedAt) {
+
+        boolean canSign() {
+            return privateKey != null;
+        }
+    }
+
+    /**
+     * An immutable view of the ring, replaced as a whole when the keys change.
+     *
+     * @param active The key new tokens are signed with
+     * @param keys   Every verification key, by kid
+     * @param jwks   The JWK Set document listing the public keys
+     */
+    public record KeySet(SigningKey active, Map<String, SigningKey> keys, String jwks) {
+    }
+
+    private final Path keysPath;
+    private final Duration publishAhead;
+    private final Clock clock;
+
+    private volatile KeySet keySet;
+
+    @Autowired
+    public JwtKeyRing(@Value("${jwt.keys.path:}") String keysPath,
+                      @Value("${jwt.keys.publish-ahead:10m}") Duration publishAhead) {
+        this(keysPath.isBlank() ? null : Path.of(keysPath), publishAhead, Clock.systemUTC());
+    }
+
+    JwtKeyRing(Path keysPath, Duration publishAhead, Clock clock) {
+        this.keysPath = keysPath;
+        this.publishAhead = publishAhead;
+        this.clock = clock;
+        if (keysPath == null) {
+            this.keySet = ephemeral();
+            log.warn("jwt.keys.path is not set: signing access tokens with key {} generated at startup. "
+                    + "Tokens won't survive a restart or verify on other instances.", keySet.active().kid());
+        } else {
+            try {
+                this.keySet = load();
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot read JWT keys from " + keysPath, ex);
+            }
+            log.info("Loaded JWT keys {}, signing with {}", keySet.keys().keySet(), keySet.active().kid());
+        }
+    }
+
+    /**
+     * Re-read the key directory. The current keys are kept if it can't be read, so a file
+     * caught half-written only delays the rotation until the next run.
+     */
+    @Scheduled(initialDelayString = "${jwt.keys.reload-interval-ms:60000}",
+            fixedDelayString = "${jwt.keys.reload-interval-ms:60000}")
+    public void reload() {
+        if (keysPath == null) {
+            return;
+        }
+        try {
+            KeySet loaded = load();
+            KeySet previous = keySet;
+            keySet = loaded;
+            if (!loaded.keys().keySet().equals(previous.keys().keySet())
+                    || !loaded.active().kid().equals(previous.active().kid())) {
+                log.info("Reloaded JWT keys {}, signing with {}", loaded.keys().keySet(), loaded.active().kid());
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.error("Keeping the current JWT keys, cannot reload {}: {}", keysPath, ex.getMessage());
+        }
+    }
+
+    public SigningKey signingKey() {
+        return keySet.active();
+    }
+
+    public Optional<PublicKey> verificationKey(String kid) {
+        return Optional.ofNullable(kid)
+                .map(keySet.keys()::get)
+                .map(SigningKey::publicKey);
+    }
+
+    public KeySet current() {
+        return keySet;
+    }
+
+    private KeySet load() throws IOException {
+        List<SigningKey> keys;
+        try (Stream<Path> files = Files.list(keysPath)) {
+            List<Path> pemFiles = files
+                    .filter(file -> file.getFileName().toString().endsWith(KEY_FILE_SUFFIX))
+                    .sorted(Comparator.comparing(file -> file.getFileName().toString()))
+                    .toList();
+            keys = new ArrayList<>(pemFiles.size());
+            for (Path file : pemFiles) {
+                keys.add(read(file));
+            }
+        }
+
+        Instant publishedBefore = clock.instant().minus(publishAhead);
+        List<SigningKey> signers = keys.stream().filter(SigningKey::canSign).toList();
+        if (signers.isEmpty()) {
+            throw new IllegalStateException("No private key in " + keysPath);
+        }
+        SigningKey active = signers.stream()
+                .filter(key -> !key.publishedAt().isAfter(publishedBefore))
+                .reduce((first, second) -> second)
+                // Every signing key is newer than publish-ahead, e.g. on first deployment
+                .orElse(signers.get(signers.size() - 1));
+        return keySet(active, keys);
+    }
+
+    private static SigningKey read(Path file) throws IOException {
+        String fileName = file.getFileName().toString();
+        String kid = fileName.substring(0, fileName.length() - KEY_FILE_SUFFIX.length());
+        if (!kid.matches(KID_PATTERN)) {
+            throw new IllegalStateException("Invalid key id " + kid + ", expected " + KID_PATTERN);
+        }
+        String pem = Files.readString(file);
+        PublicKey publicKey = PemKeys.publicKey(pem)
+                .orElseThrow(() -> new IllegalStateException(file + " has no PUBLIC KEY block"));
+        PrivateKey privateKey = PemKeys.privateKey(pem).orElse(null);
+        return signingKey(kid, privateKey, publicKey, Files.getLastModifiedTime(file).toInstant());
+    }
+
+    private static SigningKey signingKey(String kid, PrivateKey privateKey, PublicKey publicKey, Instant publishedAt) {
+        // jjwt names the curve while parsing the key, which also rejects keys it can't publish
+        String curve = String.valueOf(Jwks.builder().key(publicKey).build().get("crv"));
+        SignatureAlgorithm algorithm = switch (curve) {
+            case "P-256" -> Jwts.SIG.ES256;
+            case "Ed25519" -> Jwts.SIG.EdDSA;
+            default -> throw new IllegalStateException("Key " + kid + " is neither EC P-256 nor Ed25519");
+        };
+        PublicJwk<?> jwk = Jwks.builder().key(publicKey).id(kid).publicKeyUse("sig").algorithm(algorithm.getId()).build();
+        return new SigningKey(kid, privateKey, publicKey, algorithm, jwk, publishedAt);
+    }
+
+    private KeySet ephemeral() {
+        KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+        Instant now = clock.instant();
+        SigningKey key = signingKey("ephemeral-" + now.getEpochSecond(),
+                keyPair.getPrivate(), keyPair.getPublic(), now);
+        return keySet(key, List.of(key));
+    }
+
+    private static KeySet keySet(SigningKey active, List<SigningKey> keys) {
+        Map<String, SigningKey> byKid = keys.stream()
+                .collect(Collectors.toUnmodifiableMap(SigningKey::kid, key -> key));
+        String jwks = keys.stream()
+                .map(key -> Jwks.json(key.jwk()))
+                .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+        return new KeySet(active, byKid, jwks);
+    }
+}
@@ -1,69 +1,142 @@
 package com.apontaja.backend.security.jwt;
 
+import com.apontaja.backend.config.profiling.JwtEvent;
+import com.apontaja.backend.model.Role;
+import com.apontaja.backend.model.User;
+import com.apontaja.backend.security.UserPrincipal;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.InvalidKeyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
+import java.security.Key;
 import java.util.Date;
+import java.util.Optional;
 
 @Slf4j
 @Component
+@ImportRuntimeHints(JjwtRuntimeHints.class)
 public class JwtTokenProvider {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_ENABLED = "enabled";
 
     @Value("${jwt.access-token-expiration}")
     private long accessTokenExpiration;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private final JwtKeyRing keyRing;
+    // Immutable and thread-safe, so it is built once instead of on every call
+    private final JwtParser jwtParser;
+
+    private final Timer signTimer;
+    private final Timer verifyTimer;
+
+    public JwtTokenProvider(JwtKeyRing keyRing, MeterRegistry meterRegistry) {
+        this.keyRing = keyRing;
+        // The kid header picks the verification key, so tokens signed before a rotation stay valid
+        this.jwtParser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return keyRing.verificationKey(header.getKeyId())
+                                .orElseThrow(() -> new InvalidKeyException("Unknown signing key " + header.getKeyId()));
+                    }
+                })
+                .build();
+        this.signTimer = Timer.builder("auth.jwt")
+                .description("Time spent signing and verifying access tokens")
+                .tag("operation", "sign")
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder("auth.jwt")
+                .description("Time spent signing and verifying access tokens")
+                .tag("operation", "verify")
+                .register(meterRegistry);
     }
 
     public String generateAccessToken(Authentication authentication) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        return generateAccessToken(userDetails.getUsername());
+        User user = (User) authentication.getPrincipal();
+        return generateAccessToken(user);
     }
 
-    public String generateAccessToken(String username) {
+    /**
+     * Generate an access token carrying everything needed to authenticate later requests
+     * (user id, role and enabled flag), so the filter never has to load the user.
+     *
+     * @param user The authenticated user
+     * @return The signed compact JWT
+     */
+    public String generateAccessToken(User user) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + accessTokenExpiration);
+        JwtKeyRing.SigningKey signingKey = keyRing.signingKey();
 
-        return Jwts.builder()
-                .subject(username)
+        JwtEvent event = new JwtEvent("sign");
+        event.begin();
+        String token = signTimer.record(() -> Jwts.builder()
+                .header().keyId(signingKey.kid()).and()
+                .subject(user.getEmail())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_ENABLED, user.isEnabled())
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey(), Jwts.SIG.HS256)
-                .compact();
-    }
-
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.getSubject();
+                .signWith(signingKey.privateKey(), signingKey.algorithm())
+                .compact());
+        event.valid = true;
+        event.commit();
+        return token;
     }
 
-    public boolean validateToken(String token) {
+    /**
+     * Verify the signature and expiration of a token and return its claims.
+     * The token is parsed exactly once, for both validation and claim access.
+     *
+     * @param token The compact JWT string
+     * @return The verified claims, or empty if the token is invalid or expired
+     */
+    public Optional<Claims> parseVerifiedClaims(String token) {
+        Timer.Sample sample = Timer.start();
+        JwtEvent event = new JwtEvent("verify");
+        event.begin();
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            Optional<Claims> claims = Optional.of(jwtParser.parseSignedClaims(token).getPayload());
+            event.valid = true;
+            return claims;
         } catch (JwtException | IllegalArgumentException ex) {
             log.warn("Invalid JWT token: {}", ex.getMessage());
-            return false;
+            return Optional.empty();
+        } finally {
+            sample.stop(verifyTimer);
+            event.commit();
+        }
+    }
+
+    /**
+     * Build the request principal from verified claims.
+     *
+     * @param claims Claims returned by {@link #parseVerifiedClaims}
+     * @return The principal, or empty if the token predates the identity claims, carries claims of
+     *         the wrong type or an unknown role, or the account was disabled
+     */
+    public Optional<UserPrincipal> toPrincipal(Claims claims) {
+        try {
+            Long userId = claims.get(CLAIM_USER_ID, Long.class);
+            String role = claims.get(CLAIM_ROLE, String.class);
+            Boolean enabled = claims.get(CLAIM_ENABLED, Boolean.class);
+
+            if (userId == null || role == null || !Boolean.TRUE.equals(enabled)) {
+                return Optional.empty();
+            }
+            return Optional.of(new UserPrincipal(userId, claims.getSubject(), Role.valueOf(role)));
+        } catch (RequiredTypeException | IllegalArgumentException ex) {
+            log.warn("JWT with malformed identity claims: {}", ex.getMessage());
+            return Optional.empty();
         }
     }
 
@@ -0,0 +1,64 @@
+package com.apontaja.backend.security.jwt;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the {@code PRIVATE KEY} (PKCS#8) and {@code PUBLIC KEY} (X.509) blocks of a PEM file,
+ * as written by {@code openssl genpkey} and {@code openssl pkey -pubout}.
+ */
+final class PemKeys {
+
+    private static final Pattern BLOCK = Pattern.compile(
+            "-----BEGIN ([A-Z ]+)-----([A-Za-z0-9+/=\\s]+)-----END \\1-----");
+    // EC covers ES256; Ed25519 keys are reported as EdDSA
+    private static final List<String> ALGORITHMS = List.of("EC", "EdDSA");
+
+    private PemKeys() {
+    }
+
+    static Optional<PrivateKey> privateKey(String pem) {
+        return block(pem, "PRIVATE KEY").map(der -> decode(der, factory ->
+                factory.generatePrivate(new PKCS8EncodedKeySpec(der))));
+    }
+
+    static Optional<PublicKey> publicKey(String pem) {
+        return block(pem, "PUBLIC KEY").map(der -> decode(der, factory ->
+                factory.generatePublic(new X509EncodedKeySpec(der))));
+    }
+
+    private static Optional<byte[]> block(String pem, String type) {
+        Matcher matcher = BLOCK.matcher(pem);
+        while (matcher.find()) {
+            if (matcher.group(1).equals(type)) {
+                return Optional.of(Base64.getMimeDecoder().decode(matcher.group(2).strip()));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static <K> K decode(byte[] der, KeyDecoder<K> decoder) {
+        for (String algorithm : ALGORITHMS) {
+            try {
+                return decoder.decode(KeyFactory.getInstance(algorithm));
+            } catch (GeneralSecurityException ex) {
+                // Not a key of this algorithm, try the next one
+            }
+        }
+        throw new IllegalArgumentException("Unsupported key, expected an EC P-256 or Ed25519 key");
+    }
+
+    @FunctionalInterface
+    private interface KeyDecoder<K> {
+        K decode(KeyFactory factory) throws GeneralSecurityException;
+    }
+}
@@ -0,0 +1,89 @@
+package com.apontaja.backend.security.jwt;
+
+import com.apontaja.backend.security.OpaqueTokens;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of already verified access tokens.
+ * <p>
+ * Entries are keyed by a SHA-256 digest of the token, so raw bearer tokens are never
+ * retained in memory, and each entry expires no later than the token's own {@code exp}.
+ * Invalid tokens are never cached.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final String CACHE_NAME = "jwt.verified-tokens";
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final Cache<String, Claims> cache;
+
+    public VerifiedTokenCache(JwtTokenProvider jwtTokenProvider,
+                              MeterRegistry meterRegistry,
+                              @Value("${jwt.cache.maximum-size:10000}") long maximumSize) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Return the verified claims of a token, verifying its signature only on a cache miss.
+     *
+     * @param token The compact JWT string
+     * @return The verified claims, or empty if the token is invalid or expired
+     */
+    public Optional<Claims> getVerifiedClaims(String token) {
+        String key = digest(token);
+        Claims cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<Claims> claims = jwtTokenProvider.parseVerifiedClaims(token);
+        claims.ifPresent(verified -> cache.put(key, verified));
+        return claims;
+    }
+
+    private static String digest(String token) {
+        return Base64.getEncoder().withoutPadding().encodeToString(OpaqueTokens.sha256(token));
+    }
+
+    static final class TokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return 0;
+            }
+            long remainingMs = expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
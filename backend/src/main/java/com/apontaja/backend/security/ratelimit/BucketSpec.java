@@ -0,0 +1,43 @@
+package com.apontaja.backend.security.ratelimit;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Shape of a token bucket: it holds at most {@code capacity} tokens and refills continuously,
+ * at {@code capacity} tokens per {@code refillPeriod}.
+ *
+ * @param name         Name of the limit, used as key prefix and metric tag
+ * @param capacity     Maximum burst
+ * @param refillPeriod Time for an empty bucket to refill completely
+ */
+public record BucketSpec(String name, long capacity, Duration refillPeriod) {
+
+    public BucketSpec {
+        if (capacity < 1 || refillPeriod.isZero() || refillPeriod.isNegative()) {
+            throw new IllegalArgumentException("Invalid bucket " + name + ": capacity " + capacity + " per " + refillPeriod);
+        }
+    }
+
+    public double tokensPerSecond() {
+        return capacity / (refillPeriod.toNanos() / 1e9);
+    }
+
+    /**
+     * @return The tokens available at {@code now} in a bucket holding {@code tokens} at {@code since}
+     */
+    public double refill(double tokens, Instant since, Instant now) {
+        double elapsedSeconds = Math.max(0, Duration.between(since, now).toNanos() / 1e9);
+        return Math.min(capacity, tokens + elapsedSeconds * tokensPerSecond());
+    }
+
+    /**
+     * @return How long a bucket holding {@code tokens} takes to hold one whole token
+     */
+    public Duration timeUntilToken(double tokens) {
+        if (tokens >= 1) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos((long) Math.ceil((1 - tokens) / tokensPerSecond() * 1e9));
+    }
+}
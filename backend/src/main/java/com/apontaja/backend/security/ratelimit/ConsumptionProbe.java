@@ -0,0 +1,18 @@
+package com.apontaja.backend.security.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Outcome of taking a token from a bucket.
+ *
+ * @param consumed   Whether a token was available and taken
+ * @param retryAfter How long until the next token, zero when consumed
+ */
+public record ConsumptionProbe(boolean consumed, Duration retryAfter) {
+
+    static final ConsumptionProbe CONSUMED = new ConsumptionProbe(true, Duration.ZERO);
+
+    static ConsumptionProbe rejected(Duration retryAfter) {
+        return new ConsumptionProbe(false, retryAfter);
+    }
+}
@@ -0,0 +1,72 @@
+package com.apontaja.backend.security.ratelimit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token buckets local to this instance (default store).
+ * <p>
+ * Buckets are immutable values swapped with compare-and-set on a {@link ConcurrentHashMap},
+ * whose bins already stripe contention across keys. No lock is ever held, so concurrent
+ * attempts on the same key never queue behind each other, and virtual threads never pin.
+ */
+@Component
+@ConditionalOnProperty(name = "app.security.rate-limit.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryTokenBucketStore implements TokenBucketStore {
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public ConsumptionProbe tryConsume(String key, BucketSpec spec, Instant now) {
+        while (true) {
+            Bucket current = buckets.get(key);
+            double available = current == null
+                    ? spec.capacity()
+                    : spec.refill(current.tokens(), current.updatedAt(), now);
+            if (available < 1) {
+                return ConsumptionProbe.rejected(spec.timeUntilToken(available));
+            }
+
+            Bucket next = new Bucket(available - 1, now);
+            boolean swapped = current == null
+                    ? buckets.putIfAbsent(key, next) == null
+                    : buckets.replace(key, current, next);
+            if (swapped) {
+                return ConsumptionProbe.CONSUMED;
+            }
+        }
+    }
+
+    @Override
+    public Duration timeUntilToken(String key, BucketSpec spec, Instant now) {
+        Bucket current = buckets.get(key);
+        if (current == null) {
+            return Duration.ZERO;
+        }
+        return spec.timeUntilToken(spec.refill(current.tokens(), current.updatedAt(), now));
+    }
+
+    @Override
+    public void reset(String key) {
+        buckets.remove(key);
+    }
+
+    @Override
+    public int evictIdleSince(Instant cutoff) {
+        int before = buckets.size();
+        // removeIf on the entry view removes an entry only if it still holds the tested value
+        buckets.entrySet().removeIf(entry -> entry.getValue().updatedAt().isBefore(cutoff));
+        return Math.max(0, before - buckets.size());
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    private record Bucket(double tokens, Instant updatedAt) {
+    }
+}
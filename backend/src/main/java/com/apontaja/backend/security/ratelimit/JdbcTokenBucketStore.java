@@ -0,0 +1,70 @@
+package com.apontaja.backend.security.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Token buckets in the PostgreSQL table {@code rate_limit_buckets}, shared by every replica.
+ * <p>
+ * Taking a token is a single upsert: the row lock taken by {@code ON CONFLICT} makes the
+ * refill-and-decrement atomic across replicas, and its {@code WHERE} clause leaves the row
+ * untouched when the bucket is empty, so a rejected attempt returns no row. Only then is the
+ * bucket read back to compute the retry delay.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.security.rate-limit.store", havingValue = "jdbc")
+public class JdbcTokenBucketStore implements TokenBucketStore {
+
+    // Parameters: key, capacity - 1, now, capacity, rate, capacity, rate
+    private static final String CONSUME_SQL = """
+            INSERT INTO rate_limit_buckets AS b (bucket_key, tokens, updated_at)
+            VALUES (?, ?, ?)
+            ON CONFLICT (bucket_key) DO UPDATE
+            SET tokens = LEAST(?, b.tokens + GREATEST(0, EXTRACT(EPOCH FROM EXCLUDED.updated_at - b.updated_at)) * ?) - 1,
+                updated_at = GREATEST(b.updated_at, EXCLUDED.updated_at)
+            WHERE LEAST(?, b.tokens + GREATEST(0, EXTRACT(EPOCH FROM EXCLUDED.updated_at - b.updated_at)) * ?) >= 1
+            RETURNING tokens
+            """;
+
+    private static final String SELECT_SQL =
+            "SELECT tokens, updated_at FROM rate_limit_buckets WHERE bucket_key = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public ConsumptionProbe tryConsume(String key, BucketSpec spec, Instant now) {
+        double rate = spec.tokensPerSecond();
+        List<Double> remaining = jdbcTemplate.queryForList(CONSUME_SQL, Double.class,
+                key, spec.capacity() - 1, Timestamp.from(now), spec.capacity(), rate, spec.capacity(), rate);
+        if (!remaining.isEmpty()) {
+            return ConsumptionProbe.CONSUMED;
+        }
+        return ConsumptionProbe.rejected(timeUntilToken(key, spec, now));
+    }
+
+    @Override
+    public Duration timeUntilToken(String key, BucketSpec spec, Instant now) {
+        List<Double> available = jdbcTemplate.query(SELECT_SQL,
+                (rs, rowNum) -> spec.refill(rs.getDouble("tokens"), rs.getTimestamp("updated_at").toInstant(), now),
+                key);
+        return available.isEmpty() ? Duration.ZERO : spec.timeUntilToken(available.get(0));
+    }
+
+    @Override
+    public void reset(String key) {
+        jdbcTemplate.update("DELETE FROM rate_limit_buckets WHERE bucket_key = ?", key);
+    }
+
+    @Override
+    public int evictIdleSince(Instant cutoff) {
+        return jdbcTemplate.update("DELETE FROM rate_limit_buckets WHERE updated_at < ?", Timestamp.from(cutoff));
+    }
+}
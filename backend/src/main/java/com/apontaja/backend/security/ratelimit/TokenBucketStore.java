@@ -0,0 +1,33 @@
+package com.apontaja.backend.security.ratelimit;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Storage of token buckets. Buckets are created full on first use, and a bucket left alone
+ * for its whole refill period is full again, so idle buckets can be dropped at any time.
+ */
+public interface TokenBucketStore {
+
+    /**
+     * Atomically take one token from a bucket, if one is available.
+     */
+    ConsumptionProbe tryConsume(String key, BucketSpec spec, Instant now);
+
+    /**
+     * @return How long until the bucket holds a token, zero if it already does. Nothing is consumed.
+     */
+    Duration timeUntilToken(String key, BucketSpec spec, Instant now);
+
+    /**
+     * Refill a bucket completely.
+     */
+    void reset(String key);
+
+    /**
+     * Drop buckets not touched since {@code cutoff}.
+     *
+     * @return The number of buckets dropped
+     */
+    int evictIdleSince(Instant cutoff);
+}
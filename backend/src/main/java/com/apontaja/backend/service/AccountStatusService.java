@@ -0,0 +1,21 @@
+package com.apontaja.backend.service;
+
+public interface AccountStatusService {
+
+    /**
+     * Check whether a user account still exists and is enabled.
+     * Results are cached for a short time, so a disabled account loses access
+     * within that delay even if it still holds a valid access token.
+     *
+     * @param userId The id of the user
+     * @return true if the account exists and is enabled
+     */
+    boolean isActive(Long userId);
+
+    /**
+     * Drop the cached status of a user, forcing the next check to hit the database
+     *
+     * @param userId The id of the user
+     */
+    void invalidate(Long userId);
+}
@@ -0,0 +1,65 @@
+package com.apontaja.backend.service;
+
+import com.apontaja.backend.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Service
+public class AccountStatusServiceImpl implements AccountStatusService {
+
+    private static final String CACHE_NAME = "users.account-status";
+    private static final int INVALIDATION_STRIPES = 64;
+
+    private final UserRepository userRepository;
+    private final Cache<Long, Boolean> statusCache;
+    // Bumped by every invalidation of an id in the stripe. A load only caches its status if the
+    // stripe did not move while it was querying; ids sharing a stripe at worst skip one put.
+    private final AtomicLongArray invalidations = new AtomicLongArray(INVALIDATION_STRIPES);
+
+    public AccountStatusServiceImpl(UserRepository userRepository,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.security.account-status.ttl:30s}") Duration ttl,
+                                    @Value("${app.security.account-status.maximum-size:10000}") long maximumSize) {
+        this.userRepository = userRepository;
+        this.statusCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, statusCache, CACHE_NAME);
+    }
+
+    @Override
+    public boolean isActive(Long userId) {
+        Boolean cached = statusCache.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Queried outside Caffeine's compute so a virtual thread is not pinned during JDBC I/O.
+        // The counter is checked under the entry's lock, which invalidate() takes after bumping
+        // it, so a status read before a change is never cached after the change was evicted.
+        int stripe = stripe(userId);
+        long seen = invalidations.get(stripe);
+        Boolean active = userRepository.findEnabledById(userId).orElse(false);
+        statusCache.asMap().compute(userId, (id, current) -> invalidations.get(stripe) == seen ? active : current);
+        return active;
+    }
+
+    @Override
+    public void invalidate(Long userId) {
+        invalidations.incrementAndGet(stripe(userId));
+        statusCache.invalidate(userId);
+    }
+
+    private static int stripe(Long userId) {
+        return Long.hashCode(userId) & (INVALIDATION_STRIPES - 1);
+    }
+}
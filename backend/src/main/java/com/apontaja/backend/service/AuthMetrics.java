@@ -0,0 +1,119 @@
+package com.apontaja.backend.service;
+
+import com.apontaja.backend.exception.ServiceOverloadedException;
+import com.apontaja.backend.exception.TokenRefreshException;
+import com.apontaja.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Times the authentication endpoints and counts their outcomes.
+ * <p>
+ * {@code auth.requests} is a timer per operation (register, login, refresh, logout) and outcome;
+ * its histogram buckets are configured under {@code management.metrics.distribution}.
+ * {@code auth.outcomes} also counts requests rejected before reaching the service, such as
+ * validation errors, so it is the one to alert on.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthMetrics {
+
+    public static final String REGISTER = "register";
+    public static final String LOGIN = "login";
+    public static final String REFRESH = "refresh";
+    public static final String LOGOUT = "logout";
+
+    public static final String SUCCESS = "success";
+    public static final String VALIDATION_ERROR = "validation_error";
+
+    private static final String AUTH_PATH = "/api/auth/";
+    private static final Set<String> OPERATIONS = Set.of(REGISTER, LOGIN, REFRESH, LOGOUT);
+
+    private final MeterRegistry meterRegistry;
+
+    public <T> T record(String operation, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = SUCCESS;
+        try {
+            return call.get();
+        } catch (RuntimeException ex) {
+            outcome = outcomeOf(ex);
+            throw ex;
+        } finally {
+            sample.stop(timer(operation, outcome));
+            outcomeCounter(operation, outcome).increment();
+        }
+    }
+
+    public void record(String operation, Runnable call) {
+        record(operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Count a request rejected before its operation ran. Requests outside the authentication
+     * endpoints are ignored, so unknown paths can't create new time series.
+     *
+     * @param requestUri The request path, e.g. /api/auth/login
+     * @param outcome    Why it was rejected, e.g. {@link #VALIDATION_ERROR}
+     */
+    public void rejected(String requestUri, String outcome) {
+        if (requestUri == null || !requestUri.startsWith(AUTH_PATH)) {
+            return;
+        }
+        String operation = requestUri.substring(AUTH_PATH.length());
+        if (OPERATIONS.contains(operation)) {
+            outcomeCounter(operation, outcome).increment();
+        }
+    }
+
+    static String outcomeOf(RuntimeException ex) {
+        if (ex instanceof BadCredentialsException) {
+            return "bad_credentials";
+        }
+        if (ex instanceof AuthenticationException) {
+            return "account_unavailable";
+        }
+        if (ex instanceof TokenRefreshException refresh) {
+            return switch (refresh.getReason()) {
+                case EXPIRED -> "expired_refresh";
+                case REUSED -> "reused_refresh";
+                case INVALID -> "invalid_refresh";
+            };
+        }
+        if (ex instanceof TooManyRequestsException) {
+            return "rate_limited";
+        }
+        if (ex instanceof ServiceOverloadedException) {
+            return "overloaded";
+        }
+        return "error";
+    }
+
+    // Micrometer returns the already registered meter, so building one per call only costs a lookup
+    private Timer timer(String operation, String outcome) {
+        return Timer.builder("auth.requests")
+                .description("Time to serve an authentication request, by operation and outcome")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Counter outcomeCounter(String operation, String outcome) {
+        return Counter.builder("auth.outcomes")
+                .description("Authentication requests by operation and outcome, including requests rejected before the operation ran")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -4,7 +4,6 @@ import com.apontaja.backend.dto.AuthResponse;
 import com.apontaja.backend.dto.LoginRequest;
 import com.apontaja.backend.dto.RefreshTokenRequest;
 import com.apontaja.backend.dto.RegisterRequest;
-import com.apontaja.backend.exception.TokenRefreshException;
 import com.apontaja.backend.model.RefreshToken;
 import com.apontaja.backend.model.Role;
 import com.apontaja.backend.model.User;
@@ -12,12 +11,14 @@ import com.apontaja.backend.repository.UserRepository;
 import com.apontaja.backend.security.jwt.JwtTokenProvider;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Slf4j
 @Service
@@ -30,19 +31,22 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     private final RefreshTokenService refreshTokenService;
     private final AuthenticationManager authenticationManager;
     private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final LoginAttemptService loginAttemptService;
+    private final RegisteredEmailFilter registeredEmailFilter;
 
+    // Not @Transactional: BCrypt runs first, on the bounded hashing pool, and may queue there.
+    // A transaction opened around it would hold a pooled connection for the whole wait.
     @Override
-    @Transactional
     public AuthResponse register(RegisterRequest request) {
-        // Check if email already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
-            // Send notification to existing user that someone tried to register with their email
-            emailService.sendExistingEmailNotification(request.getEmail());
-            
-            // Return generic response without revealing the email exists
-            // This prevents email enumeration attacks
-            log.info("Registration attempt with existing email: {}", request.getEmail());
-            throw new RuntimeException("Registration request processed. If this email is valid, you will receive a confirmation email.");
+        loginAttemptService.checkRegistration();
+
+        // Only emails the filter may have seen cost a query; the unique index still has the final word
+        if (registeredEmailFilter.mightContain(request.getEmail())) {
+            if (userRepository.existsByEmail(request.getEmail())) {
+                throw existingEmailRejection(request.getEmail());
+            }
+            registeredEmailFilter.recordFalsePositive();
         }
 
         User user = User.builder()
@@ -54,15 +58,24 @@ public class AuthenticationServiceImpl implements AuthenticationService {
                 .enabled(true)
                 .build();
 
-        userRepository.save(user);
-        
-        // Send verification email to new user
-        emailService.sendRegistrationVerificationEmail(user.getEmail(), user.getFirstName());
+        RefreshToken refreshToken;
+        try {
+            refreshToken = transactionTemplate.execute(status -> {
+                // Flushed so a duplicate email fails here rather than at commit
+                User saved = userRepository.saveAndFlush(user);
+                // Send verification email to new user
+                emailService.sendRegistrationVerificationEmail(saved.getEmail(), saved.getFirstName());
+                return refreshTokenService.createRefreshToken(saved);
+            });
+        } catch (DataIntegrityViolationException ex) {
+            // Registered concurrently, or by another replica since this one filled its filter
+            throw existingEmailRejection(request.getEmail());
+        }
+        User saved = refreshToken.getUser();
         
-        log.info("New user registered: {}", user.getEmail());
+        log.info("New user registered: {}", saved.getEmail());
 
-        String accessToken = jwtTokenProvider.generateAccessToken(user.getEmail());
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
+        String accessToken = jwtTokenProvider.generateAccessToken(saved);
 
         return AuthResponse.builder()
                 .accessToken(accessToken)
@@ -72,25 +85,37 @@ public class AuthenticationServiceImpl implements AuthenticationService {
                 .build();
     }
 
+    // Not @Transactional for the same reason as register: only the token writes need one
     @Override
-    @Transactional
     public AuthResponse login(LoginRequest request) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getEmail(),
-                        request.getPassword()
-                )
-        );
+        // Rejects rate-limited clients and locked accounts before the password is hashed
+        loginAttemptService.checkLogin(request.getEmail());
+
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            request.getEmail(),
+                            request.getPassword()
+                    )
+            );
+        } catch (BadCredentialsException ex) {
+            loginAttemptService.loginFailed(request.getEmail());
+            throw ex;
+        }
+        loginAttemptService.loginSucceeded(request.getEmail());
 
         User user = (User) authentication.getPrincipal();
         
         log.info("User logged in: {}", user.getEmail());
         
-        // Delete existing refresh tokens for this user
-        refreshTokenService.deleteByUser(user);
+        RefreshToken refreshToken = transactionTemplate.execute(status -> {
+            // Delete existing refresh tokens for this user
+            refreshTokenService.deleteByUser(user);
+            return refreshTokenService.createRefreshToken(user);
+        });
 
         String accessToken = jwtTokenProvider.generateAccessToken(authentication);
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
 
         return AuthResponse.builder()
                 .accessToken(accessToken)
@@ -100,35 +125,36 @@ public class AuthenticationServiceImpl implements AuthenticationService {
                 .build();
     }
 
+    // Not @Transactional: the rotation is a single statement and returns the user with the new token
     @Override
-    @Transactional
     public AuthResponse refreshToken(RefreshTokenRequest request) {
-        String requestRefreshToken = request.getRefreshToken();
-
-        return refreshTokenService.findByToken(requestRefreshToken)
-                .map(refreshTokenService::verifyExpiration)
-                .map(RefreshToken::getUser)
-                .map(user -> {
-                    String accessToken = jwtTokenProvider.generateAccessToken(user.getEmail());
-                    log.debug("Access token refreshed for user: {}", user.getEmail());
-                    return AuthResponse.builder()
-                            .accessToken(accessToken)
-                            .refreshToken(requestRefreshToken)
-                            .tokenType("Bearer")
-                            .expiresIn(jwtTokenProvider.getAccessTokenExpiration())
-                            .build();
-                })
-                .orElseThrow(() -> new TokenRefreshException(requestRefreshToken, 
-                    "Refresh token not found"));
+        RefreshToken rotated = refreshTokenService.rotate(request.getRefreshToken());
+        User user = rotated.getUser();
+
+        String accessToken = jwtTokenProvider.generateAccessToken(user);
+        log.debug("Access token refreshed for user: {}", user.getEmail());
+
+        return AuthResponse.builder()
+                .accessToken(accessToken)
+                .refreshToken(rotated.getToken())
+                .tokenType("Bearer")
+                .expiresIn(jwtTokenProvider.getAccessTokenExpiration())
+                .build();
     }
 
+    // A single delete: the token is never loaded, nor its user
     @Override
-    @Transactional
     public void logout(String refreshToken) {
-        refreshTokenService.findByToken(refreshToken)
-                .ifPresent(token -> {
-                    log.info("User logged out, deleting refresh token");
-                    refreshTokenService.deleteToken(token);
-                });
+        refreshTokenService.revokeFamily(refreshToken);
+    }
+
+    private RuntimeException existingEmailRejection(String email) {
+        // Send notification to existing user that someone tried to register with their email
+        emailService.sendExistingEmailNotification(email);
+
+        // Return generic response without revealing the email exists
+        // This prevents email enumeration attacks
+        log.info("Registration attempt with existing email: {}", email);
+        return new RuntimeException("Registration request processed. If this email is valid, you will receive a confirmation email.");
     }
 }
@@ -0,0 +1,254 @@
+package com.apontaja.backend.service;
+
+import com.apontaja.backend.config.profiling.MailEvent;
+import com.apontaja.backend.config.tracing.Tracing;
+import com.apontaja.backend.model.EmailOutboxMessage;
+import com.apontaja.backend.model.EmailOutboxStatus;
+import com.apontaja.backend.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Drains the email outbox in batches.
+ * <p>
+ * Each run claims due rows with {@code SKIP LOCKED} and pushes their retry time forward by a
+ * lease, so concurrent replicas never pick the same message. The claim transaction is committed
+ * before talking to SMTP, and the whole batch is sent over a single connection. Failed messages
+ * are retried with exponential backoff and marked {@link EmailOutboxStatus#DEAD} after the
+ * last attempt. A crash mid-batch only delays delivery until the lease expires.
+ */
+@Slf4j
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Tracing tracing;
+
+    // Jakarta Mail's SMTP transport sends inside synchronized methods, which would pin a virtual
+    // thread's carrier for the whole exchange, so the send itself always runs on this platform thread
+    private final ExecutorService smtpExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("email-outbox-smtp").daemon().factory());
+
+    @Value("${spring.mail.from:noreply@apontaja.com}")
+    private String fromEmail;
+
+    @Value("${app.mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.max-batches-per-run:10}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.initial-backoff:30s}")
+    private Duration initialBackoff;
+
+    @Value("${app.mail.outbox.max-backoff:1h}")
+    private Duration maxBackoff;
+
+    @Value("${app.mail.outbox.lease:5m}")
+    private Duration lease;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository emailOutboxRepository,
+                                 JavaMailSender mailSender,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 Tracing tracing) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.tracing = tracing;
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:5000}")
+    public void dispatch() {
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            if (dispatchBatch() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Claim, send and record the outcome of one batch of due messages
+     *
+     * @return The number of messages claimed
+     */
+    public int dispatchBatch() {
+        List<EmailOutboxMessage> batch = transactionTemplate.execute(status -> claimDueMessages());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<EmailOutboxMessage, SimpleMailMessage> mails = new LinkedHashMap<>();
+        batch.forEach(message -> mails.put(message, toMail(message)));
+        Map<Object, Exception> failures = send(mails.values().toArray(SimpleMailMessage[]::new));
+
+        transactionTemplate.executeWithoutResult(status -> recordOutcome(mails, failures));
+        log.debug("Dispatched {} outbox emails, {} failed", batch.size(), failures.size());
+        return batch.size();
+    }
+
+    private List<EmailOutboxMessage> claimDueMessages() {
+        Instant now = Instant.now();
+        List<EmailOutboxMessage> due = emailOutboxRepository.findPendingDueForUpdate(
+                now, PageRequest.of(0, batchSize));
+        due.forEach(message -> message.setNextAttemptAt(now.plus(lease)));
+        return due;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        smtpExecutor.shutdown();
+    }
+
+    private Map<Object, Exception> send(SimpleMailMessage[] mails) {
+        return tracing.inSpan("mail send", span -> {
+            span.tag("mail.batch.size", mails.length);
+            try {
+                Map<Object, Exception> failures = smtpExecutor.submit(() -> sendOverSmtp(mails)).get();
+                span.tag("mail.failures", failures.size());
+                return failures;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return allFailed(mails, ex);
+            } catch (ExecutionException ex) {
+                return allFailed(mails, ex.getCause() instanceof Exception cause ? cause : ex);
+            }
+        });
+    }
+
+    // One SMTP session per batch, so the timer measures batches, not messages
+    private Map<Object, Exception> sendOverSmtp(SimpleMailMessage[] mails) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        MailEvent event = new MailEvent("smtp", mails.length);
+        event.begin();
+        Map<Object, Exception> failures = Map.of();
+        try {
+            mailSender.send(mails);
+        } catch (MailSendException ex) {
+            failures = ex.getFailedMessages().isEmpty() ? allFailed(mails, ex) : ex.getFailedMessages();
+        } catch (MailException ex) {
+            failures = allFailed(mails, ex);
+        }
+        String outcome = failures.isEmpty() ? "success" : failures.size() < mails.length ? "partial" : "failure";
+        sample.stop(Timer.builder("mail.send")
+                .description("Time to send a batch of outbox emails over SMTP")
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+        event.failures = failures.size();
+        event.commit();
+        return failures;
+    }
+
+    private void recordOutcome(Map<EmailOutboxMessage, SimpleMailMessage> mails, Map<Object, Exception> failures) {
+        Instant now = Instant.now();
+        List<Long> sentIds = new ArrayList<>();
+        List<EmailOutboxMessage> failed = new ArrayList<>();
+
+        mails.forEach((message, mail) -> {
+            Exception failure = failures.get(mail);
+            if (failure == null) {
+                sentIds.add(message.getId());
+            } else {
+                scheduleRetry(message, failure, now);
+                failed.add(message);
+            }
+        });
+
+        if (!sentIds.isEmpty()) {
+            emailOutboxRepository.markSent(sentIds, EmailOutboxStatus.SENT, now);
+        }
+        if (!failed.isEmpty()) {
+            emailOutboxRepository.saveAll(failed);
+        }
+    }
+
+    private void scheduleRetry(EmailOutboxMessage message, Exception failure, Instant now) {
+        int attempts = message.getAttempts() + 1;
+        message.setAttempts(attempts);
+        message.setLastError(truncate(failure.getMessage()));
+
+        if (attempts >= maxAttempts) {
+            message.setStatus(EmailOutboxStatus.DEAD);
+            log.error("Giving up on email {} to {} after {} attempts", message.getId(), message.getRecipient(), attempts, failure);
+            return;
+        }
+
+        message.setNextAttemptAt(now.plus(backoff(attempts)));
+        log.warn("Failed to send email {} to {} (attempt {}), retrying at {}",
+                message.getId(), message.getRecipient(), attempts, message.getNextAttemptAt());
+    }
+
+    Duration backoff(int attempts) {
+        long multiplier = 1L << Math.min(attempts - 1, 20);
+        Duration delay = initialBackoff.multipliedBy(multiplier);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private SimpleMailMessage toMail(EmailOutboxMessage message) {
+        SimpleMailMessage mail = new OutboxMail();
+        mail.setFrom(fromEmail);
+        mail.setTo(message.getRecipient());
+        mail.setSubject(message.getSubject());
+        mail.setText(message.getBody());
+        return mail;
+    }
+
+    private static Map<Object, Exception> allFailed(SimpleMailMessage[] mails, Exception ex) {
+        Map<Object, Exception> failures = new HashMap<>();
+        Arrays.stream(mails).forEach(mail -> failures.put(mail, ex));
+        return failures;
+    }
+
+    /**
+     * A mail equal only to itself. {@link SimpleMailMessage} compares by value, so two identical
+     * mails in a batch would share one entry in the failures map and one outcome: a delivered
+     * copy could be retried because the other one failed.
+     */
+    private static final class OutboxMail extends SimpleMailMessage {
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
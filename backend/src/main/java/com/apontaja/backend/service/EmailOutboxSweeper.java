@@ -0,0 +1,122 @@
+package com.apontaja.backend.service;
+
+import com.apontaja.backend.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Periodically deletes delivered emails past the sent retention window, and dead-lettered ones
+ * past the longer dead retention window, so the outbox does not keep every mail body forever.
+ * <p>
+ * Like {@link RefreshTokenSweeper}, rows are deleted in small batches, each in its own short
+ * transaction and picked with {@code SKIP LOCKED}, so replicas split the work. A run stops once
+ * its time budget is spent and resumes on the next tick.
+ */
+@Slf4j
+@Component
+public class EmailOutboxSweeper {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter sentDeletedCounter;
+    private final Counter deadDeletedCounter;
+
+    @Value("${app.mail.outbox.sweeper.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.sweeper.max-run-duration:10s}")
+    private Duration maxRunDuration;
+
+    @Value("${app.mail.outbox.sweeper.sent-retention:7d}")
+    private Duration sentRetention;
+
+    @Value("${app.mail.outbox.sweeper.dead-retention:30d}")
+    private Duration deadRetention;
+
+    public EmailOutboxSweeper(EmailOutboxRepository emailOutboxRepository,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sentDeletedCounter = Counter.builder("mail.outbox.deleted")
+                .description("Outbox emails deleted by the sweeper after their retention window")
+                .tag("status", "sent")
+                .register(meterRegistry);
+        this.deadDeletedCounter = Counter.builder("mail.outbox.deleted")
+                .description("Outbox emails deleted by the sweeper after their retention window")
+                .tag("status", "dead")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${app.mail.outbox.sweeper.initial-delay-ms:120000}",
+            fixedDelayString = "${app.mail.outbox.sweeper.interval-ms:3600000}")
+    public void sweep() {
+        Instant now = Instant.now();
+        long deadline = System.nanoTime() + maxRunDuration.toNanos();
+
+        Instant sentBefore = now.minus(sentRetention);
+        long sent = 0;
+        int deleted;
+        do {
+            deleted = deleteSentBatch(sentBefore);
+            sent += deleted;
+        } while (deleted == batchSize && System.nanoTime() < deadline);
+
+        Instant deadBefore = now.minus(deadRetention);
+        long dead = 0;
+        while (System.nanoTime() < deadline) {
+            deleted = deleteDeadBatch(deadBefore);
+            dead += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+
+        if (sent > 0 || dead > 0) {
+            log.info("Deleted {} sent and {} dead outbox emails", sent, dead);
+        }
+    }
+
+    /**
+     * Delete one batch of emails sent before the given instant
+     *
+     * @param cutoff The end of the sent retention window
+     * @return The number of deleted rows
+     */
+    int deleteSentBatch(Instant cutoff) {
+        Integer deleted = transactionTemplate.execute(status -> {
+            List<Long> ids = emailOutboxRepository.findSentIdsForUpdate(cutoff, PageRequest.of(0, batchSize));
+            return ids.isEmpty() ? 0 : emailOutboxRepository.deleteByIdIn(ids);
+        });
+        int count = deleted == null ? 0 : deleted;
+        sentDeletedCounter.increment(count);
+        return count;
+    }
+
+    /**
+     * Delete one batch of dead-lettered emails whose last attempt was before the given instant
+     *
+     * @param cutoff The end of the dead retention window
+     * @return The number of deleted rows
+     */
+    int deleteDeadBatch(Instant cutoff) {
+        Integer deleted = transactionTemplate.execute(status -> {
+            List<Long> ids = emailOutboxRepository.findDeadIdsForUpdate(cutoff, PageRequest.of(0, batchSize));
+            return ids.isEmpty() ? 0 : emailOutboxRepository.deleteByIdIn(ids);
+        });
+        int count = deleted == null ? 0 : deleted;
+        deadDeletedCounter.increment(count);
+        return count;
+    }
+}
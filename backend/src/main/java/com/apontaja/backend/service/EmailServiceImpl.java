@@ -1,72 +1,76 @@
 package com.apontaja.backend.service;
 
+import com.apontaja.backend.config.profiling.MailEvent;
+import com.apontaja.backend.model.EmailOutboxMessage;
+import com.apontaja.backend.repository.EmailOutboxRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.MailException;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Emails are not sent inline: they are written to the outbox table and delivered
+ * asynchronously by {@link EmailOutboxDispatcher}, so request latency no longer
+ * depends on the mail server.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmailServiceImpl implements EmailService {
     
-    private final JavaMailSender mailSender;
-    
-    @Value("${spring.mail.from:noreply@apontaja.com}")
-    private String fromEmail;
+    private final EmailOutboxRepository emailOutboxRepository;
     
     @Value("${app.base-url:http://localhost:8080}")
     private String baseUrl;
     
+    // Runs in its own transaction: the registration that triggers it is rolled back
+    // to avoid revealing that the email exists, but the notification must still go out
     @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void sendExistingEmailNotification(String email) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(email);
-            message.setSubject("Registration Attempt - Apontaja");
-            message.setText(String.format(
-                "Hello,\n\n" +
-                "Someone attempted to register an account with this email address on Apontaja.\n\n" +
-                "If this was you and you already have an account, you can log in directly.\n" +
-                "If you forgot your password, you can reset it here: %s/reset-password\n\n" +
-                "If this wasn't you, you can safely ignore this email.\n\n" +
-                "Best regards,\n" +
-                "The Apontaja Team",
-                baseUrl
-            ));
-            
-            mailSender.send(message);
-            log.info("Existing email notification sent to: {}", email);
-        } catch (MailException e) {
-            log.error("Failed to send existing email notification to: {}", email, e);
-        }
+        enqueue("sendExistingEmailNotification", email,
+                "Registration Attempt - Apontaja",
+                String.format(
+                    "Hello,\n\n" +
+                    "Someone attempted to register an account with this email address on Apontaja.\n\n" +
+                    "If this was you and you already have an account, you can log in directly.\n" +
+                    "If you forgot your password, you can reset it here: %s/reset-password\n\n" +
+                    "If this wasn't you, you can safely ignore this email.\n\n" +
+                    "Best regards,\n" +
+                    "The Apontaja Team",
+                    baseUrl
+                ));
+        log.info("Existing email notification queued for: {}", email);
     }
     
+    // Joins the registration transaction, so the email only goes out if the user is committed
     @Override
+    @Transactional
     public void sendRegistrationVerificationEmail(String email, String firstName) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(email);
-            message.setSubject("Welcome to Apontaja - Verify Your Email");
-            message.setText(String.format(
-                "Hello %s,\n\n" +
-                "Welcome to Apontaja! We're excited to have you on board.\n\n" +
-                "Your account has been successfully created. You can now log in and start using our services.\n\n" +
-                "If you have any questions, please don't hesitate to contact us.\n\n" +
-                "Best regards,\n" +
-                "The Apontaja Team",
-                firstName
-            ));
-            
-            mailSender.send(message);
-            log.info("Registration verification email sent to: {} ({})", email, firstName);
-        } catch (MailException e) {
-            log.error("Failed to send registration verification email to: {}", email, e);
-        }
+        enqueue("sendRegistrationVerificationEmail", email,
+                "Welcome to Apontaja - Verify Your Email",
+                String.format(
+                    "Hello %s,\n\n" +
+                    "Welcome to Apontaja! We're excited to have you on board.\n\n" +
+                    "Your account has been successfully created. You can now log in and start using our services.\n\n" +
+                    "If you have any questions, please don't hesitate to contact us.\n\n" +
+                    "Best regards,\n" +
+                    "The Apontaja Team",
+                    firstName
+                ));
+        log.info("Registration verification email queued for: {} ({})", email, firstName);
+    }
+    
+    private void enqueue(String operation, String recipient, String subject, String body) {
+        MailEvent event = new MailEvent(operation, 1);
+        event.begin();
+        emailOutboxRepository.save(EmailOutboxMessage.builder()
+                .recipient(recipient)
+                .subject(subject)
+                .body(body)
+                .build());
+        event.commit();
     }
 }
@@ -0,0 +1,35 @@
+package com.apontaja.backend.service;
+
+public interface LoginAttemptService {
+
+    /**
+     * Check that a login attempt may go on to the password check, counting it against the
+     * client IP. Must run before the password is hashed.
+     *
+     * @param email The email the attempt is made for
+     * @throws com.apontaja.backend.exception.TooManyRequestsException if the client IP is over its
+     *         limit or the account is locked after too many failures
+     */
+    void checkLogin(String email);
+
+    /**
+     * Record a wrong password for an account
+     *
+     * @param email The email the attempt was made for
+     */
+    void loginFailed(String email);
+
+    /**
+     * Clear the failures recorded for an account
+     *
+     * @param email The email of the account
+     */
+    void loginSucceeded(String email);
+
+    /**
+     * Check that the client IP may register another account
+     *
+     * @throws com.apontaja.backend.exception.TooManyRequestsException if the client IP is over its limit
+     */
+    void checkRegistration();
+}
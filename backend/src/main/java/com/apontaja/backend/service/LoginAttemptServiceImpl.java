@@ -0,0 +1,145 @@
+package com.apontaja.backend.service;
+
+import com.apontaja.backend.exception.TooManyRequestsException;
+import com.apontaja.backend.security.ratelimit.BucketSpec;
+import com.apontaja.backend.security.ratelimit.ConsumptionProbe;
+import com.apontaja.backend.security.ratelimit.TokenBucketStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Token bucket limits on the authentication endpoints, applied before any password is hashed.
+ * <p>
+ * Each client IP gets a bucket for login attempts and one for registrations. Each account gets
+ * a bucket that only wrong passwords draw from: once it is empty the account rejects logins
+ * until a token refills, and a successful login refills it. The client IP is the remote address
+ * as resolved by {@code server.forward-headers-strategy}, i.e. the one reported by the proxy.
+ */
+@Slf4j
+@Service
+public class LoginAttemptServiceImpl implements LoginAttemptService {
+
+    private static final String ERROR_MESSAGE = "Too many attempts, please retry later";
+
+    private final TokenBucketStore bucketStore;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final BucketSpec loginPerIp;
+    private final BucketSpec failuresPerAccount;
+    private final BucketSpec registrationsPerIp;
+
+    public LoginAttemptServiceImpl(TokenBucketStore bucketStore,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.security.rate-limit.enabled:true}") boolean enabled,
+                                   @Value("${app.security.rate-limit.login-per-ip.capacity:20}") long loginPerIpCapacity,
+                                   @Value("${app.security.rate-limit.login-per-ip.refill-period:1m}") Duration loginPerIpPeriod,
+                                   @Value("${app.security.rate-limit.failures-per-account.capacity:5}") long failuresCapacity,
+                                   @Value("${app.security.rate-limit.failures-per-account.refill-period:15m}") Duration failuresPeriod,
+                                   @Value("${app.security.rate-limit.register-per-ip.capacity:5}") long registerPerIpCapacity,
+                                   @Value("${app.security.rate-limit.register-per-ip.refill-period:1h}") Duration registerPerIpPeriod) {
+        this.bucketStore = bucketStore;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.loginPerIp = new BucketSpec("login-ip", loginPerIpCapacity, loginPerIpPeriod);
+        this.failuresPerAccount = new BucketSpec("login-account", failuresCapacity, failuresPeriod);
+        this.registrationsPerIp = new BucketSpec("register-ip", registerPerIpCapacity, registerPerIpPeriod);
+    }
+
+    @Override
+    public void checkLogin(String email) {
+        if (!enabled) {
+            return;
+        }
+        Instant now = Instant.now();
+
+        // A locked account is checked first so its attempts don't also drain the IP's bucket
+        Duration lockedFor = bucketStore.timeUntilToken(accountKey(email), failuresPerAccount, now);
+        if (!lockedFor.isZero()) {
+            reject(failuresPerAccount, lockedFor);
+        }
+
+        ConsumptionProbe probe = bucketStore.tryConsume(ipKey(loginPerIp), loginPerIp, now);
+        if (!probe.consumed()) {
+            reject(loginPerIp, probe.retryAfter());
+        }
+    }
+
+    @Override
+    public void loginFailed(String email) {
+        if (!enabled) {
+            return;
+        }
+        ConsumptionProbe probe = bucketStore.tryConsume(accountKey(email), failuresPerAccount, Instant.now());
+        if (!probe.consumed()) {
+            log.warn("Account {} locked after repeated login failures", email);
+        }
+    }
+
+    @Override
+    public void loginSucceeded(String email) {
+        if (enabled) {
+            bucketStore.reset(accountKey(email));
+        }
+    }
+
+    @Override
+    public void checkRegistration() {
+        if (!enabled) {
+            return;
+        }
+        ConsumptionProbe probe = bucketStore.tryConsume(ipKey(registrationsPerIp), registrationsPerIp, Instant.now());
+        if (!probe.consumed()) {
+            reject(registrationsPerIp, probe.retryAfter());
+        }
+    }
+
+    /**
+     * Drop buckets idle for longer than any of them takes to refill, which are full again anyway
+     */
+    @Scheduled(initialDelayString = "${app.security.rate-limit.cleanup-interval-ms:300000}",
+            fixedDelayString = "${app.security.rate-limit.cleanup-interval-ms:300000}")
+    public void evictIdleBuckets() {
+        Duration longestRefill = Stream.of(loginPerIp, failuresPerAccount, registrationsPerIp)
+                .map(BucketSpec::refillPeriod)
+                .max(Duration::compareTo)
+                .orElseThrow();
+        int evicted = bucketStore.evictIdleSince(Instant.now().minus(longestRefill));
+        log.debug("Evicted {} idle rate limit buckets", evicted);
+    }
+
+    private void reject(BucketSpec spec, Duration retryAfter) {
+        meterRegistry.counter("auth.rate-limit.rejected", "limit", spec.name()).increment();
+        log.info("Rate limit {} reached for {}", spec.name(), clientIp());
+        // Rounded up so a client retrying exactly after Retry-After finds a token
+        long retryAfterSeconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        throw new TooManyRequestsException(ERROR_MESSAGE, retryAfterSeconds);
+    }
+
+    private String accountKey(String email) {
+        return failuresPerAccount.name() + ":" + email.toLowerCase(Locale.ROOT);
+    }
+
+    private String ipKey(BucketSpec spec) {
+        return spec.name() + ":" + clientIp();
+    }
+
+    private static String clientIp() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletRequest request = attributes.getRequest();
+            return request.getRemoteAddr();
+        }
+        return "unknown";
+    }
+}
@@ -3,17 +3,28 @@ package com.apontaja.backend.service;
 import com.apontaja.backend.model.RefreshToken;
 import com.apontaja.backend.model.User;
 
-import java.util.Optional;
-
 public interface RefreshTokenService {
 
     RefreshToken createRefreshToken(User user);
 
-    Optional<RefreshToken> findByToken(String token);
-
-    RefreshToken verifyExpiration(RefreshToken token);
+    /**
+     * Exchange a refresh token for its successor in the same family.
+     * A token that was already exchanged is treated as stolen: its whole family is revoked.
+     *
+     * @param token The raw refresh token presented by the client
+     * @return The successor, holding its raw token and its user
+     * @throws com.apontaja.backend.exception.TokenRefreshException if the token is unknown,
+     *         expired or already used
+     */
+    RefreshToken rotate(String token);
 
     void deleteByUser(User user);
 
-    void deleteToken(RefreshToken token);
+    /**
+     * Delete a refresh token and every token of its family, in one statement.
+     * Unknown tokens are ignored.
+     *
+     * @param token The raw refresh token presented by the client
+     */
+    void revokeFamily(String token);
 }
@@ -3,8 +3,11 @@ package com.apontaja.backend.service;
 import com.apontaja.backend.exception.TokenRefreshException;
 import com.apontaja.backend.model.RefreshToken;
 import com.apontaja.backend.model.User;
-import com.apontaja.backend.repository.RefreshTokenRepository;
+import com.apontaja.backend.repository.RefreshTokenState;
+import com.apontaja.backend.repository.RefreshTokenStore;
+import com.apontaja.backend.security.OpaqueTokens;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,6 +16,7 @@ import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class RefreshTokenServiceImpl implements RefreshTokenService {
@@ -20,38 +24,66 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     @Value("${jwt.refresh-token-expiration}")
     private Long refreshTokenDurationMs;
 
-    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenStore refreshTokenStore;
 
     public RefreshToken createRefreshToken(User user) {
+        String token = OpaqueTokens.generate();
         RefreshToken refreshToken = RefreshToken.builder()
                 .user(user)
-                .token(UUID.randomUUID().toString())
+                .token(token)
+                .tokenHash(OpaqueTokens.sha256(token))
+                .familyId(UUID.randomUUID())
                 .expiryDate(Instant.now().plusMillis(refreshTokenDurationMs))
                 .build();
 
-        return refreshTokenRepository.save(refreshToken);
+        return refreshTokenStore.save(refreshToken);
     }
 
-    public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+    // Not @Transactional: on PostgreSQL the rotation is one auto-committed statement, or no
+    // statement at all with the write-behind store
+    @Override
+    public RefreshToken rotate(String token) {
+        String successorToken = OpaqueTokens.generate();
+        Optional<RefreshToken> successor = refreshTokenStore.rotate(
+                OpaqueTokens.sha256(token), OpaqueTokens.sha256(successorToken), Instant.now());
+        if (successor.isPresent()) {
+            successor.get().setToken(successorToken);
+            return successor.get();
+        }
+        throw rotationFailure(token);
     }
 
-    public RefreshToken verifyExpiration(RefreshToken token) {
-        if (token.isExpired()) {
-            refreshTokenRepository.delete(token);
-            throw new TokenRefreshException(token.getToken(),
+    // Only reached when the rotation matched nothing, to tell the client why
+    private TokenRefreshException rotationFailure(String token) {
+        RefreshTokenState presented = refreshTokenStore.findStateByTokenHash(OpaqueTokens.sha256(token)).orElse(null);
+        if (presented == null) {
+            return new TokenRefreshException(token, "Refresh token not found");
+        }
+        if (presented.rotatedAt() != null) {
+            int revoked = refreshTokenStore.deleteByFamilyId(presented.familyId());
+            log.warn("Refresh token reused for user {}, revoked {} tokens of family {}",
+                    presented.userId(), revoked, presented.familyId());
+            return new TokenRefreshException(token, TokenRefreshException.Reason.REUSED,
+                    "Refresh token was already used. Please make a new signin request");
+        }
+        if (presented.isExpired(Instant.now())) {
+            refreshTokenStore.deleteByTokenHash(OpaqueTokens.sha256(token));
+            return new TokenRefreshException(token, TokenRefreshException.Reason.EXPIRED,
                     "Refresh token was expired. Please make a new signin request");
         }
-        return token;
+        return new TokenRefreshException(token, "Refresh token could not be rotated");
     }
 
     @Transactional
     public void deleteByUser(User user) {
-        refreshTokenRepository.deleteByUser(user);
+        refreshTokenStore.deleteByUser(user);
     }
 
-    @Transactional
-    public void deleteToken(RefreshToken token) {
-        refreshTokenRepository.delete(token);
+    @Override
+    public void revokeFamily(String token) {
+        int revoked = refreshTokenStore.deleteFamilyByTokenHash(OpaqueTokens.sha256(token));
+        if (revoked > 0) {
+            log.info("User logged out, deleted {} refresh tokens", revoked);
+        }
     }
 }
@@ -0,0 +1,148 @@
+package com.apontaja.backend.service;
+
+import com.apontaja.backend.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodically deletes expired refresh tokens, which are otherwise only removed when
+ * someone presents them, and rotated ones once they are past the reuse-detection window.
+ * <p>
+ * A rotated token is only kept so that presenting it again revokes its family. After the
+ * window, a replay is answered as an unknown token instead, without the revocation.
+ * <p>
+ * Rows are deleted in small batches, each in its own short transaction, walking the
+ * {@code expiry_date} index oldest first. Batches are picked with {@code SKIP LOCKED}, so
+ * replicas running the sweeper at the same time split the work instead of blocking on or
+ * repeating each other. A run stops once its time budget is spent and resumes on the next tick.
+ */
+@Slf4j
+@Component
+public class RefreshTokenSweeper {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter deletedCounter;
+    private final Counter prunedCounter;
+    private final AtomicLong tableSize = new AtomicLong();
+    private volatile boolean rowEstimateAvailable = true;
+
+    @Value("${app.refresh-token.sweeper.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.refresh-token.sweeper.max-run-duration:10s}")
+    private Duration maxRunDuration;
+
+    @Value("${app.refresh-token.sweeper.reuse-detection-window:1d}")
+    private Duration reuseDetectionWindow;
+
+    public RefreshTokenSweeper(RefreshTokenRepository refreshTokenRepository,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.deletedCounter = Counter.builder("auth.refresh.tokens.deleted")
+                .description("Expired refresh tokens deleted by the sweeper")
+                .register(meterRegistry);
+        this.prunedCounter = Counter.builder("auth.refresh.tokens.pruned")
+                .description("Rotated refresh tokens deleted by the sweeper after the reuse-detection window")
+                .register(meterRegistry);
+        Gauge.builder("auth.refresh.tokens.rows", tableSize, AtomicLong::get)
+                .description("Estimated rows in refresh_tokens after the last sweep")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${app.refresh-token.sweeper.initial-delay-ms:60000}",
+            fixedDelayString = "${app.refresh-token.sweeper.interval-ms:300000}")
+    public void sweep() {
+        Instant now = Instant.now();
+        long deadline = System.nanoTime() + maxRunDuration.toNanos();
+        long total = 0;
+
+        int deleted;
+        do {
+            deleted = deleteBatch(now);
+            total += deleted;
+        } while (deleted == batchSize && System.nanoTime() < deadline);
+
+        Instant rotatedBefore = now.minus(reuseDetectionWindow);
+        long pruned = 0;
+        while (System.nanoTime() < deadline) {
+            deleted = pruneBatch(rotatedBefore);
+            pruned += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+
+        updateTableSize();
+        if (total > 0 || pruned > 0) {
+            log.info("Deleted {} expired and {} rotated refresh tokens", total, pruned);
+        }
+    }
+
+    /**
+     * Refresh the table-size gauge from the planner statistics instead of a full {@code COUNT(*)}
+     * scan. The estimate only exists on PostgreSQL; elsewhere the gauge is left at zero.
+     */
+    private void updateTableSize() {
+        if (!rowEstimateAvailable) {
+            return;
+        }
+        try {
+            long estimate = refreshTokenRepository.estimateRowCount();
+            if (estimate >= 0) {
+                tableSize.set(estimate);
+            }
+        } catch (DataAccessException ex) {
+            log.debug("Refresh token row estimate unavailable: {}", ex.getMessage());
+            rowEstimateAvailable = false;
+        }
+    }
+
+    /**
+     * Delete one batch of tokens that expired before the given instant
+     *
+     * @param now The expiry cut-off
+     * @return The number of deleted rows
+     */
+    int deleteBatch(Instant now) {
+        Integer deleted = transactionTemplate.execute(status -> {
+            List<Long> ids = refreshTokenRepository.findExpiredIdsForUpdate(now, PageRequest.of(0, batchSize));
+            return ids.isEmpty() ? 0 : refreshTokenRepository.deleteByIdIn(ids);
+        });
+        int count = deleted == null ? 0 : deleted;
+        deletedCounter.increment(count);
+        return count;
+    }
+
+    /**
+     * Delete one batch of tokens rotated before the given instant
+     *
+     * @param cutoff The rotation cut-off, the end of the reuse-detection window
+     * @return The number of deleted rows
+     */
+    int pruneBatch(Instant cutoff) {
+        Integer deleted = transactionTemplate.execute(status -> {
+            List<Long> ids = refreshTokenRepository.findRotatedIdsForUpdate(cutoff, PageRequest.of(0, batchSize));
+            return ids.isEmpty() ? 0 : refreshTokenRepository.deleteByIdIn(ids);
+        });
+        int count = deleted == null ? 0 : deleted;
+        prunedCounter.increment(count);
+        return count;
+    }
+}
@@ -0,0 +1,175 @@
+package com.apontaja.backend.service;
+
+import com.apontaja.backend.event.UserChangedEvent;
+import com.apontaja.backend.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter of registered emails, so registration can skip the existence query for
+ * emails that were certainly never used.
+ * <p>
+ * The filter is filled from the {@code users} table once the application is ready, then kept
+ * current from {@link UserChangedEvent}s. It never forgets an email, so a {@code false} from
+ * {@link #mightContain} is definite while {@code true} must be confirmed by the database.
+ * Users inserted by another replica are not seen here; the unique index on {@code email}
+ * remains the final check. Until the first fill completes every email is reported as possibly
+ * present.
+ */
+@Slf4j
+@Component
+public class RegisteredEmailFilter {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLong setBits = new AtomicLong();
+    private final Counter absentCounter;
+    private final Counter possiblyPresentCounter;
+    private final Counter falsePositiveCounter;
+    private volatile boolean ready;
+
+    public RegisteredEmailFilter(UserRepository userRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.cache.registered-emails.expected-insertions:1000000}") long expectedInsertions,
+                                 @Value("${app.cache.registered-emails.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        // Optimal sizing: m = -n ln(p) / ln(2)^2 bits and k = m/n ln(2) hash functions
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        int wordCount = Math.toIntExact(Math.max(1, (bits + 63) / 64));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = wordCount * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+
+        this.absentCounter = lookupCounter(meterRegistry, "absent");
+        this.possiblyPresentCounter = lookupCounter(meterRegistry, "possibly-present");
+        this.falsePositiveCounter = Counter.builder("auth.email-filter.false-positives")
+                .description("Possibly present emails that the database did not know")
+                .register(meterRegistry);
+        Gauge.builder("auth.email-filter.memory", this, filter -> filter.bitCount / 8.0)
+                .description("Size of the registered email filter")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("auth.email-filter.expected-false-positive-rate", this, RegisteredEmailFilter::expectedFalsePositiveRate)
+                .description("False positive rate expected from the current fill of the filter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return false if the email is certainly not registered, true if it may be
+     */
+    public boolean mightContain(String email) {
+        if (!ready) {
+            return true;
+        }
+        long[] hashes = hashes(email);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = bitIndex(hashes, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                absentCounter.increment();
+                return false;
+            }
+        }
+        possiblyPresentCounter.increment();
+        return true;
+    }
+
+    public void put(String email) {
+        long[] hashes = hashes(email);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = bitIndex(hashes, i);
+            long mask = 1L << bit;
+            long previous = words.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+            if ((previous & mask) == 0) {
+                setBits.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Report that an email {@link #mightContain} accepted turned out not to be registered
+     */
+    public void recordFalsePositive() {
+        falsePositiveCounter.increment();
+    }
+
+    // Registered before the fill starts, so a user inserted while it runs is not missed
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        put(event.email());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        Long count = readOnlyTransaction.execute(status -> {
+            long loaded = 0;
+            try (Stream<String> emails = userRepository.streamAllEmails()) {
+                for (String email : (Iterable<String>) emails::iterator) {
+                    put(email);
+                    loaded++;
+                }
+            }
+            return loaded;
+        });
+        ready = true;
+        log.info("Loaded {} registered emails into the filter ({} KiB, {} hashes) in {} ms", count,
+                bitCount / 8 / 1024, hashCount, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    double expectedFalsePositiveRate() {
+        return Math.pow((double) setBits.get() / bitCount, hashCount);
+    }
+
+    private long bitIndex(long[] hashes, int i) {
+        return Math.floorMod(hashes[0] + i * hashes[1], bitCount);
+    }
+
+    // Two independent 64-bit hashes combined as h1 + i * h2 (Kirsch-Mitzenmacher)
+    private static long[] hashes(String email) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : email.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        long h1 = mix(hash);
+        long h2 = mix(h1 ^ 0x9e3779b97f4a7c15L) | 1;
+        return new long[]{h1, h2};
+    }
+
+    // MurmurHash3 finalizer, spreads FNV-1a's weak low bits
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("auth.email-filter.lookups")
+                .description("Registration email lookups answered by the filter")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,24 @@
+package com.apontaja.backend.service;
+
+import com.apontaja.backend.event.UserChangedEvent;
+import com.apontaja.backend.model.User;
+
+import java.util.Optional;
+
+public interface UserCacheService {
+
+    /**
+     * Find a user by email, reading through a bounded in-process cache
+     *
+     * @param email The email of the user
+     * @return The user, or empty if no user has this email
+     */
+    Optional<User> findByEmail(String email);
+
+    /**
+     * Drop every cached entry of a changed user
+     *
+     * @param event The change notification
+     */
+    void onUserChanged(UserChangedEvent event);
+}
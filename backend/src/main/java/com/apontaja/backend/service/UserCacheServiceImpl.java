@@ -0,0 +1,119 @@
+package com.apontaja.backend.service;
+
+import com.apontaja.backend.event.UserChangedEvent;
+import com.apontaja.backend.model.User;
+import com.apontaja.backend.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+public class UserCacheServiceImpl implements UserCacheService {
+
+    private static final String CACHE_NAME = "users.by-email";
+
+    private final UserRepository userRepository;
+    private final AccountStatusService accountStatusService;
+    private final Cache<String, User> usersByEmail;
+    // Cache key of each cached user, so a user whose email changed is evicted without a scan
+    private final Map<Long, String> cacheKeysById = new ConcurrentHashMap<>();
+    // Bumped by every change event. A load only caches its row if no change happened while it
+    // was querying; global because the id, and so the entry a change would evict, is not
+    // known until the row is loaded.
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public UserCacheServiceImpl(UserRepository userRepository,
+                                AccountStatusService accountStatusService,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.cache.users.ttl:5m}") Duration ttl,
+                                @Value("${app.cache.users.maximum-size:10000}") long maximumSize) {
+        this.userRepository = userRepository;
+        this.accountStatusService = accountStatusService;
+        this.usersByEmail = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                // Runs atomically with the eviction, before a later put of the same user
+                .evictionListener((String key, User user, RemovalCause cause) -> {
+                    if (user != null) {
+                        cacheKeysById.remove(user.getId(), key);
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByEmail, CACHE_NAME);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        String key = cacheKey(email);
+        User cached = usersByEmail.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        // Loaded outside Caffeine's compute, which holds a map lock and would pin a virtual
+        // thread to its carrier for the whole query. Unknown emails are not cached, so a
+        // freshly registered user is visible immediately.
+        long seen = invalidations.get();
+        Optional<User> user = userRepository.findByEmail(key);
+        user.ifPresent(found -> cacheIfUnchanged(key, found, seen));
+        return user;
+    }
+
+    /**
+     * Cache a loaded user unless a change event was handled since the load started.
+     * <p>
+     * The index entry is written before the counter is checked, and both happen under the
+     * entry's lock: an event either sees the index entry and its eviction waits for this put,
+     * or it bumped the counter first and the put is skipped.
+     *
+     * @param key The cache key the user was loaded with
+     * @param user The loaded user
+     * @param seen The invalidation counter read before the query
+     */
+    private void cacheIfUnchanged(String key, User user, long seen) {
+        usersByEmail.asMap().compute(key, (k, current) -> {
+            cacheKeysById.put(user.getId(), key);
+            if (invalidations.get() == seen) {
+                return user;
+            }
+            cacheKeysById.remove(user.getId(), key);
+            return current;
+        });
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        // Evicting after commit means a reader starting now sees the new row. A reader whose
+        // query started before is stopped from caching the old one by the counter; entries are
+        // also matched by id, in case the email itself was changed.
+        invalidations.incrementAndGet();
+        usersByEmail.invalidate(cacheKey(event.email()));
+        String previousKey = cacheKeysById.remove(event.userId());
+        if (previousKey != null) {
+            usersByEmail.invalidate(previousKey);
+        }
+        accountStatusService.invalidate(event.userId());
+        log.debug("Evicted cached user {}", event.userId());
+    }
+
+    // Lower-cased because the lookup itself is case-insensitive
+    private static String cacheKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
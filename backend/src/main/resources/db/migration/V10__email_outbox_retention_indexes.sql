@@ -0,0 +1,4 @@
+-- Sent and dead emails are deleted once past their retention window, oldest first. Each sweep
+-- only walks the rows of its own status, so pending rows stay out of both indexes.
+CREATE INDEX idx_email_outbox_sent_at ON email_outbox (sent_at) WHERE status = 'SENT';
+CREATE INDEX idx_email_outbox_dead_next_attempt ON email_outbox (next_attempt_at) WHERE status = 'DEAD';
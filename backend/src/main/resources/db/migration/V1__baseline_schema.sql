@@ -0,0 +1,21 @@
+-- Schema as previously created by Hibernate (ddl-auto: update).
+-- Databases that already have these tables are baselined at this version (baseline-on-migrate).
+
+CREATE TABLE IF NOT EXISTS users (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email       VARCHAR(255) NOT NULL UNIQUE,
+    password    VARCHAR(255) NOT NULL,
+    first_name  VARCHAR(255) NOT NULL,
+    last_name   VARCHAR(255) NOT NULL,
+    role        VARCHAR(255) NOT NULL CHECK (role IN ('USER', 'ADMIN', 'SALON_OWNER')),
+    enabled     BOOLEAN      NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+    updated_at  TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    token        VARCHAR(255)             NOT NULL UNIQUE,
+    user_id      BIGINT                   NOT NULL REFERENCES users (id),
+    expiry_date  TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,17 @@
+-- Transactional outbox drained by EmailOutboxDispatcher
+
+CREATE TABLE email_outbox (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    recipient        VARCHAR(255)                NOT NULL,
+    subject          VARCHAR(255)                NOT NULL,
+    body             VARCHAR(4000)               NOT NULL,
+    status           VARCHAR(16)                 NOT NULL CHECK (status IN ('PENDING', 'SENT', 'DEAD')),
+    attempts         INTEGER                     NOT NULL DEFAULT 0,
+    next_attempt_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    last_error       VARCHAR(1000),
+    created_at       TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    sent_at          TIMESTAMP(6) WITH TIME ZONE
+);
+
+-- The dispatcher only ever scans pending rows by due date
+CREATE INDEX idx_email_outbox_pending_due ON email_outbox (next_attempt_at) WHERE status = 'PENDING';
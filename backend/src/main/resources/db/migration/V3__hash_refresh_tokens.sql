@@ -0,0 +1,14 @@
+-- Store refresh tokens as a fixed-width SHA-256 digest instead of the raw value.
+-- Existing tokens stay valid: the application hashes the presented token the same way
+-- (SHA-256 of its UTF-8 bytes) before looking it up.
+
+ALTER TABLE refresh_tokens ADD COLUMN token_hash BYTEA;
+
+UPDATE refresh_tokens SET token_hash = sha256(convert_to(token, 'UTF8'));
+
+ALTER TABLE refresh_tokens ALTER COLUMN token_hash SET NOT NULL;
+
+-- Dropping the column also drops its unique text index
+ALTER TABLE refresh_tokens DROP COLUMN token;
+
+ALTER TABLE refresh_tokens ADD CONSTRAINT uk_refresh_tokens_token_hash UNIQUE (token_hash);
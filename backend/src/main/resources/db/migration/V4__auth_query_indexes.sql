@@ -0,0 +1,11 @@
+-- Indexes backing the authentication queries (checked by RepositoryQueryPlanTest)
+
+-- findByEmail / existsByEmail compare lower(email); this also makes emails unique regardless of case.
+-- Fails if existing rows differ only by case, which must then be merged by hand first.
+CREATE UNIQUE INDEX ux_users_email_lower ON users (lower(email));
+
+-- deleteByUser on every login, and the foreign key check when a user is deleted
+CREATE INDEX idx_refresh_tokens_user_id ON refresh_tokens (user_id);
+
+-- Expired token sweeps
+CREATE INDEX idx_refresh_tokens_expiry_date ON refresh_tokens (expiry_date);
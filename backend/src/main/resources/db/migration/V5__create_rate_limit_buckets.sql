@@ -0,0 +1,11 @@
+-- Token buckets shared by replicas when app.security.rate-limit.store=jdbc (JdbcTokenBucketStore)
+
+-- UNLOGGED: written on every login attempt, and losing the buckets in a crash only resets the limits
+CREATE UNLOGGED TABLE rate_limit_buckets (
+    bucket_key  VARCHAR(320)                NOT NULL PRIMARY KEY,
+    tokens      DOUBLE PRECISION            NOT NULL,
+    updated_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+-- Eviction of idle buckets
+CREATE INDEX idx_rate_limit_buckets_updated_at ON rate_limit_buckets (updated_at);
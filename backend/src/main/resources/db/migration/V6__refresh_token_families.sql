@@ -0,0 +1,15 @@
+-- Rotating refresh tokens. Every login starts a family; each refresh marks the presented token
+-- as rotated and issues its successor in the same family. A rotated token presented again
+-- means it was replayed, and the whole family is deleted.
+
+-- Existing tokens each become a family of their own
+ALTER TABLE refresh_tokens ADD COLUMN family_id UUID;
+
+UPDATE refresh_tokens SET family_id = gen_random_uuid();
+
+ALTER TABLE refresh_tokens ALTER COLUMN family_id SET NOT NULL;
+
+ALTER TABLE refresh_tokens ADD COLUMN rotated_at TIMESTAMP(6) WITH TIME ZONE;
+
+-- Family revocation on reuse
+CREATE INDEX idx_refresh_tokens_family_id ON refresh_tokens (family_id);
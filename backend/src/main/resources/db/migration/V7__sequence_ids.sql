@@ -0,0 +1,17 @@
+-- Ids come from sequences (allocationSize 50) instead of identity columns, so Hibernate
+-- assigns them in memory and can batch inserts instead of running each one immediately
+-- to read back the generated id.
+--
+-- Hibernate's pooled optimizer hands out the 50 ids up to each value it reads, so the
+-- sequences start 50 past the current maximum. The column defaults keep plain SQL inserts
+-- (the refresh token rotation statement) working: each one uses up a whole block.
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE users_seq INCREMENT BY 50 OWNED BY users.id;
+SELECT setval('users_seq', COALESCE(MAX(id), 0) + 50, false) FROM users;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+
+ALTER TABLE refresh_tokens ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE refresh_tokens_seq INCREMENT BY 50 OWNED BY refresh_tokens.id;
+SELECT setval('refresh_tokens_seq', COALESCE(MAX(id), 0) + 50, false) FROM refresh_tokens;
+ALTER TABLE refresh_tokens ALTER COLUMN id SET DEFAULT nextval('refresh_tokens_seq');
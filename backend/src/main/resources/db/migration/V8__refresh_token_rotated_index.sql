@@ -0,0 +1,3 @@
+-- Rotated refresh tokens are deleted once past the reuse-detection window. Only rotated rows
+-- are indexed: live tokens, the bulk of lookups, never match the sweep.
+CREATE INDEX idx_refresh_tokens_rotated_at ON refresh_tokens (rotated_at) WHERE rotated_at IS NOT NULL;
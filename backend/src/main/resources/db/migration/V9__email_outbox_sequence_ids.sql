@@ -0,0 +1,7 @@
+-- Same change as V7 for the outbox: an identity column made Hibernate insert each message
+-- as soon as it was persisted, so the registration transaction could not batch its inserts.
+
+ALTER TABLE email_outbox ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE email_outbox_seq INCREMENT BY 50 OWNED BY email_outbox.id;
+SELECT setval('email_outbox_seq', COALESCE(MAX(id), 0) + 50, false) FROM email_outbox;
+ALTER TABLE email_outbox ALTER COLUMN id SET DEFAULT nextval('email_outbox_seq');
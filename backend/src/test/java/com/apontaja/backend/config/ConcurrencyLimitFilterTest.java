@@ -0,0 +1,94 @@
+package com.apontaja.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new ConcurrencyLimitFilter(new ObjectMapper().registerModule(new JavaTimeModule()),
+                meterRegistry, 1, Duration.ofMillis(20), 1);
+    }
+
+    @Test
+    void doFilter_UnderLimit_ShouldPassRequestThroughAndReleasePermit() throws Exception {
+        // Given
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/auth/login"), new MockHttpServletResponse(), chain);
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/auth/login"), second, new MockFilterChain());
+
+        // Then
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(second.getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get("http.server.requests.in-flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void doFilter_WhenSaturated_ShouldRejectWith503AndRetryAfter() throws Exception {
+        // Given
+        CountDownLatch inChain = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blockingChain = (request, response) -> {
+            inChain.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        Thread inFlight = Thread.ofVirtual().start(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest("GET", "/api/users/me"),
+                        new MockHttpServletResponse(), blockingChain);
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        assertThat(inChain.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/auth/login"), rejected, chain);
+        release.countDown();
+        inFlight.join();
+
+        // Then
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(rejected.getContentAsString()).contains("Server is busy");
+        assertThat(chain.getRequest()).isNull();
+        assertThat(meterRegistry.get("http.server.requests.rejected").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void doFilter_ActuatorRequest_ShouldBypassLimit() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/health");
+
+        // When & Then
+        assertThat(filter.shouldNotFilter(request)).isTrue();
+    }
+}
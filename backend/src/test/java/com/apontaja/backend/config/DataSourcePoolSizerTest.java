@@ -0,0 +1,61 @@
+package com.apontaja.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DataSourcePoolSizerTest {
+
+    @Test
+    void poolSize_WithPlentyOfConnections_ShouldUseTwoConnectionsPerCorePlusOne() {
+        // Given
+        DataSourcePoolSizer sizer = new DataSourcePoolSizer(4, 100, 10, 1);
+
+        // When & Then
+        assertThat(sizer.poolSize()).isEqualTo(9);
+    }
+
+    @Test
+    void poolSize_WithManyReplicas_ShouldStayWithinTheirShareOfMaxConnections() {
+        // Given
+        DataSourcePoolSizer sizer = new DataSourcePoolSizer(16, 100, 10, 6);
+
+        // When & Then
+        assertThat(sizer.poolSize()).isEqualTo(15);
+    }
+
+    @Test
+    void poolSize_WhenConnectionsAreExhausted_ShouldKeepOneConnection() {
+        // Given
+        DataSourcePoolSizer sizer = new DataSourcePoolSizer(4, 10, 10, 2);
+
+        // When & Then
+        assertThat(sizer.poolSize()).isEqualTo(1);
+    }
+
+    @Test
+    void postProcessAfterInitialization_WithHikariDataSource_ShouldFixPoolSize() {
+        // Given
+        DataSourcePoolSizer sizer = new DataSourcePoolSizer(2, 100, 10, 1);
+        HikariDataSource dataSource = new HikariDataSource();
+
+        // When
+        Object result = sizer.postProcessAfterInitialization(dataSource, "dataSource");
+
+        // Then
+        assertThat(result).isSameAs(dataSource);
+        assertThat(dataSource.getMaximumPoolSize()).isEqualTo(5);
+        assertThat(dataSource.getMinimumIdle()).isEqualTo(5);
+    }
+
+    @Test
+    void postProcessAfterInitialization_WithOtherBean_ShouldLeaveItUntouched() {
+        // Given
+        DataSourcePoolSizer sizer = new DataSourcePoolSizer(2, 100, 10, 1);
+        Object bean = new Object();
+
+        // When & Then
+        assertThat(sizer.postProcessAfterInitialization(bean, "other")).isSameAs(bean);
+    }
+}
@@ -0,0 +1,62 @@
+package com.apontaja.backend.config;
+
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.info.Info;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JvmInfoContributorTest {
+
+    private final JvmInfoContributor contributor = new JvmInfoContributor();
+
+    @Test
+    void contribute_ShouldReportMemoryFlagsAndCollectors() {
+        // When
+        Map<String, Object> jvm = contribute();
+
+        // Then
+        assertThat((Long) jvm.get("memory")).isPositive();
+        assertThat((List<?>) jvm.get("garbageCollectors")).isNotEmpty();
+        Map<String, Object> flags = map(jvm.get("flags"));
+        assertThat(flags).containsKeys("MaxMetaspaceSize", "MaxDirectMemorySize", "ThreadStackSize", "UseG1GC");
+        // The heap Java code can use excludes one survivor space
+        assertThat(Long.parseLong((String) flags.get("MaxHeapSize"))).isGreaterThanOrEqualTo(Runtime.getRuntime().maxMemory());
+    }
+
+    @Test
+    void contribute_WithRecordingInProgress_ShouldDescribeIt() {
+        // Given
+        try (Recording recording = new Recording()) {
+            recording.setName("continuous-test");
+            recording.setMaxAge(Duration.ofHours(6));
+            recording.setToDisk(true);
+            recording.start();
+
+            // When
+            List<?> recordings = (List<?>) contribute().get("flightRecordings");
+
+            // Then
+            assertThat(recordings).anySatisfy(details -> assertThat(map(details))
+                    .containsEntry("name", "continuous-test")
+                    .containsEntry("state", "RUNNING")
+                    .containsEntry("toDisk", true)
+                    .containsEntry("maxAge", "PT6H"));
+        }
+    }
+
+    private Map<String, Object> contribute() {
+        Info.Builder builder = new Info.Builder();
+        contributor.contribute(builder);
+        return map(builder.build().getDetails().get("jvm"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> map(Object value) {
+        return (Map<String, Object>) value;
+    }
+}
@@ -0,0 +1,73 @@
+package com.apontaja.backend.config.profiling;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.EndpointId;
+import org.springframework.boot.actuate.endpoint.web.PathMappedEndpoints;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the prod profile on an embedded PostgreSQL and checks which actuator endpoints it
+ * exposes over HTTP, since application-prod.yml replaces the exposure list of application.yml.
+ */
+@SpringBootTest(properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=2525",
+        "spring.mail.username=",
+        "spring.mail.password=",
+        "jwt.keys.path=",
+        "jwt.expiration=900000"
+})
+@ActiveProfiles("prod")
+// Metrics export is off in tests otherwise, and with it the prometheus endpoint
+@AutoConfigureObservability
+@DirtiesContext
+class FlightRecordingEndpointProdProfileTest {
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    @Autowired
+    private PathMappedEndpoints pathMappedEndpoints;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        POSTGRES.close();
+    }
+
+    @Test
+    void prodProfile_ShouldExposeFlightRecordingAlongsideMonitoringEndpoints() {
+        // When
+        var exposed = pathMappedEndpoints.getAllRootPaths();
+
+        // Then
+        assertThat(exposed).containsExactlyInAnyOrder("health", "info", "prometheus", "flightrecording");
+        assertThat(pathMappedEndpoints.getPath(EndpointId.of("flightrecording"))).isEqualTo("/actuator/flightrecording");
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.apontaja.backend.config.profiling;
+
+import com.apontaja.backend.model.Role;
+import com.apontaja.backend.model.User;
+import com.apontaja.backend.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the authentication endpoints under a flight recording named like the one of
+ * {@code scripts/jvm-entrypoint.sh}, with every event of the backend enabled, and reads it back
+ * through {@code /actuator/flightrecording}.
+ */
+@SpringBootTest(properties = {
+        "app.profiling.recording-name=" + FlightRecordingEndpointTest.RECORDING_NAME,
+        "app.security.rate-limit.enabled=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FlightRecordingEndpointTest {
+
+    static final String RECORDING_NAME = "continuous-endpoint-test";
+    private static final String PASSWORD = "Password123!";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @TempDir
+    Path directory;
+
+    private Recording recording;
+    private String email;
+
+    @BeforeEach
+    void setUp() {
+        recording = new Recording();
+        recording.setName(RECORDING_NAME);
+        recording.setToDisk(true);
+        for (String event : List.of("com.apontaja.Jwt", "com.apontaja.PasswordHash",
+                "com.apontaja.RepositoryCall", "com.apontaja.Mail")) {
+            recording.enable(event).withThreshold(Duration.ZERO);
+        }
+        recording.start();
+        email = "profile-" + UUID.randomUUID() + "@example.com";
+    }
+
+    @AfterEach
+    void tearDown() {
+        recording.close();
+    }
+
+    @Test
+    void dump_AsAdmin_ShouldReturnHotPathEventsOfTheLastMinutes() throws Exception {
+        // Given
+        String accessToken = adminAccessToken();
+
+        // When
+        byte[] dump = mockMvc.perform(get("/actuator/flightrecording").param("minutes", "5")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        Path file = Files.write(directory.resolve("dump.jfr"), dump);
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertThat(events).anySatisfy(event -> {
+            assertThat(event.getEventType().getName()).isEqualTo("com.apontaja.PasswordHash");
+            assertThat(event.getString("operation")).isEqualTo("matches");
+        });
+        assertThat(events).anySatisfy(event -> {
+            assertThat(event.getEventType().getName()).isEqualTo("com.apontaja.Jwt");
+            assertThat(event.getString("operation")).isEqualTo("verify");
+            assertThat(event.getBoolean("valid")).isTrue();
+        });
+        assertThat(events).anySatisfy(event -> {
+            assertThat(event.getEventType().getName()).isEqualTo("com.apontaja.RepositoryCall");
+            assertThat(event.getString("repository")).isEqualTo("UserRepository");
+        });
+        assertThat(events).anySatisfy(event -> {
+            assertThat(event.getEventType().getName()).isEqualTo("com.apontaja.Mail");
+            assertThat(event.getString("operation")).isEqualTo("sendRegistrationVerificationEmail");
+        });
+    }
+
+    @Test
+    void dump_AsUser_ShouldBeForbidden() throws Exception {
+        // Given
+        String accessToken = register();
+
+        // When / Then
+        mockMvc.perform(get("/actuator/flightrecording").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/flightrecording"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void dump_WithWindowOutOfRange_ShouldBeRejected() throws Exception {
+        // Given
+        String accessToken = adminAccessToken();
+
+        // When / Then
+        mockMvc.perform(get("/actuator/flightrecording").param("minutes", "0")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/actuator/flightrecording").param("minutes", "100000")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void dump_WithoutTheRecording_ShouldReturnNotFound() throws Exception {
+        // Given
+        String accessToken = adminAccessToken();
+        recording.close();
+
+        // When / Then
+        mockMvc.perform(get("/actuator/flightrecording").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isNotFound());
+    }
+
+    private String register() throws Exception {
+        String response = mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD
+                                + "\",\"firstName\":\"John\",\"lastName\":\"Doe\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("accessToken").asText();
+    }
+
+    // The role is carried by the access token, so the admin logs in again after the promotion
+    private String adminAccessToken() throws Exception {
+        register();
+        User user = userRepository.findByEmail(email).orElseThrow();
+        user.setRole(Role.ADMIN);
+        userRepository.save(user);
+        String response = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("accessToken").asText();
+    }
+}
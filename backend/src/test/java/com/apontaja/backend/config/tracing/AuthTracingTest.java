@@ -0,0 +1,179 @@
+package com.apontaja.backend.config.tracing;
+
+import com.apontaja.backend.service.EmailOutboxDispatcher;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks the spans recorded for the authentication endpoints, with every trace sampled and
+ * exported to memory.
+ */
+@SpringBootTest(properties = {
+        "management.tracing.sampling.probability=1.0",
+        "app.security.rate-limit.enabled=false"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(metrics = false)
+@ActiveProfiles("test")
+@Import(AuthTracingTest.InMemoryExporterConfig.class)
+@DisabledInAotMode
+class AuthTracingTest {
+
+    private static final String PASSWORD = "Password123!";
+    // Spans per login: request, security filter chain, authentication, hashing and a few queries
+    private static final int MAX_SPANS_PER_LOGIN = 20;
+    private static final long MAX_NANOS_PER_SPAN = 50_000;
+
+    @TestConfiguration
+    static class InMemoryExporterConfig {
+
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InMemorySpanExporter exporter;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Autowired
+    private Tracing tracing;
+
+    // Its scheduled runs would add traces of their own
+    @MockBean
+    private EmailOutboxDispatcher emailOutboxDispatcher;
+
+    private String email;
+    private String accessToken;
+    private String refreshToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        email = "trace-" + UUID.randomUUID() + "@example.com";
+        JsonNode registered = call(post("/api/auth/register"), "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD
+                + "\",\"firstName\":\"John\",\"lastName\":\"Doe\"}", 200);
+        accessToken = registered.get("accessToken").asText();
+        refreshToken = registered.get("refreshToken").asText();
+        finishedSpans();
+        exporter.reset();
+    }
+
+    @Test
+    void login_ShouldRecordEachStageUnderTheRequestSpan() throws Exception {
+        // When
+        call(post("/api/auth/login"), "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}", 200);
+
+        // Then
+        List<SpanData> trace = traceOf("http post /api/auth/login");
+        assertThat(names(trace)).contains(
+                "password matches",
+                "RefreshTokenRepository.deleteByUser",
+                "RefreshTokenRepository.save");
+        assertThat(trace).hasSizeLessThanOrEqualTo(MAX_SPANS_PER_LOGIN);
+        assertSingleTree(trace);
+    }
+
+    @Test
+    void requestWithAccessToken_ShouldRecordJwtAuthenticationSpan() throws Exception {
+        // When
+        call(post("/api/auth/logout").header("Authorization", "Bearer " + accessToken),
+                "{\"refreshToken\":\"" + refreshToken + "\"}", 204);
+
+        // Then
+        List<SpanData> trace = traceOf("http post /api/auth/logout");
+        SpanData jwt = trace.stream().filter(span -> span.getName().equals("jwt authenticate")).findFirst().orElseThrow();
+        assertThat(jwt.getAttributes().get(AttributeKey.stringKey("outcome"))).isEqualTo("authenticated");
+        assertThat(names(trace)).contains("RefreshTokenRepository.deleteFamilyByTokenHash");
+        assertSingleTree(trace);
+    }
+
+    @Test
+    void inSpan_ShouldStayWithinOverheadBudget() {
+        // Given
+        int spans = 20_000;
+        for (int i = 0; i < spans; i++) {
+            tracing.inSpan("warm-up", span -> null);
+        }
+
+        // When
+        long start = System.nanoTime();
+        for (int i = 0; i < spans; i++) {
+            tracing.inSpan("measured", span -> null);
+        }
+        long nanosPerSpan = (System.nanoTime() - start) / spans;
+
+        // Then: recorded and exported spans, which is the worst case (sampling drops most of them)
+        assertThat(nanosPerSpan).isLessThan(MAX_NANOS_PER_SPAN);
+    }
+
+    private JsonNode call(MockHttpServletRequestBuilder request, String body, int expectedStatus) throws Exception {
+        String response = mockMvc.perform(request.contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().is(expectedStatus))
+                .andReturn().getResponse().getContentAsString();
+        return response.isEmpty() ? null : objectMapper.readTree(response);
+    }
+
+    private List<SpanData> finishedSpans() {
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+        return exporter.getFinishedSpanItems();
+    }
+
+    private List<SpanData> traceOf(String requestSpanName) {
+        List<SpanData> spans = finishedSpans();
+        SpanData request = spans.stream()
+                .filter(span -> span.getName().equals(requestSpanName))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No span " + requestSpanName + " in " + names(spans)));
+        return spans.stream().filter(span -> span.getTraceId().equals(request.getTraceId())).toList();
+    }
+
+    // One root, and every other span's parent is in the same trace
+    private static void assertSingleTree(List<SpanData> trace) {
+        Set<String> ids = trace.stream().map(SpanData::getSpanId).collect(Collectors.toSet());
+        assertThat(trace.stream().filter(span -> !span.getParentSpanContext().isValid())).hasSize(1);
+        assertThat(trace.stream().filter(span -> span.getParentSpanContext().isValid()))
+                .allSatisfy(span -> assertThat(ids).contains(span.getParentSpanId()));
+    }
+
+    private static List<String> names(List<SpanData> spans) {
+        return spans.stream().map(SpanData::getName).toList();
+    }
+}
@@ -4,25 +4,35 @@ import com.apontaja.backend.dto.AuthResponse;
 import com.apontaja.backend.dto.LoginRequest;
 import com.apontaja.backend.dto.RefreshTokenRequest;
 import com.apontaja.backend.dto.RegisterRequest;
+import com.apontaja.backend.service.AuthMetrics;
 import com.apontaja.backend.service.AuthenticationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfiguration;
+import org.springframework.test.context.aot.DisabledInAotMode;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.apontaja.backend.security.jwt.JwtTokenProvider;
 import com.apontaja.backend.security.jwt.JwtAuthenticationFilter;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -35,14 +45,28 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
         },
         excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = WebSecurityConfiguration.class))
 @AutoConfigureMockMvc(addFilters = false)
+@Import({AuthMetrics.class, AuthControllerTest.MetricsConfig.class})
+@DisabledInAotMode
 class AuthControllerTest {
 
+    @TestConfiguration
+    static class MetricsConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
     @Autowired
     private MockMvc mockMvc;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @MockBean
     private AuthenticationService authenticationService;
 
@@ -117,6 +141,39 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.expiresIn").value(3600));
 
         verify(authenticationService).login(any(LoginRequest.class));
+        assertThat(meterRegistry.get("auth.requests").tags("operation", "login", "outcome", "success").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void login_WithBadCredentials_ShouldCountOutcome() throws Exception {
+        // Given
+        when(authenticationService.login(any(LoginRequest.class))).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        // When & Then
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isUnauthorized());
+
+        assertThat(meterRegistry.get("auth.outcomes").tags("operation", "login", "outcome", "bad_credentials").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void register_WithInvalidRequest_ShouldCountValidationError() throws Exception {
+        // Given
+        registerRequest.setEmail("not-an-email");
+
+        // When & Then
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(registerRequest)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(authenticationService);
+        assertThat(meterRegistry.get("auth.outcomes").tags("operation", "register", "outcome", "validation_error").counter().count())
+                .isEqualTo(1);
     }
 
     @Test
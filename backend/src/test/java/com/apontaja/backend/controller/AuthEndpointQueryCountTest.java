@@ -0,0 +1,142 @@
+package com.apontaja.backend.controller;
+
+import com.apontaja.backend.service.EmailOutboxDispatcher;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each authentication endpoint issues, so an accidental
+ * eager association or extra lookup fails the build instead of slowing every request.
+ * Counted with Hibernate statistics on H2, where the refresh rotation takes its JPA path.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        "app.security.rate-limit.enabled=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisabledInAotMode
+class AuthEndpointQueryCountTest {
+
+    private static final String PASSWORD = "Password123!";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Polls the outbox on its own schedule, which would add to the counts
+    @MockBean
+    private EmailOutboxDispatcher emailOutboxDispatcher;
+
+    private Statistics statistics;
+    private String email;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Ids come from sequences in blocks of 50. The pooled optimizer's first value (the
+        // sequence's start) only covers one id, so two registrations reach a full block and the
+        // measured requests never include a sequence call
+        for (int i = 0; i < 2; i++) {
+            email = "warm-up-" + UUID.randomUUID() + "@example.com";
+            register();
+        }
+        email = "count-" + UUID.randomUUID() + "@example.com";
+    }
+
+    @Test
+    void register_ShouldInsertUserEmailAndTokenOnly() throws Exception {
+        // When
+        long statements = countStatements(() -> register());
+
+        // Then: user, outbox email and refresh token inserts; the email filter skips the existence query
+        assertThat(statements).isEqualTo(3);
+    }
+
+    @Test
+    void login_ShouldLoadUserAndReplaceTokens() throws Exception {
+        // Given
+        register();
+
+        // When
+        long statements = countStatements(() -> call("/api/auth/login",
+                "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}", 200));
+
+        // Then: user lookup, delete of the previous tokens, insert of the new one
+        assertThat(statements).isEqualTo(3);
+    }
+
+    @Test
+    void refresh_ShouldRotateWithoutSeparateUserLoad() throws Exception {
+        // Given
+        String refreshToken = register().get("refreshToken").asText();
+
+        // When
+        long statements = countStatements(() -> call("/api/auth/refresh",
+                "{\"refreshToken\":\"" + refreshToken + "\"}", 200));
+
+        // Then: conditional update, token fetched with its user, insert of the successor
+        assertThat(statements).isEqualTo(3);
+    }
+
+    @Test
+    void logout_ShouldIssueSingleDelete() throws Exception {
+        // Given
+        String refreshToken = register().get("refreshToken").asText();
+
+        // When
+        long statements = countStatements(() -> call("/api/auth/logout",
+                "{\"refreshToken\":\"" + refreshToken + "\"}", 204));
+
+        // Then
+        assertThat(statements).isEqualTo(1);
+    }
+
+    private JsonNode register() throws Exception {
+        return call("/api/auth/register", "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD
+                + "\",\"firstName\":\"John\",\"lastName\":\"Doe\"}", 200);
+    }
+
+    private JsonNode call(String path, String body, int expectedStatus) throws Exception {
+        String response = mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().is(expectedStatus))
+                .andReturn().getResponse().getContentAsString();
+        return response.isEmpty() ? null : objectMapper.readTree(response);
+    }
+
+    private long countStatements(ThrowingRunnable request) throws Exception {
+        statistics.clear();
+        request.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,157 @@
+package com.apontaja.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Register, login, refresh and logout over HTTP, through the real services, repositories and
+ * JWT keys. Tagged {@code native}: without mocks it also runs as a native image
+ * ({@code mvn -PnativeTest test}), where the Mockito-based controller and service tests can't.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.security.rate-limit.enabled=false",
+        // No SMTP server: keep the outbox from retrying in the background
+        "app.mail.outbox.poll-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+@Tag("native")
+class AuthFlowIntegrationTest {
+
+    private static final String PASSWORD = "Password123!";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String email;
+
+    @BeforeEach
+    void setUp() {
+        email = "flow-" + UUID.randomUUID() + "@example.com";
+    }
+
+    @Test
+    void register_ThenLogin_ShouldIssueTokensAcceptedOnProtectedEndpoints() throws Exception {
+        // Given
+        register();
+
+        // When
+        ResponseEntity<String> login = post("/api/auth/login", credentials());
+        String accessToken = json(login).get("accessToken").asText();
+
+        // Then
+        assertThat(login.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(get("/v3/api-docs", accessToken).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(get("/v3/api-docs", accessToken + "x").getStatusCode()).isNotEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void login_WithWrongPassword_ShouldReturnUnauthorized() throws Exception {
+        // Given
+        register();
+
+        // When
+        ResponseEntity<String> response = post("/api/auth/login",
+                "{\"email\":\"" + email + "\",\"password\":\"wrong-password\"}");
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void refresh_ShouldRotateAndRejectTheConsumedToken() throws Exception {
+        // Given
+        String refreshToken = json(register()).get("refreshToken").asText();
+
+        // When
+        ResponseEntity<String> refreshed = post("/api/auth/refresh", refreshTokenBody(refreshToken));
+        ResponseEntity<String> reused = post("/api/auth/refresh", refreshTokenBody(refreshToken));
+
+        // Then
+        assertThat(refreshed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(json(refreshed).get("refreshToken").asText()).isNotEqualTo(refreshToken);
+        assertThat(reused.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void logout_ShouldRevokeTheRefreshToken() throws Exception {
+        // Given
+        String refreshToken = json(register()).get("refreshToken").asText();
+
+        // When
+        ResponseEntity<String> logout = post("/api/auth/logout", refreshTokenBody(refreshToken));
+
+        // Then
+        assertThat(logout.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(post("/api/auth/refresh", refreshTokenBody(refreshToken)).getStatusCode())
+                .isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void jwks_ShouldPublishTheKeyThatSignedTheAccessToken() throws Exception {
+        // Given
+        String accessToken = json(register()).get("accessToken").asText();
+        JsonNode header = objectMapper.readTree(Base64.getUrlDecoder()
+                .decode(accessToken.substring(0, accessToken.indexOf('.'))));
+
+        // When
+        ResponseEntity<String> jwks = restTemplate.getForEntity("/.well-known/jwks.json", String.class);
+
+        // Then
+        assertThat(jwks.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(json(jwks).get("keys").findValuesAsText("kid")).contains(header.get("kid").asText());
+    }
+
+    private ResponseEntity<String> register() {
+        ResponseEntity<String> response = post("/api/auth/register", "{\"email\":\"" + email + "\",\"password\":\""
+                + PASSWORD + "\",\"firstName\":\"John\",\"lastName\":\"Doe\"}");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response;
+    }
+
+    private String credentials() {
+        return "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}";
+    }
+
+    private static String refreshTokenBody(String refreshToken) {
+        return "{\"refreshToken\":\"" + refreshToken + "\"}";
+    }
+
+    private ResponseEntity<String> post(String path, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return restTemplate.postForEntity(path, new HttpEntity<>(body.getBytes(StandardCharsets.UTF_8), headers),
+                String.class);
+    }
+
+    private ResponseEntity<String> get(String path, String accessToken) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(accessToken);
+        return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private JsonNode json(ResponseEntity<String> response) throws Exception {
+        return objectMapper.readTree(response.getBody());
+    }
+}
@@ -0,0 +1,100 @@
+package com.apontaja.backend.controller;
+
+import com.apontaja.backend.security.jwt.JwtAuthenticationFilter;
+import com.apontaja.backend.security.jwt.JwtKeyRing;
+import com.apontaja.backend.service.AuthMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityConfiguration;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = JwksController.class,
+        excludeAutoConfiguration = {
+                org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration.class,
+                org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration.class
+        },
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = WebSecurityConfiguration.class))
+@AutoConfigureMockMvc(addFilters = false)
+@DisabledInAotMode
+class JwksControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private JwtKeyRing keyRing;
+
+    @MockBean
+    private AuthMetrics authMetrics;
+
+    @MockBean
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    private JwtKeyRing.KeySet keySet;
+
+    @BeforeEach
+    void setUp() {
+        // Without a key directory the ring generates a key, which is all these tests need
+        keySet = new JwtKeyRing("", Duration.ZERO).current();
+        when(keyRing.current()).thenReturn(keySet);
+    }
+
+    @Test
+    void jwks_ShouldPublishPublicKeysWithCachingHeaders() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/jwk-set+json"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300, public"))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.keys[0].kid").value(keySet.active().kid()))
+                .andExpect(jsonPath("$.keys[0].kty").value("EC"))
+                .andExpect(jsonPath("$.keys[0].alg").value("ES256"))
+                .andExpect(jsonPath("$.keys[0].d").doesNotExist());
+    }
+
+    @Test
+    void jwks_WithCurrentETag_ShouldReturnNotModified() throws Exception {
+        // Given
+        String etag = mockMvc.perform(get("/.well-known/jwks.json"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When & Then
+        mockMvc.perform(get("/.well-known/jwks.json").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300, public"))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void jwks_AfterRotation_ShouldChangeETag() throws Exception {
+        // Given
+        String before = mockMvc.perform(get("/.well-known/jwks.json"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When
+        when(keyRing.current()).thenReturn(new JwtKeyRing("", Duration.ZERO).current());
+
+        // Then
+        mockMvc.perform(get("/.well-known/jwks.json").header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk());
+        String after = mockMvc.perform(get("/.well-known/jwks.json"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(after).isNotEqualTo(before);
+    }
+}
@@ -0,0 +1,61 @@
+package com.apontaja.backend.loadtest;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Replays a scenario against the backend on PostgreSQL and compares the report with the
+ * scenario's baseline. Tagged {@code loadtest}, so only the loadtest profile runs it:
+ * <pre>
+ * mvn -Ploadtest test                                               # loadtest/auth-mix.yml
+ * mvn -Ploadtest test -Dloadtest.scenario=path/to/scenario.yml
+ * mvn -Ploadtest test -Dloadtest.update-baseline=true               # record the baseline
+ * </pre>
+ * Baselines are only comparable on the machine they were recorded on.
+ */
+@Tag("loadtest")
+class AuthLoadTest {
+
+    private static final Path REPORT_DIR = Path.of("target", "loadtest");
+
+    @Test
+    void scenario_ShouldNotRegressAgainstBaseline() throws Exception {
+        // Given
+        LoadScenario scenario = LoadScenario.load(System.getProperty("loadtest.scenario", "loadtest/auth-mix.yml"));
+        Path baselineFile = Path.of(System.getProperty("loadtest.baseline-dir", "src/test/resources/loadtest/baselines"))
+                .resolve(scenario.name() + ".json");
+
+        // When
+        LoadReport report;
+        int mailsDelivered;
+        try (LoadTestEnvironment environment = LoadTestEnvironment.start(scenario)) {
+            report = new LoadTestRunner(scenario, environment.baseUrl()).run();
+            mailsDelivered = environment.smtp().messages();
+        }
+        System.out.println(report.format());
+        report.write(REPORT_DIR.resolve(scenario.name() + ".json"));
+
+        // Then
+        assertThat(report.operations()).isNotEmpty();
+        assertThat(mailsDelivered).as("mails delivered through the outbox").isPositive();
+        report.operations().forEach((operation, stats) -> assertThat(stats.errorRate())
+                .as("%s error rate, statuses %s", operation, stats.statuses())
+                .isLessThanOrEqualTo(scenario.maxErrorRate()));
+
+        if (Boolean.getBoolean("loadtest.update-baseline")) {
+            report.write(baselineFile);
+            System.out.println("Baseline written to " + baselineFile);
+        } else if (Files.exists(baselineFile)) {
+            List<String> regressions = report.regressionsAgainst(LoadReport.read(baselineFile), scenario.tolerance());
+            assertThat(regressions).as("regressions against %s", baselineFile).isEmpty();
+        } else {
+            System.out.println("No baseline at " + baselineFile + ", record one with -Dloadtest.update-baseline=true");
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.apontaja.backend.loadtest;
+
+import com.apontaja.backend.BackendApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The backend in a JVM of its own, started through {@code scripts/jvm-entrypoint.sh} as in the
+ * image, so that its resident memory can be measured. Runs the prod profile from the test
+ * classpath, on the embedded PostgreSQL and {@link SmtpStub} of the calling test.
+ */
+final class ForkedBackend implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final Process process;
+    private final int port;
+    private final int managementPort;
+    private final Path log;
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    private ForkedBackend(Process process, int port, int managementPort, Path log) {
+        this.process = process;
+        this.port = port;
+        this.managementPort = managementPort;
+        this.log = log;
+    }
+
+    /**
+     * Start the backend and wait until its health endpoint answers.
+     *
+     * @param memoryLimitMb Container memory limit the entrypoint sizes the JVM for
+     * @param workDir       Receives the log and the JFR repository
+     */
+    static ForkedBackend start(EmbeddedPostgres postgres, SmtpStub smtp, LoadScenario scenario,
+                               int memoryLimitMb, Path workDir) throws IOException, InterruptedException {
+        Files.createDirectories(workDir);
+        int port = freePort();
+        int managementPort = freePort();
+        List<String> command = new ArrayList<>(List.of("sh", "scripts/jvm-entrypoint.sh",
+                "-cp", System.getProperty("java.class.path"),
+                "-Dspring.profiles.active=prod",
+                BackendApplication.class.getName()));
+        command.addAll(LoadTestEnvironment.arguments(postgres, smtp, scenario, port, managementPort));
+
+        Path log = workDir.resolve("backend.log");
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile());
+        builder.environment().put("JAVA_HOME", System.getProperty("java.home"));
+        builder.environment().put("JVM_MEMORY_LIMIT_MB", Integer.toString(memoryLimitMb));
+        builder.environment().put("JFR_DIR", workDir.resolve("jfr").toAbsolutePath().toString());
+
+        ForkedBackend backend = new ForkedBackend(builder.start(), port, managementPort, log);
+        backend.awaitHealthy();
+        return backend;
+    }
+
+    URI baseUrl() {
+        return URI.create("http://localhost:" + port);
+    }
+
+    /**
+     * Resident set size of the JVM, read from {@code /proc}. The entrypoint execs the JVM, so
+     * the process started is the JVM itself.
+     */
+    long rssBytes() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", Long.toString(process.pid()), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+                }
+            }
+            return 0;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * The {@code /actuator/info} document, with the effective JVM settings under {@code jvm}.
+     */
+    JsonNode info() throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(management("/actuator/info"), HttpResponse.BodyHandlers.ofString());
+        return new ObjectMapper().readTree(response.body());
+    }
+
+    private void awaitHealthy() throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Backend exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (http.send(management("/actuator/health"), HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException ex) {
+                // Not listening yet
+            }
+            Thread.sleep(500);
+        }
+        close();
+        throw new IllegalStateException("Backend not healthy after " + STARTUP_TIMEOUT + ", see " + log);
+    }
+
+    private HttpRequest management(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + managementPort + path))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    // SIGTERM, so the JVM shuts down gracefully and JFR dumps its recording
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+}
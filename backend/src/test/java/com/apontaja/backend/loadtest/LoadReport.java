@@ -0,0 +1,94 @@
+package com.apontaja.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SortedMap;
+
+/**
+ * Results of a load test run, per operation. Stored as JSON so that a run can be compared
+ * with a baseline recorded earlier on the same machine.
+ *
+ * @param scenario        Name of the scenario that produced it
+ * @param durationSeconds Measured duration, warm-up excluded
+ * @param operations      Statistics by operation label
+ */
+record LoadReport(String scenario, double durationSeconds, SortedMap<String, OperationStats> operations) {
+
+    /**
+     * @param calls      Calls made, successful or not
+     * @param errors     Calls that failed or returned an unexpected status
+     * @param throughput Successful calls per second
+     * @param errorRate  errors / calls
+     * @param p50Ms      Median latency of successful calls, in milliseconds
+     * @param p95Ms      95th percentile
+     * @param p99Ms      99th percentile
+     * @param maxMs      Slowest successful call
+     * @param statuses   Calls by HTTP status, "io" for calls that got no response
+     */
+    record OperationStats(long calls, long errors, double throughput, double errorRate,
+                          double p50Ms, double p95Ms, double p99Ms, double maxMs, SortedMap<String, Long> statuses) {
+    }
+
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    static LoadReport read(Path file) throws IOException {
+        return JSON.readValue(file.toFile(), LoadReport.class);
+    }
+
+    void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        JSON.writeValue(file.toFile(), this);
+    }
+
+    String format() {
+        StringBuilder table = new StringBuilder(String.format(Locale.ROOT, "%s, %.0fs measured%n", scenario, durationSeconds));
+        table.append(String.format(Locale.ROOT, "%-14s %8s %9s %8s %8s %8s %8s %8s  %s%n",
+                "operation", "calls", "ok/s", "errors", "p50 ms", "p95 ms", "p99 ms", "max ms", "statuses"));
+        operations.forEach((operation, stats) -> table.append(String.format(Locale.ROOT,
+                "%-14s %8d %9.1f %7.2f%% %8.1f %8.1f %8.1f %8.1f  %s%n",
+                operation, stats.calls(), stats.throughput(), stats.errorRate() * 100,
+                stats.p50Ms(), stats.p95Ms(), stats.p99Ms(), stats.maxMs(), stats.statuses())));
+        return table.toString();
+    }
+
+    /**
+     * List what got worse than the baseline by more than the tolerance. Operations missing from
+     * either report are skipped, so adding one to a scenario doesn't fail against an old baseline.
+     */
+    List<String> regressionsAgainst(LoadReport baseline, LoadScenario.Tolerance tolerance) {
+        List<String> regressions = new ArrayList<>();
+        operations.forEach((operation, current) -> {
+            OperationStats before = baseline.operations().get(operation);
+            if (before == null) {
+                return;
+            }
+            latency(regressions, operation, "p50", before.p50Ms(), current.p50Ms(), tolerance);
+            latency(regressions, operation, "p95", before.p95Ms(), current.p95Ms(), tolerance);
+            latency(regressions, operation, "p99", before.p99Ms(), current.p99Ms(), tolerance);
+            if (current.throughput() < before.throughput() * (1 - tolerance.throughputDecrease())) {
+                regressions.add(String.format(Locale.ROOT, "%s throughput %.1f/s, baseline %.1f/s",
+                        operation, current.throughput(), before.throughput()));
+            }
+            if (current.errorRate() > before.errorRate() + tolerance.errorRateIncrease()) {
+                regressions.add(String.format(Locale.ROOT, "%s error rate %.2f%%, baseline %.2f%%",
+                        operation, current.errorRate() * 100, before.errorRate() * 100));
+            }
+        });
+        return regressions;
+    }
+
+    private static void latency(List<String> regressions, String operation, String percentile,
+                                double before, double current, LoadScenario.Tolerance tolerance) {
+        if (current > before * (1 + tolerance.latencyIncrease()) && current - before > tolerance.minLatencyDeltaMs()) {
+            regressions.add(String.format(Locale.ROOT, "%s %s %.1f ms, baseline %.1f ms",
+                    operation, percentile, current, before));
+        }
+    }
+}
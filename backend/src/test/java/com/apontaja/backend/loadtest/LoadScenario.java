@@ -0,0 +1,86 @@
+package com.apontaja.backend.loadtest;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * A load test read from a YAML file: how many virtual users, for how long, and the weight of
+ * each operation in their traffic.
+ *
+ * @param name              Names the report and the baseline file
+ * @param users             Virtual users, each running operations back to back on its own session
+ * @param seedUsers         Accounts registered before the run, that logins pick from
+ * @param warmupSeconds     Traffic sent before measuring, so the JIT and the pools are warm
+ * @param durationSeconds   Measured traffic
+ * @param thinkTimeMs       Pause of a virtual user between two operations
+ * @param mix               Relative weight of each operation
+ * @param authenticatedPath Path of the {@link Operation#AUTHENTICATED} call
+ * @param authenticatedStatus Status expected from it
+ * @param maxErrorRate      Share of failed calls above which the run fails, whatever the baseline
+ * @param tolerance         How much worse than the baseline a run may be
+ * @param properties        Application properties for this run, e.g. BCrypt strength
+ */
+record LoadScenario(String name,
+                    int users,
+                    int seedUsers,
+                    int warmupSeconds,
+                    int durationSeconds,
+                    int thinkTimeMs,
+                    Map<Operation, Integer> mix,
+                    String authenticatedPath,
+                    int authenticatedStatus,
+                    double maxErrorRate,
+                    Tolerance tolerance,
+                    Map<String, String> properties) {
+
+    enum Operation {
+        @JsonProperty("register") REGISTER,
+        @JsonProperty("login") LOGIN,
+        @JsonProperty("refresh") REFRESH,
+        @JsonProperty("logout") LOGOUT,
+        @JsonProperty("authenticated") AUTHENTICATED;
+
+        String label() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * Regression thresholds against the baseline, per operation.
+     *
+     * @param latencyIncrease   Allowed relative increase of p50, p95 and p99, e.g. 0.25 for +25%
+     * @param minLatencyDeltaMs Latency increases below this are noise, whatever their ratio
+     * @param throughputDecrease Allowed relative decrease of calls per second
+     * @param errorRateIncrease Allowed increase of the error rate, in points, e.g. 0.01 for +1%
+     */
+    record Tolerance(double latencyIncrease, double minLatencyDeltaMs, double throughputDecrease,
+                     double errorRateIncrease) {
+    }
+
+    private static final ObjectMapper YAML = new ObjectMapper(new YAMLFactory())
+            .enable(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES);
+
+    /**
+     * Read a scenario from the file system, or from the test classpath if no such file exists.
+     */
+    static LoadScenario load(String location) throws IOException {
+        Path file = Path.of(location);
+        if (Files.isRegularFile(file)) {
+            return YAML.readValue(file.toFile(), LoadScenario.class);
+        }
+        try (InputStream resource = LoadScenario.class.getClassLoader().getResourceAsStream(location)) {
+            if (resource == null) {
+                throw new IOException("No scenario file or classpath resource " + location);
+            }
+            return YAML.readValue(resource, LoadScenario.class);
+        }
+    }
+}
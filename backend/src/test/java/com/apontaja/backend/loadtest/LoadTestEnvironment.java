@@ -0,0 +1,82 @@
+package com.apontaja.backend.loadtest;
+
+import com.apontaja.backend.BackendApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The backend as it runs in production (prod profile, Flyway schema, real HTTP port and outbox
+ * delivery), on an embedded PostgreSQL and the {@link SmtpStub}.
+ */
+final class LoadTestEnvironment implements AutoCloseable {
+
+    private final EmbeddedPostgres postgres;
+    private final SmtpStub smtp;
+    private final ConfigurableApplicationContext context;
+
+    private LoadTestEnvironment(EmbeddedPostgres postgres, SmtpStub smtp, ConfigurableApplicationContext context) {
+        this.postgres = postgres;
+        this.smtp = smtp;
+        this.context = context;
+    }
+
+    static LoadTestEnvironment start(LoadScenario scenario) throws IOException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+        SmtpStub smtp = new SmtpStub();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+                .profiles("prod")
+                .run(arguments(postgres, smtp, scenario, 0, 0).toArray(String[]::new));
+        return new LoadTestEnvironment(postgres, smtp, context);
+    }
+
+    /**
+     * Command-line arguments of the backend for a run: database, SMTP stub, ports (0 for any
+     * free one) and the scenario's properties.
+     */
+    static List<String> arguments(EmbeddedPostgres postgres, SmtpStub smtp, LoadScenario scenario,
+                                  int serverPort, int managementPort) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=postgres",
+                "--server.port=" + serverPort,
+                "--management.server.port=" + managementPort,
+                "--spring.mail.host=localhost",
+                "--spring.mail.port=" + smtp.port(),
+                "--spring.mail.username=",
+                "--spring.mail.password=",
+                "--spring.mail.properties.mail.smtp.auth=false",
+                "--spring.mail.properties.mail.smtp.starttls.enable=false",
+                "--jwt.keys.path=",
+                "--jwt.expiration=900000",
+                // Every virtual user comes from 127.0.0.1
+                "--app.security.rate-limit.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.apontaja.backend=WARN",
+                "--logging.level.org.springframework.security=WARN"));
+        // Command-line arguments, so they win over the ${...} placeholders of application-prod.yml
+        scenario.properties().forEach((key, value) -> args.add("--" + key + "=" + value));
+        return args;
+    }
+
+    URI baseUrl() {
+        return URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+    }
+
+    SmtpStub smtp() {
+        return smtp;
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        smtp.close();
+        postgres.close();
+    }
+}
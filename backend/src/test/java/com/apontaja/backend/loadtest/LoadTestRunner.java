@@ -0,0 +1,274 @@
+package com.apontaja.backend.loadtest;
+
+import com.apontaja.backend.loadtest.LoadScenario.Operation;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load generator: each virtual user picks an operation by weight, runs it, waits
+ * the think time and starts again, on its own session (access and refresh token).
+ * <p>
+ * Refresh, logout and authenticated calls need a session; a user without one logs in first,
+ * and that login counts as a login. Logins use the accounts registered before the run.
+ * Latencies are recorded in microseconds into HdrHistograms, for successful calls only.
+ * Being closed-loop, a slow server also slows the load down, so compare throughput as well
+ * as latency between runs.
+ */
+final class LoadTestRunner {
+
+    private static final String PASSWORD = "load-test-password";
+    private static final int SEED_CONCURRENCY = 8;
+    private static final long MAX_LATENCY_MICROS = Duration.ofMinutes(1).toNanos() / 1000;
+
+    private final LoadScenario scenario;
+    private final URI baseUrl;
+    private final HttpClient http;
+    private final ObjectMapper json = new ObjectMapper();
+    private final Map<Operation, OperationRecorder> recorders = new EnumMap<>(Operation.class);
+    private final Operation[] weighted;
+    private final String runId = Long.toString(System.nanoTime(), 36);
+    private final AtomicLong registrations = new AtomicLong();
+
+    private volatile boolean measuring;
+
+    LoadTestRunner(LoadScenario scenario, URI baseUrl) {
+        this.scenario = scenario;
+        this.baseUrl = baseUrl;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new OperationRecorder());
+        }
+        List<Operation> slots = new ArrayList<>();
+        scenario.mix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(operation);
+            }
+        });
+        if (slots.isEmpty()) {
+            throw new IllegalArgumentException("Scenario " + scenario.name() + " has an empty mix");
+        }
+        this.weighted = slots.toArray(Operation[]::new);
+    }
+
+    LoadReport run() throws InterruptedException {
+        List<String> accounts = seedAccounts();
+
+        long start = System.nanoTime();
+        long measureFrom = start + Duration.ofSeconds(scenario.warmupSeconds()).toNanos();
+        long end = measureFrom + Duration.ofSeconds(scenario.durationSeconds()).toNanos();
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < scenario.users(); i++) {
+                users.submit(() -> virtualUser(accounts, end));
+            }
+            Thread.sleep(Duration.ofNanos(measureFrom - start));
+            measuring = true;
+        }
+        measuring = false;
+        return report((System.nanoTime() - measureFrom) / 1e9);
+    }
+
+    // Registered through the API, untimed and a few at a time, so every login has an account
+    private List<String> seedAccounts() throws InterruptedException {
+        List<String> accounts = new ArrayList<>();
+        for (int i = 0; i < scenario.seedUsers(); i++) {
+            accounts.add("seed-" + runId + "-" + i + "@example.com");
+        }
+        Semaphore permits = new Semaphore(SEED_CONCURRENCY);
+        AtomicInteger failures = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String email : accounts) {
+                executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        if (register(email) == null) {
+                            failures.incrementAndGet();
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                });
+            }
+        }
+        if (failures.get() > 0) {
+            throw new IllegalStateException(failures.get() + " of " + accounts.size() + " seed accounts could not be registered");
+        }
+        return accounts;
+    }
+
+    private Void virtualUser(List<String> accounts, long end) throws InterruptedException {
+        Session session = null;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < end) {
+            Operation operation = weighted[random.nextInt(weighted.length)];
+            if (operation != Operation.REGISTER && operation != Operation.LOGIN && session == null) {
+                session = login(accounts.get(random.nextInt(accounts.size())));
+                if (session == null) {
+                    continue;
+                }
+            }
+            session = switch (operation) {
+                case REGISTER -> register("load-" + runId + "-" + registrations.incrementAndGet() + "@example.com");
+                case LOGIN -> login(accounts.get(random.nextInt(accounts.size())));
+                case REFRESH -> refresh(session);
+                case LOGOUT -> logout(session);
+                case AUTHENTICATED -> authenticated(session);
+            };
+            if (scenario.thinkTimeMs() > 0) {
+                Thread.sleep(scenario.thinkTimeMs());
+            }
+        }
+        return null;
+    }
+
+    private Session register(String email) {
+        String body = "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD
+                + "\",\"firstName\":\"Load\",\"lastName\":\"Test\"}";
+        return session(call(Operation.REGISTER, post("/api/auth/register", body), 200));
+    }
+
+    private Session login(String email) {
+        String body = "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}";
+        return session(call(Operation.LOGIN, post("/api/auth/login", body), 200));
+    }
+
+    // A failed refresh ends the session: the token may have been consumed
+    private Session refresh(Session session) {
+        String body = "{\"refreshToken\":\"" + session.refreshToken() + "\"}";
+        return session(call(Operation.REFRESH, post("/api/auth/refresh", body), 200));
+    }
+
+    private Session logout(Session session) {
+        String body = "{\"refreshToken\":\"" + session.refreshToken() + "\"}";
+        call(Operation.LOGOUT, post("/api/auth/logout", body), 204);
+        return null;
+    }
+
+    private Session authenticated(Session session) {
+        HttpRequest request = HttpRequest.newBuilder(baseUrl.resolve(scenario.authenticatedPath()))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + session.accessToken())
+                .GET()
+                .build();
+        HttpResponse<String> response = call(Operation.AUTHENTICATED, request, scenario.authenticatedStatus());
+        return response == null ? null : session;
+    }
+
+    private HttpRequest post(String path, String body) {
+        return HttpRequest.newBuilder(baseUrl.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * Send a request and record it if the warm-up is over.
+     *
+     * @return The response, or null if the call failed or returned another status
+     */
+    private HttpResponse<String> call(Operation operation, HttpRequest request, int expectedStatus) {
+        boolean measured = measuring;
+        long start = System.nanoTime();
+        HttpResponse<String> response = null;
+        String status;
+        try {
+            response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            status = Integer.toString(response.statusCode());
+        } catch (IOException ex) {
+            status = "io";
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        boolean ok = response != null && response.statusCode() == expectedStatus;
+        if (measured) {
+            recorders.get(operation).record(status, ok, (System.nanoTime() - start) / 1000);
+        }
+        return ok ? response : null;
+    }
+
+    private Session session(HttpResponse<String> response) {
+        if (response == null) {
+            return null;
+        }
+        try {
+            JsonNode body = json.readTree(response.body());
+            return new Session(body.get("accessToken").asText(), body.get("refreshToken").asText());
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    private LoadReport report(double seconds) {
+        TreeMap<String, LoadReport.OperationStats> operations = new TreeMap<>();
+        recorders.forEach((operation, recorder) -> {
+            if (recorder.calls.sum() > 0) {
+                operations.put(operation.label(), recorder.stats(seconds));
+            }
+        });
+        return new LoadReport(scenario.name(), seconds, operations);
+    }
+
+    private record Session(String accessToken, String refreshToken) {
+    }
+
+    private static final class OperationRecorder {
+
+        private final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        void record(String status, boolean ok, long latencyMicros) {
+            calls.increment();
+            statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+            if (ok) {
+                latencies.recordValue(Math.min(latencyMicros, MAX_LATENCY_MICROS));
+            } else {
+                errors.increment();
+            }
+        }
+
+        LoadReport.OperationStats stats(double seconds) {
+            long total = calls.sum();
+            long failed = errors.sum();
+            TreeMap<String, Long> byStatus = new TreeMap<>();
+            statuses.forEach((status, count) -> byStatus.put(status, count.sum()));
+            return new LoadReport.OperationStats(total, failed, (total - failed) / seconds,
+                    total == 0 ? 0 : (double) failed / total,
+                    millis(latencies.getValueAtPercentile(50)), millis(latencies.getValueAtPercentile(95)),
+                    millis(latencies.getValueAtPercentile(99)), millis(latencies.getMaxValue()), byStatus);
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+}
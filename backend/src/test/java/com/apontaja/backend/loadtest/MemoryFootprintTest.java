@@ -0,0 +1,75 @@
+package com.apontaja.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs a login burst against the backend started by {@code scripts/jvm-entrypoint.sh} for a
+ * given container limit, and checks that its resident memory stays below that limit, where
+ * the container would be OOM-killed. Tagged {@code loadtest}:
+ * <pre>
+ * mvn -Ploadtest test -Dtest=MemoryFootprintTest
+ * mvn -Ploadtest test -Dtest=MemoryFootprintTest -Dloadtest.memory-limit-mb=768
+ * </pre>
+ * Linux only, RSS is read from {@code /proc}.
+ */
+@Tag("loadtest")
+class MemoryFootprintTest {
+
+    private static final Path WORK_DIR = Path.of("target", "loadtest", "memory-footprint");
+    private static final long MIB = 1024 * 1024;
+
+    @Test
+    void rss_UnderLoginBurst_ShouldStayBelowTheContainerLimit() throws Exception {
+        // Given
+        assumeTrue(Files.isReadable(Path.of("/proc/self/status")), "RSS is read from /proc");
+        LoadScenario scenario = LoadScenario.load(System.getProperty("loadtest.memory-scenario", "loadtest/memory-footprint.yml"));
+        int limitMb = Integer.getInteger("loadtest.memory-limit-mb", 512);
+
+        // When
+        LoadReport report;
+        JsonNode jvm;
+        AtomicLong idleRss = new AtomicLong();
+        AtomicLong peakRss = new AtomicLong();
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             SmtpStub smtp = new SmtpStub();
+             ForkedBackend backend = ForkedBackend.start(postgres, smtp, scenario, limitMb, WORK_DIR)) {
+            jvm = backend.info().get("jvm");
+            idleRss.set(backend.rssBytes());
+            ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+            sampler.scheduleAtFixedRate(() -> peakRss.accumulateAndGet(backend.rssBytes(), Math::max),
+                    0, 200, TimeUnit.MILLISECONDS);
+            try {
+                report = new LoadTestRunner(scenario, backend.baseUrl()).run();
+            } finally {
+                sampler.shutdownNow();
+            }
+        }
+        System.out.println(report.format());
+        System.out.printf(Locale.ROOT, "RSS for a %d MB limit: %d MB after startup, %d MB peak%n",
+                limitMb, idleRss.get() / MIB, peakRss.get() / MIB);
+        report.write(WORK_DIR.resolve(scenario.name() + ".json"));
+
+        // Then
+        report.operations().forEach((operation, stats) -> assertThat(stats.errorRate())
+                .as("%s error rate, statuses %s", operation, stats.statuses())
+                .isLessThanOrEqualTo(scenario.maxErrorRate()));
+        assertThat(jvm.at("/flags/UseG1GC").asText()).isEqualTo("true");
+        assertThat(jvm.at("/flags/MaxHeapSize").asLong()).isLessThan(limitMb * MIB);
+        assertThat(jvm.get("flightRecordings").findValuesAsText("name")).contains("continuous");
+        assertThat(peakRss.get()).as("peak RSS in bytes").isLessThan(limitMb * MIB);
+    }
+}
@@ -0,0 +1,17 @@
+package com.apontaja.backend.repository;
+
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JpaRefreshTokenStoreTest extends RefreshTokenStoreTestSupport {
+
+    @Override
+    protected RefreshTokenStore createStore() {
+        return new JpaRefreshTokenStore(refreshTokenRepository);
+    }
+}
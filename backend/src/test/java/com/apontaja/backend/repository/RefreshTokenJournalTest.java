@@ -0,0 +1,134 @@
+package com.apontaja.backend.repository;
+
+import com.apontaja.backend.repository.RefreshTokenJournal.Change;
+import com.apontaja.backend.repository.RefreshTokenJournal.DeleteFamily;
+import com.apontaja.backend.repository.RefreshTokenJournal.DeleteToken;
+import com.apontaja.backend.repository.RefreshTokenJournal.DeleteUser;
+import com.apontaja.backend.repository.RefreshTokenJournal.Insert;
+import com.apontaja.backend.repository.RefreshTokenJournal.Rotate;
+import com.apontaja.backend.security.OpaqueTokens;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RefreshTokenJournalTest {
+
+    private static final Instant EXPIRY = Instant.parse("2030-01-01T00:00:00.123456Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void read_ShouldReturnEveryChangeInOrder() throws IOException {
+        // Given
+        UUID familyId = UUID.randomUUID();
+        Insert insert = new Insert(OpaqueTokens.sha256("first"), 7L, familyId, EXPIRY);
+        Rotate rotate = new Rotate(OpaqueTokens.sha256("first"), Instant.now(),
+                new Insert(OpaqueTokens.sha256("second"), 7L, familyId, EXPIRY));
+        List<Change> changes = List.of(insert, rotate, new DeleteToken(OpaqueTokens.sha256("second")),
+                new DeleteFamily(familyId), new DeleteUser(7L));
+        Path segment;
+        try (RefreshTokenJournal journal = new RefreshTokenJournal(directory)) {
+            long position = 0;
+            for (Change change : changes) {
+                position = journal.append(change);
+            }
+            journal.sync(position);
+            segment = journal.roll();
+        }
+
+        // When
+        List<Change> read = RefreshTokenJournal.read(segment);
+
+        // Then
+        assertThat(read).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(changes);
+    }
+
+    @Test
+    void read_WithTornLastRecord_ShouldStopBeforeIt() throws IOException {
+        // Given
+        Path segment;
+        try (RefreshTokenJournal journal = new RefreshTokenJournal(directory)) {
+            journal.append(new DeleteUser(1L));
+            journal.append(new DeleteUser(2L));
+            segment = journal.roll();
+        }
+        byte[] content = Files.readAllBytes(segment);
+        Files.write(segment, Arrays.copyOf(content, content.length - 3));
+
+        // When
+        List<Change> read = RefreshTokenJournal.read(segment);
+
+        // Then
+        assertThat(read).containsExactly(new DeleteUser(1L));
+    }
+
+    @Test
+    void read_WithCorruptRecord_ShouldStopAtIt() throws IOException {
+        // Given
+        Path segment;
+        try (RefreshTokenJournal journal = new RefreshTokenJournal(directory)) {
+            journal.append(new DeleteUser(1L));
+            segment = journal.roll();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), 10);
+        }
+
+        // When
+        List<Change> read = RefreshTokenJournal.read(segment);
+
+        // Then
+        assertThat(read).isEmpty();
+    }
+
+    @Test
+    void open_ShouldLeaveSegmentsOfThePreviousRunAndStartAfterThem() throws IOException {
+        // Given
+        Path previous;
+        try (RefreshTokenJournal journal = new RefreshTokenJournal(directory)) {
+            journal.append(new DeleteUser(1L));
+            previous = journal.roll();
+            journal.append(new DeleteUser(2L));
+        }
+
+        // When
+        try (RefreshTokenJournal reopened = new RefreshTokenJournal(directory)) {
+            // Then
+            assertThat(reopened.closedSegments()).hasSize(2).first().isEqualTo(previous);
+            assertThat(RefreshTokenJournal.read(reopened.closedSegments().get(1))).containsExactly(new DeleteUser(2L));
+        }
+    }
+
+    @Test
+    void delete_ShouldRemoveFlushedSegmentsOnly() throws IOException {
+        // Given
+        try (RefreshTokenJournal journal = new RefreshTokenJournal(directory)) {
+            journal.append(new DeleteUser(1L));
+            Path flushed = journal.roll();
+            journal.append(new DeleteUser(2L));
+
+            // When
+            journal.delete(List.of(flushed));
+
+            // Then
+            assertThat(flushed).doesNotExist();
+        }
+        try (RefreshTokenJournal reopened = new RefreshTokenJournal(directory)) {
+            assertThat(reopened.closedSegments()).hasSize(1);
+            assertThat(RefreshTokenJournal.read(reopened.closedSegments().get(0))).containsExactly(new DeleteUser(2L));
+        }
+    }
+}
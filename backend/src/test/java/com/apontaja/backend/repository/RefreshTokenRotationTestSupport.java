@@ -0,0 +1,128 @@
+package com.apontaja.backend.repository;
+
+import com.apontaja.backend.model.RefreshToken;
+import com.apontaja.backend.model.Role;
+import com.apontaja.backend.model.User;
+import com.apontaja.backend.security.OpaqueTokens;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rotation tests shared by the PostgreSQL statement and the JPA fallback. Subclasses provide
+ * the database and run outside a test transaction, as the rotation commits on its own.
+ */
+abstract class RefreshTokenRotationTestSupport {
+
+    private static final byte[] TOKEN_HASH = OpaqueTokens.sha256("presented-token");
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected RefreshTokenRepository refreshTokenRepository;
+
+    private User user;
+    private RefreshToken presented;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .email("rotation@example.com")
+                .password("encodedPassword")
+                .firstName("John")
+                .lastName("Doe")
+                .role(Role.USER)
+                .build());
+        presented = refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(TOKEN_HASH)
+                .user(user)
+                .familyId(UUID.randomUUID())
+                .expiryDate(Instant.now().plusSeconds(3600).truncatedTo(ChronoUnit.MILLIS))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void rotate_WithUnusedToken_ShouldIssueSuccessorInSameFamilyAndReturnUser() {
+        // Given
+        byte[] successorHash = OpaqueTokens.sha256("successor-token");
+
+        // When
+        Optional<RefreshToken> successor = refreshTokenRepository.rotate(TOKEN_HASH, successorHash, Instant.now());
+
+        // Then
+        assertThat(successor).isPresent();
+        assertThat(successor.get().getFamilyId()).isEqualTo(presented.getFamilyId());
+        assertThat(successor.get().getExpiryDate()).isEqualTo(presented.getExpiryDate());
+        assertThat(successor.get().getUser().getEmail()).isEqualTo("rotation@example.com");
+        assertThat(refreshTokenRepository.findByTokenHash(TOKEN_HASH).orElseThrow().getRotatedAt()).isNotNull();
+        assertThat(refreshTokenRepository.findByTokenHash(successorHash)).isPresent();
+    }
+
+    @Test
+    void rotate_WithAlreadyRotatedToken_ShouldChangeNothing() {
+        // Given
+        refreshTokenRepository.rotate(TOKEN_HASH, OpaqueTokens.sha256("first-successor"), Instant.now());
+
+        // When
+        Optional<RefreshToken> replay = refreshTokenRepository.rotate(TOKEN_HASH, OpaqueTokens.sha256("second-successor"), Instant.now());
+
+        // Then
+        assertThat(replay).isEmpty();
+        assertThat(refreshTokenRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void rotate_WithExpiredToken_ShouldChangeNothing() {
+        // When
+        Optional<RefreshToken> successor = refreshTokenRepository.rotate(
+                TOKEN_HASH, OpaqueTokens.sha256("successor-token"), Instant.now().plusSeconds(7200));
+
+        // Then
+        assertThat(successor).isEmpty();
+        assertThat(refreshTokenRepository.findByTokenHash(TOKEN_HASH).orElseThrow().getRotatedAt()).isNull();
+    }
+
+    @Test
+    void rotate_SameTokenConcurrently_ShouldSucceedOnlyOnce() throws Exception {
+        // Given
+        AtomicInteger rotated = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        try (var executor = Executors.newFixedThreadPool(4)) {
+            for (int i = 0; i < 4; i++) {
+                byte[] successorHash = OpaqueTokens.sha256("successor-" + i);
+                executor.submit(() -> {
+                    start.await();
+                    if (refreshTokenRepository.rotate(TOKEN_HASH, successorHash, Instant.now()).isPresent()) {
+                        rotated.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        }
+
+        // Then
+        assertThat(rotated.get()).isEqualTo(1);
+        assertThat(refreshTokenRepository.count()).isEqualTo(2);
+    }
+}
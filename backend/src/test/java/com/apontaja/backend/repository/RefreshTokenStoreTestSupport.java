@@ -0,0 +1,192 @@
+package com.apontaja.backend.repository;
+
+import com.apontaja.backend.model.RefreshToken;
+import com.apontaja.backend.model.Role;
+import com.apontaja.backend.model.User;
+import com.apontaja.backend.security.OpaqueTokens;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Behaviour every {@link RefreshTokenStore} shares. Subclasses provide the database and a new
+ * store for each test, and run outside a test transaction, as the stores commit on their own.
+ */
+abstract class RefreshTokenStoreTestSupport {
+
+    protected static final byte[] TOKEN_HASH = OpaqueTokens.sha256("presented-token");
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    protected PlatformTransactionManager transactionManager;
+
+    protected RefreshTokenStore refreshTokenStore;
+    protected User user;
+    protected RefreshToken presented;
+
+    protected abstract RefreshTokenStore createStore() throws Exception;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        refreshTokenStore = createStore();
+        user = userRepository.save(User.builder()
+                .email("store@example.com")
+                .password("encodedPassword")
+                .firstName("John")
+                .lastName("Doe")
+                .role(Role.USER)
+                .build());
+        presented = refreshTokenStore.save(RefreshToken.builder()
+                .token("presented-token")
+                .tokenHash(TOKEN_HASH)
+                .user(user)
+                .familyId(UUID.randomUUID())
+                .expiryDate(Instant.now().plusSeconds(3600).truncatedTo(ChronoUnit.MILLIS))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void save_ShouldKeepRawTokenAndBeFoundByDigest() {
+        // When
+        Optional<RefreshToken> found = refreshTokenStore.findByTokenHash(TOKEN_HASH);
+
+        // Then
+        assertThat(presented.getToken()).isEqualTo("presented-token");
+        assertThat(found).isPresent();
+        assertThat(found.get().getFamilyId()).isEqualTo(presented.getFamilyId());
+        assertThat(found.get().getExpiryDate()).isEqualTo(presented.getExpiryDate());
+    }
+
+    @Test
+    void rotate_WithUnusedToken_ShouldIssueSuccessorInSameFamilyAndReturnUser() {
+        // Given
+        byte[] successorHash = OpaqueTokens.sha256("successor-token");
+
+        // When
+        Optional<RefreshToken> successor = refreshTokenStore.rotate(TOKEN_HASH, successorHash, Instant.now());
+
+        // Then
+        assertThat(successor).isPresent();
+        assertThat(successor.get().getTokenHash()).isEqualTo(successorHash);
+        assertThat(successor.get().getFamilyId()).isEqualTo(presented.getFamilyId());
+        assertThat(successor.get().getExpiryDate()).isEqualTo(presented.getExpiryDate());
+        assertThat(successor.get().getUser().getEmail()).isEqualTo("store@example.com");
+        assertThat(refreshTokenStore.findStateByTokenHash(TOKEN_HASH).orElseThrow().rotatedAt()).isNotNull();
+        assertThat(refreshTokenStore.findByTokenHash(successorHash)).isPresent();
+    }
+
+    @Test
+    void rotate_WithAlreadyRotatedToken_ShouldChangeNothing() {
+        // Given
+        refreshTokenStore.rotate(TOKEN_HASH, OpaqueTokens.sha256("first-successor"), Instant.now());
+
+        // When
+        Optional<RefreshToken> replay = refreshTokenStore.rotate(TOKEN_HASH, OpaqueTokens.sha256("second-successor"), Instant.now());
+
+        // Then
+        assertThat(replay).isEmpty();
+        assertThat(refreshTokenStore.findByTokenHash(OpaqueTokens.sha256("second-successor"))).isEmpty();
+    }
+
+    @Test
+    void rotate_WithExpiredToken_ShouldChangeNothing() {
+        // When
+        Optional<RefreshToken> successor = refreshTokenStore.rotate(
+                TOKEN_HASH, OpaqueTokens.sha256("successor-token"), Instant.now().plusSeconds(7200));
+
+        // Then
+        assertThat(successor).isEmpty();
+        assertThat(refreshTokenStore.findStateByTokenHash(TOKEN_HASH).orElseThrow().rotatedAt()).isNull();
+    }
+
+    @Test
+    void rotate_SameTokenConcurrently_ShouldSucceedOnlyOnce() throws Exception {
+        // Given
+        AtomicInteger rotated = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        try (var executor = Executors.newFixedThreadPool(4)) {
+            for (int i = 0; i < 4; i++) {
+                byte[] successorHash = OpaqueTokens.sha256("successor-" + i);
+                executor.submit(() -> {
+                    start.await();
+                    if (refreshTokenStore.rotate(TOKEN_HASH, successorHash, Instant.now()).isPresent()) {
+                        rotated.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        }
+
+        // Then
+        assertThat(rotated.get()).isEqualTo(1);
+    }
+
+    @Test
+    void deleteFamilyByTokenHash_ShouldDeleteEveryTokenOfTheFamily() {
+        // Given
+        byte[] successorHash = OpaqueTokens.sha256("successor-token");
+        refreshTokenStore.rotate(TOKEN_HASH, successorHash, Instant.now());
+
+        // When
+        int deleted = refreshTokenStore.deleteFamilyByTokenHash(successorHash);
+
+        // Then
+        assertThat(deleted).isPositive();
+        assertThat(refreshTokenStore.findByTokenHash(TOKEN_HASH)).isEmpty();
+        assertThat(refreshTokenStore.findByTokenHash(successorHash)).isEmpty();
+    }
+
+    @Test
+    void deleteByUser_ShouldDeleteTokensOfUser() {
+        // When
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> refreshTokenStore.deleteByUser(user));
+
+        // Then
+        assertThat(refreshTokenStore.findByTokenHash(TOKEN_HASH)).isEmpty();
+    }
+
+    @Test
+    void deleteByTokenHash_ShouldDeleteOnlyThatToken() {
+        // Given
+        byte[] successorHash = OpaqueTokens.sha256("successor-token");
+        refreshTokenStore.rotate(TOKEN_HASH, successorHash, Instant.now());
+
+        // When
+        refreshTokenStore.deleteByTokenHash(TOKEN_HASH);
+
+        // Then
+        assertThat(refreshTokenStore.findStateByTokenHash(TOKEN_HASH)).isEmpty();
+        assertThat(refreshTokenStore.findByTokenHash(successorHash)).isPresent();
+    }
+}
@@ -0,0 +1,258 @@
+package com.apontaja.backend.repository;
+
+import com.apontaja.backend.model.EmailOutboxStatus;
+import com.apontaja.backend.model.RefreshToken;
+import com.apontaja.backend.model.Role;
+import com.apontaja.backend.model.User;
+import com.apontaja.backend.security.OpaqueTokens;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every custom repository query against the Flyway schema on a real PostgreSQL and
+ * fails if any of them plans a sequential scan, i.e. if an index the query relies on is missing.
+ * <p>
+ * The test tables are tiny, so sequential scans are disabled to make the planner pick an
+ * index whenever one is usable; a remaining Seq Scan means none is.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@DirtiesContext
+class RepositoryQueryPlanTest {
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+    private static final List<String> EXECUTED_SQL = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    // Separate connection in simple query mode, otherwise the driver treats $n as bind parameters
+    private final JdbcTemplate explainJdbcTemplate = new JdbcTemplate(
+            POSTGRES.getDatabase("postgres", "postgres", Map.of("preferQueryMode", "simple")));
+
+    private User user;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        POSTGRES.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.saveAndFlush(User.builder()
+                .email("test@example.com")
+                .password("encodedPassword")
+                .firstName("John")
+                .lastName("Doe")
+                .role(Role.USER)
+                .build());
+        refreshTokenRepository.saveAndFlush(RefreshToken.builder()
+                .tokenHash(OpaqueTokens.sha256(OpaqueTokens.generate()))
+                .user(user)
+                .familyId(UUID.randomUUID())
+                .expiryDate(Instant.now().plusSeconds(3600))
+                .build());
+        EXECUTED_SQL.clear();
+    }
+
+    @Test
+    void userRepository_findByEmail_ShouldUseIndex() {
+        assertNoSequentialScan(() -> userRepository.findByEmail("Test@Example.com"));
+    }
+
+    @Test
+    void userRepository_existsByEmail_ShouldUseIndex() {
+        assertNoSequentialScan(() -> userRepository.existsByEmail("Test@Example.com"));
+    }
+
+    @Test
+    void userRepository_findEnabledById_ShouldUseIndex() {
+        assertNoSequentialScan(() -> userRepository.findEnabledById(user.getId()));
+    }
+
+    @Test
+    void refreshTokenRepository_findByTokenHash_ShouldUseIndex() {
+        assertNoSequentialScan(() -> refreshTokenRepository.findByTokenHash(OpaqueTokens.sha256("token")));
+    }
+
+    @Test
+    void refreshTokenRepository_findStateByTokenHash_ShouldUseIndex() {
+        assertNoSequentialScan(() -> refreshTokenRepository.findStateByTokenHash(OpaqueTokens.sha256("token")));
+    }
+
+    @Test
+    void refreshTokenRepository_deleteFamilyByTokenHash_ShouldUseIndex() {
+        assertNoSequentialScan(() -> refreshTokenRepository.deleteFamilyByTokenHash(OpaqueTokens.sha256("token")));
+    }
+
+    @Test
+    void refreshTokenRepository_deleteByUser_ShouldUseIndex() {
+        assertNoSequentialScan(() -> refreshTokenRepository.deleteByUser(user));
+    }
+
+    @Test
+    void refreshTokenRepository_deleteByFamilyId_ShouldUseIndex() {
+        assertNoSequentialScan(() -> refreshTokenRepository.deleteByFamilyId(UUID.randomUUID()));
+    }
+
+    @Test
+    void refreshTokenRepository_findExpiredIdsForUpdate_ShouldUseIndex() {
+        assertNoSequentialScan(() -> refreshTokenRepository.findExpiredIdsForUpdate(Instant.now(), PageRequest.ofSize(500)));
+    }
+
+    @Test
+    void refreshTokenRepository_findRotatedIdsForUpdate_ShouldUseIndex() {
+        assertNoSequentialScan(() -> refreshTokenRepository.findRotatedIdsForUpdate(Instant.now(), PageRequest.ofSize(500)));
+    }
+
+    @Test
+    void refreshTokenRepository_deleteByTokenHash_ShouldUseIndex() {
+        assertNoSequentialScan(() -> refreshTokenRepository.deleteByTokenHash(OpaqueTokens.sha256("token")));
+    }
+
+    @Test
+    void refreshTokenRepository_deleteByIdIn_ShouldUseIndex() {
+        assertNoSequentialScan(() -> refreshTokenRepository.deleteByIdIn(List.of(1L, 2L)));
+    }
+
+    @Test
+    void refreshTokenRepository_estimateRowCount_ShouldUseIndex() {
+        assertNoSequentialScan(refreshTokenRepository::estimateRowCount);
+    }
+
+    @Test
+    void emailOutboxRepository_findPendingDueForUpdate_ShouldUseIndex() {
+        assertNoSequentialScan(() -> emailOutboxRepository.findPendingDueForUpdate(Instant.now(), PageRequest.ofSize(50)));
+    }
+
+    @Test
+    void emailOutboxRepository_markSent_ShouldUseIndex() {
+        assertNoSequentialScan(() -> emailOutboxRepository.markSent(List.of(1L, 2L), EmailOutboxStatus.SENT, Instant.now()));
+    }
+
+    @Test
+    void emailOutboxRepository_findSentIdsForUpdate_ShouldUseIndex() {
+        assertNoSequentialScan(() -> emailOutboxRepository.findSentIdsForUpdate(Instant.now(), PageRequest.ofSize(500)));
+    }
+
+    @Test
+    void emailOutboxRepository_findDeadIdsForUpdate_ShouldUseIndex() {
+        assertNoSequentialScan(() -> emailOutboxRepository.findDeadIdsForUpdate(Instant.now(), PageRequest.ofSize(500)));
+    }
+
+    @Test
+    void emailOutboxRepository_deleteByIdIn_ShouldUseIndex() {
+        assertNoSequentialScan(() -> emailOutboxRepository.deleteByIdIn(List.of(1L, 2L)));
+    }
+
+    private void assertNoSequentialScan(Runnable repositoryCall) {
+        // When
+        repositoryCall.run();
+
+        // Then
+        assertThat(EXECUTED_SQL).as("SQL issued by the repository call").isNotEmpty();
+        for (String sql : EXECUTED_SQL) {
+            assertThat(explain(sql))
+                    .as("Query plan of %s", sql)
+                    .doesNotContain("Seq Scan");
+        }
+    }
+
+    private String explain(String sql) {
+        return explainJdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            StringBuilder plan = new StringBuilder();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET enable_seqscan = off");
+                try (ResultSet rows = statement.executeQuery("EXPLAIN (GENERIC_PLAN) " + toNumberedParameters(sql))) {
+                    while (rows.next()) {
+                        plan.append(rows.getString(1)).append('\n');
+                    }
+                }
+            }
+            return plan.toString();
+        });
+    }
+
+    // EXPLAIN (GENERIC_PLAN) only accepts $n placeholders, Hibernate emits JDBC '?'
+    private static String toNumberedParameters(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 8);
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @TestConfiguration
+    static class SqlRecordingConfig {
+
+        @Bean
+        HibernatePropertiesCustomizer sqlRecorder() {
+            StatementInspector recorder = sql -> {
+                EXECUTED_SQL.add(sql);
+                return sql;
+            };
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, recorder);
+        }
+    }
+}
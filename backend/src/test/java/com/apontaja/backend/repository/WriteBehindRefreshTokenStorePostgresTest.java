@@ -0,0 +1,229 @@
+package com.apontaja.backend.repository;
+
+import com.apontaja.backend.model.RefreshToken;
+import com.apontaja.backend.security.OpaqueTokens;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the write-behind store against the Flyway schema on a real PostgreSQL. Each test gets
+ * its own store and journal directory; nothing is flushed unless the test asks for it.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@DirtiesContext
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WriteBehindRefreshTokenStorePostgresTest extends RefreshTokenStoreTestSupport {
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private Path journalDir;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        POSTGRES.close();
+    }
+
+    @Override
+    protected RefreshTokenStore createStore() throws IOException {
+        journalDir = Files.createTempDirectory("refresh-token-journal");
+        return newStore();
+    }
+
+    // Flushes what the test left, before the rows are deleted
+    @AfterEach
+    void closeStore() throws IOException {
+        ((WriteBehindRefreshTokenStore) refreshTokenStore).shutdown();
+    }
+
+    @Test
+    void flush_ShouldWriteJournaledChangesToTheDatabase() {
+        // Given
+        byte[] successorHash = OpaqueTokens.sha256("successor-token");
+        refreshTokenStore.rotate(TOKEN_HASH, successorHash, Instant.now());
+
+        // When
+        ((WriteBehindRefreshTokenStore) refreshTokenStore).flush();
+
+        // Then
+        assertThat(refreshTokenRepository.findByTokenHash(TOKEN_HASH).orElseThrow().getRotatedAt()).isNotNull();
+        RefreshToken successor = refreshTokenRepository.findByTokenHash(successorHash).orElseThrow();
+        assertThat(successor.getFamilyId()).isEqualTo(presented.getFamilyId());
+        assertThat(successor.getExpiryDate()).isEqualTo(presented.getExpiryDate());
+        assertThat(successor.getRotatedAt()).isNull();
+        assertThat(journalSegments()).isEmpty();
+    }
+
+    @Test
+    void rotate_AfterFirstUse_ShouldNotTouchTheDatabase() {
+        // Given
+        byte[] successorHash = OpaqueTokens.sha256("successor-token");
+        refreshTokenStore.rotate(TOKEN_HASH, successorHash, Instant.now());
+        connections.set(0);
+
+        // When
+        RefreshToken rotated = refreshTokenStore.rotate(successorHash, OpaqueTokens.sha256("next-token"), Instant.now()).orElseThrow();
+
+        // Then
+        assertThat(rotated.getUser().getEmail()).isEqualTo("store@example.com");
+        assertThat(connections.get()).isZero();
+    }
+
+    @Test
+    void recover_AfterCrash_ShouldWriteJournaledChangesBeforeServing() throws IOException {
+        // Given: a rotation acknowledged, then the process dies without flushing
+        byte[] successorHash = OpaqueTokens.sha256("successor-token");
+        refreshTokenStore.rotate(TOKEN_HASH, successorHash, Instant.now());
+        assertThat(refreshTokenRepository.findByTokenHash(TOKEN_HASH)).isEmpty();
+
+        // When
+        WriteBehindRefreshTokenStore restarted = newStore();
+
+        // Then
+        assertThat(refreshTokenRepository.findByTokenHash(TOKEN_HASH).orElseThrow().getRotatedAt()).isNotNull();
+        assertThat(refreshTokenRepository.findByTokenHash(successorHash)).isPresent();
+        assertThat(restarted.rotate(TOKEN_HASH, OpaqueTokens.sha256("replayed"), Instant.now())).isEmpty();
+        restarted.shutdown();
+    }
+
+    @Test
+    void recover_WithTornLastRecord_ShouldKeepTheCompleteOnes() throws IOException {
+        // Given
+        Path segment = journalSegments()[0];
+        Files.write(segment, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        // When
+        newStore().shutdown();
+
+        // Then
+        assertThat(refreshTokenRepository.findByTokenHash(TOKEN_HASH)).isPresent();
+    }
+
+    @Test
+    void deleteByFamilyId_OfTokenOnlyInTheDatabase_ShouldHideItUntilFlushed() {
+        // Given: a token issued before a restart, which the tier never loaded
+        UUID familyId = UUID.randomUUID();
+        byte[] oldHash = OpaqueTokens.sha256("issued-before-restart");
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(oldHash)
+                .user(user)
+                .familyId(familyId)
+                .expiryDate(Instant.now().plusSeconds(3600))
+                .build());
+
+        // When
+        refreshTokenStore.deleteByFamilyId(familyId);
+
+        // Then
+        assertThat(refreshTokenStore.findByTokenHash(oldHash)).isEmpty();
+        ((WriteBehindRefreshTokenStore) refreshTokenStore).flush();
+        assertThat(refreshTokenRepository.findByTokenHash(oldHash)).isEmpty();
+        assertThat(refreshTokenStore.findByTokenHash(oldHash)).isEmpty();
+    }
+
+    @Test
+    void flush_OverMaximumCached_ShouldEvictFlushedTokensAndReadThemBack() throws IOException {
+        // Given: a store bounded to one token, holding two live ones
+        ((WriteBehindRefreshTokenStore) refreshTokenStore).shutdown();
+        refreshTokenStore = newStore(1);
+        byte[] otherHash = OpaqueTokens.sha256("other-token");
+        refreshTokenStore.save(RefreshToken.builder()
+                .token("other-token")
+                .tokenHash(otherHash)
+                .user(user)
+                .familyId(UUID.randomUUID())
+                .expiryDate(presented.getExpiryDate())
+                .build());
+        refreshTokenStore.findByTokenHash(TOKEN_HASH);
+
+        // When
+        ((WriteBehindRefreshTokenStore) refreshTokenStore).flush();
+        connections.set(0);
+
+        // Then: the token loaded from the database was dropped and is read again, the newer one was kept
+        assertThat(refreshTokenStore.findByTokenHash(otherHash)).isPresent();
+        assertThat(connections.get()).isZero();
+        assertThat(refreshTokenStore.rotate(TOKEN_HASH, OpaqueTokens.sha256("successor-token"), Instant.now())).isPresent();
+        assertThat(connections.get()).isEqualTo(1);
+    }
+
+    private WriteBehindRefreshTokenStore newStore() throws IOException {
+        return newStore(100);
+    }
+
+    private WriteBehindRefreshTokenStore newStore(int maximumCached) throws IOException {
+        DataSource counting = new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                connections.incrementAndGet();
+                return super.getConnection();
+            }
+        };
+        WriteBehindRefreshTokenStore store = new WriteBehindRefreshTokenStore(new JdbcTemplate(counting),
+                new DataSourceTransactionManager(counting), new SimpleMeterRegistry(), journalDir.toString(), 100, maximumCached);
+        store.recover();
+        return store;
+    }
+
+    private Path[] journalSegments() {
+        try (var files = Files.list(journalDir)) {
+            return files.filter(file -> Files.isRegularFile(file) && file.toFile().length() > 0).toArray(Path[]::new);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.apontaja.backend.security;
+
+import com.apontaja.backend.config.tracing.Tracing;
+import com.apontaja.backend.exception.GlobalExceptionHandler;
+import com.apontaja.backend.exception.ServiceOverloadedException;
+import com.apontaja.backend.service.AuthMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BoundedPasswordEncoderTest {
+
+    private static final long RETRY_AFTER_SECONDS = 2;
+
+    @Mock
+    private PasswordEncoder delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private final CountDownLatch hashing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        encoder = encoder(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.close();
+    }
+
+    @Test
+    void encodeAndMatches_ShouldReturnWhatTheDelegateReturns() {
+        // Given
+        when(delegate.encode("secret")).thenReturn("$2a$hash");
+        when(delegate.matches("secret", "$2a$hash")).thenReturn(true);
+        when(delegate.matches("wrong", "$2a$hash")).thenReturn(false);
+
+        // When / Then
+        assertThat(encoder.encode("secret")).isEqualTo("$2a$hash");
+        assertThat(encoder.matches("secret", "$2a$hash")).isTrue();
+        assertThat(encoder.matches("wrong", "$2a$hash")).isFalse();
+    }
+
+    @Test
+    void encode_WithBusyWorkerAndNoQueue_ShouldFailFastWithRetryAfter() throws Exception {
+        // Given
+        CompletableFuture<String> first = occupyWorker();
+
+        // When
+        ServiceOverloadedException ex = catchThrowableOfType(
+                () -> encoder.encode("second"), ServiceOverloadedException.class);
+
+        // Then
+        assertThat(ex).isNotNull();
+        assertThat(ex.getRetryAfterSeconds()).isEqualTo(RETRY_AFTER_SECONDS);
+        assertThat(meterRegistry.get("auth.password.hash.rejected").counter().count()).isEqualTo(1);
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("$2a$first");
+    }
+
+    @Test
+    void encode_WhenCallerIsInterruptedMidHash_ShouldKeepPermitUntilHashFinishes() throws Exception {
+        // Given: a hash that, like BCrypt, ignores the interrupt sent by cancellation
+        Semaphore hashDone = new Semaphore(0);
+        when(delegate.encode("first")).thenAnswer(invocation -> {
+            hashing.countDown();
+            hashDone.acquireUninterruptibly();
+            return "$2a$first";
+        });
+        Thread caller = new Thread(() -> catchThrowableOfType(() -> encoder.encode("first"), IllegalStateException.class));
+        caller.start();
+        assertThat(hashing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            // When
+            caller.interrupt();
+            caller.join(5000);
+
+            // Then: the worker is still hashing, so the next request is rejected, not queued
+            assertThat(caller.isAlive()).isFalse();
+            ServiceOverloadedException ex = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                    () -> catchThrowableOfType(() -> encoder.encode("second"), ServiceOverloadedException.class));
+            assertThat(ex).isNotNull();
+        } finally {
+            hashDone.release();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("auth.password.hash.active").gauge().value() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        when(delegate.encode("third")).thenReturn("$2a$third");
+        assertThat(encoder.encode("third")).isEqualTo("$2a$third");
+    }
+
+    @Test
+    void serviceOverloadedException_ShouldMapTo503WithRetryAfter() {
+        // Given
+        GlobalExceptionHandler handler = new GlobalExceptionHandler(mock(AuthMetrics.class));
+
+        // When
+        ResponseEntity<Map<String, Object>> response = handler.handleServiceOverloadedException(
+                new ServiceOverloadedException("busy", RETRY_AFTER_SECONDS));
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+    }
+
+    @Test
+    void gauges_ShouldTrackBusyWorkersAndQueuedRequests() throws Exception {
+        // Given
+        encoder.close();
+        encoder = encoder(1);
+        when(delegate.matches("queued", "$2a$hash")).thenReturn(true);
+        CompletableFuture<String> first = occupyWorker();
+
+        // When
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("queued", "$2a$hash"));
+
+        // Then
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("auth.password.hash.queue.depth").gauge().value() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(meterRegistry.get("auth.password.hash.queue.depth").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.password.hash.active").gauge().value()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("$2a$first");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.get("auth.password.hash.queue.depth").gauge().value()).isZero();
+    }
+
+    // Each encoder gets its own registry, where its gauges are registered
+    private BoundedPasswordEncoder encoder(int queueCapacity) {
+        meterRegistry = new SimpleMeterRegistry();
+        return new BoundedPasswordEncoder(delegate, 1, queueCapacity, RETRY_AFTER_SECONDS, meterRegistry, Tracing.noop());
+    }
+
+    // Starts an encode that holds the only worker until release is counted down
+    private CompletableFuture<String> occupyWorker() throws InterruptedException {
+        when(delegate.encode("first")).thenAnswer(invocation -> {
+            hashing.countDown();
+            release.await();
+            return "$2a$first";
+        });
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        assertThat(hashing.await(5, TimeUnit.SECONDS)).isTrue();
+        return first;
+    }
+}
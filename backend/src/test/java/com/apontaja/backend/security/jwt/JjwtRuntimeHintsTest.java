@@ -0,0 +1,80 @@
+package com.apontaja.backend.security.jwt;
+
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.util.ClassUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JjwtRuntimeHintsTest {
+
+    private static final Pattern IMPL_CLASS_NAME = Pattern.compile("io\\.jsonwebtoken\\.impl\\.[A-Za-z.]+");
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new JjwtRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registerHints_ShouldCoverBuildersAndSerializers() {
+        // Then
+        assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of("io.jsonwebtoken.impl.DefaultJwtBuilder"))
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of("io.jsonwebtoken.jackson.io.JacksonSerializer"))
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of("io.jsonwebtoken.impl.security.KeysBridge"))
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_METHODS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("META-INF/services/io.jsonwebtoken.io.Serializer"))
+                .accepts(hints);
+    }
+
+    @Test
+    void registeredTypes_ShouldAllExist() {
+        // Then: a renamed class after a jjwt upgrade would otherwise only fail in the native image
+        Stream.concat(JjwtRuntimeHints.INSTANTIATED.stream(), JjwtRuntimeHints.INVOKED_STATICALLY.stream())
+                .forEach(type -> assertThat(ClassUtils.isPresent(type, getClass().getClassLoader()))
+                        .as(type).isTrue());
+    }
+
+    @Test
+    void registeredTypes_ShouldIncludeEveryImplementationLoadedByNameFromJjwtApi() throws IOException {
+        // Given: class names appear as string constants in the facades' class files
+        File apiJar = new File(Jwts.class.getProtectionDomain().getCodeSource().getLocation().getPath());
+        Set<String> loadedByName = new TreeSet<>();
+        try (JarFile jar = new JarFile(apiJar)) {
+            for (JarEntry entry : jar.stream().filter(entry -> entry.getName().endsWith(".class")).toList()) {
+                Matcher matcher = IMPL_CLASS_NAME.matcher(
+                        new String(jar.getInputStream(entry).readAllBytes(), StandardCharsets.ISO_8859_1));
+                while (matcher.find()) {
+                    if (ClassUtils.isPresent(matcher.group(), getClass().getClassLoader())) {
+                        loadedByName.add(matcher.group());
+                    }
+                }
+            }
+        }
+
+        // Then
+        assertThat(loadedByName).isNotEmpty();
+        assertThat(Stream.concat(JjwtRuntimeHints.INSTANTIATED.stream(), JjwtRuntimeHints.INVOKED_STATICALLY.stream()))
+                .containsAll(loadedByName);
+    }
+}
@@ -0,0 +1,121 @@
+package com.apontaja.backend.security.jwt;
+
+import com.apontaja.backend.config.tracing.Tracing;
+import com.apontaja.backend.model.Role;
+import com.apontaja.backend.model.User;
+import com.apontaja.backend.security.UserPrincipal;
+import com.apontaja.backend.service.AccountStatusService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private AccountStatusService accountStatusService;
+
+    private JwtTokenProvider jwtTokenProvider;
+    private JwtAuthenticationFilter filter;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = new JwtTokenProvider(new JwtKeyRing("", Duration.ZERO), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtTokenProvider, "accessTokenExpiration", 900_000L);
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(jwtTokenProvider, new SimpleMeterRegistry(), 100);
+        filter = new JwtAuthenticationFilter(verifiedTokenCache, jwtTokenProvider, accountStatusService, Tracing.noop());
+        user = User.builder()
+                .id(42L)
+                .email("test@example.com")
+                .password("encoded-password")
+                .firstName("John")
+                .lastName("Doe")
+                .role(Role.SALON_OWNER)
+                .enabled(true)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_WithValidToken_ShouldAuthenticateFromClaimsAlone() throws Exception {
+        // Given
+        when(accountStatusService.isActive(42L)).thenReturn(true);
+
+        // When
+        filter(jwtTokenProvider.generateAccessToken(user));
+
+        // Then
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication.getPrincipal()).isEqualTo(new UserPrincipal(42L, "test@example.com", Role.SALON_OWNER));
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_SALON_OWNER");
+    }
+
+    @Test
+    void doFilter_WithTokenOfAccountDisabledSinceIssue_ShouldNotAuthenticate() throws Exception {
+        // Given
+        when(accountStatusService.isActive(42L)).thenReturn(false);
+
+        // When
+        filter(jwtTokenProvider.generateAccessToken(user));
+
+        // Then
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void doFilter_WithTokenIssuedToDisabledAccount_ShouldNotAuthenticateNorCheckStatus() throws Exception {
+        // Given
+        user.setEnabled(false);
+
+        // When
+        filter(jwtTokenProvider.generateAccessToken(user));
+
+        // Then
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(accountStatusService, never()).isActive(anyLong());
+    }
+
+    @Test
+    void doFilter_WithTamperedToken_ShouldNotAuthenticate() throws Exception {
+        // Given
+        String token = jwtTokenProvider.generateAccessToken(user);
+
+        // When
+        filter(token.substring(0, token.length() - 4) + "AAAA");
+
+        // Then
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verifyNoInteractions(accountStatusService);
+    }
+
+    private void filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/test/user");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        assertThat(chain.getRequest()).isSameAs(request);
+    }
+}
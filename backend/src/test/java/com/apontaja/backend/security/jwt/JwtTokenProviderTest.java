@@ -0,0 +1,86 @@
+package com.apontaja.backend.security.jwt;
+
+import com.apontaja.backend.model.Role;
+import com.apontaja.backend.model.User;
+import com.apontaja.backend.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenProviderTest {
+
+    private JwtTokenProvider jwtTokenProvider;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = new JwtTokenProvider(new JwtKeyRing("", Duration.ZERO), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtTokenProvider, "accessTokenExpiration", 900_000L);
+        user = User.builder()
+                .id(42L)
+                .email("test@example.com")
+                .password("encoded-password")
+                .firstName("John")
+                .lastName("Doe")
+                .role(Role.ADMIN)
+                .enabled(true)
+                .build();
+    }
+
+    @Test
+    void toPrincipal_FromIssuedToken_ShouldCarryIdentityAndRoleAuthorities() {
+        // Given
+        Claims claims = jwtTokenProvider.parseVerifiedClaims(jwtTokenProvider.generateAccessToken(user)).orElseThrow();
+
+        // When
+        Optional<UserPrincipal> principal = jwtTokenProvider.toPrincipal(claims);
+
+        // Then
+        assertThat(principal).contains(new UserPrincipal(42L, "test@example.com", Role.ADMIN));
+        assertThat(principal.get().getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void toPrincipal_WithTokenOfDisabledAccount_ShouldReturnEmpty() {
+        // Given
+        user.setEnabled(false);
+        Claims claims = jwtTokenProvider.parseVerifiedClaims(jwtTokenProvider.generateAccessToken(user)).orElseThrow();
+
+        // When / Then
+        assertThat(jwtTokenProvider.toPrincipal(claims)).isEmpty();
+    }
+
+    @Test
+    void toPrincipal_WithMissingIdentityClaims_ShouldReturnEmpty() {
+        // Tokens issued before the identity claims only carry the subject
+        assertThat(jwtTokenProvider.toPrincipal(claims(null, "USER", true))).isEmpty();
+        assertThat(jwtTokenProvider.toPrincipal(claims(42L, null, true))).isEmpty();
+        assertThat(jwtTokenProvider.toPrincipal(claims(42L, "USER", null))).isEmpty();
+    }
+
+    @Test
+    void toPrincipal_WithGarbledClaims_ShouldReturnEmpty() {
+        assertThat(jwtTokenProvider.toPrincipal(claims("not-a-number", "USER", true))).isEmpty();
+        assertThat(jwtTokenProvider.toPrincipal(claims(42L, "SUPERUSER", true))).isEmpty();
+        assertThat(jwtTokenProvider.toPrincipal(claims(42L, 7, true))).isEmpty();
+    }
+
+    private static Claims claims(Object userId, Object role, Boolean enabled) {
+        return Jwts.claims()
+                .subject("test@example.com")
+                .add(JwtTokenProvider.CLAIM_USER_ID, userId)
+                .add(JwtTokenProvider.CLAIM_ROLE, role)
+                .add(JwtTokenProvider.CLAIM_ENABLED, enabled)
+                .build();
+    }
+}
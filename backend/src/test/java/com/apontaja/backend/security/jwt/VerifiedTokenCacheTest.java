@@ -0,0 +1,107 @@
+package com.apontaja.backend.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VerifiedTokenCacheTest {
+
+    private static final String TOKEN = "header.payload.signature";
+
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @BeforeEach
+    void setUp() {
+        verifiedTokenCache = new VerifiedTokenCache(jwtTokenProvider, new SimpleMeterRegistry(), 100);
+    }
+
+    @Test
+    void getVerifiedClaims_CalledTwice_ShouldVerifyOnce() {
+        // Given
+        Claims claims = claimsExpiringIn(60_000);
+        when(jwtTokenProvider.parseVerifiedClaims(TOKEN)).thenReturn(Optional.of(claims));
+
+        // When
+        Optional<Claims> first = verifiedTokenCache.getVerifiedClaims(TOKEN);
+        Optional<Claims> second = verifiedTokenCache.getVerifiedClaims(TOKEN);
+
+        // Then
+        assertThat(first).contains(claims);
+        assertThat(second).contains(claims);
+        verify(jwtTokenProvider, times(1)).parseVerifiedClaims(TOKEN);
+    }
+
+    @Test
+    void getVerifiedClaims_WithInvalidToken_ShouldVerifyItEveryTime() {
+        // Given
+        when(jwtTokenProvider.parseVerifiedClaims(TOKEN)).thenReturn(Optional.empty());
+
+        // When
+        Optional<Claims> first = verifiedTokenCache.getVerifiedClaims(TOKEN);
+        Optional<Claims> second = verifiedTokenCache.getVerifiedClaims(TOKEN);
+
+        // Then
+        assertThat(first).isEmpty();
+        assertThat(second).isEmpty();
+        verify(jwtTokenProvider, times(2)).parseVerifiedClaims(TOKEN);
+    }
+
+    @Test
+    void getVerifiedClaims_WithTokenExpiredOnceVerified_ShouldNotServeItFromCache() {
+        // Given: the token expired between its verification and the next request
+        when(jwtTokenProvider.parseVerifiedClaims(TOKEN))
+                .thenReturn(Optional.of(claimsExpiringIn(-1)))
+                .thenReturn(Optional.empty());
+
+        // When
+        verifiedTokenCache.getVerifiedClaims(TOKEN);
+        Optional<Claims> second = verifiedTokenCache.getVerifiedClaims(TOKEN);
+
+        // Then
+        assertThat(second).isEmpty();
+        verify(jwtTokenProvider, times(2)).parseVerifiedClaims(TOKEN);
+    }
+
+    @Test
+    void tokenExpiry_ShouldNeverOutliveTheTokenExp() {
+        // Given
+        VerifiedTokenCache.TokenExpiry expiry = new VerifiedTokenCache.TokenExpiry();
+        long remainingMs = 30_000;
+        Claims claims = claimsExpiringIn(remainingMs);
+
+        // When
+        long afterCreate = expiry.expireAfterCreate(TOKEN, claims, 0);
+        long afterUpdate = expiry.expireAfterUpdate(TOKEN, claims, 0, Long.MAX_VALUE);
+        long afterRead = expiry.expireAfterRead(TOKEN, claims, 0, afterCreate);
+
+        // Then
+        assertThat(afterCreate).isPositive().isLessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(remainingMs));
+        assertThat(afterUpdate).isLessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(remainingMs));
+        assertThat(afterRead).isEqualTo(afterCreate);
+        assertThat(expiry.expireAfterCreate(TOKEN, claimsExpiringIn(-1_000), 0)).isZero();
+        assertThat(expiry.expireAfterCreate(TOKEN, Jwts.claims().subject("no-exp").build(), 0)).isZero();
+    }
+
+    private static Claims claimsExpiringIn(long millis) {
+        return Jwts.claims()
+                .subject("test@example.com")
+                .expiration(new Date(System.currentTimeMillis() + millis))
+                .build();
+    }
+}
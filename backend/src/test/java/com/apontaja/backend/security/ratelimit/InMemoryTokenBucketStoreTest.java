@@ -0,0 +1,90 @@
+package com.apontaja.backend.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryTokenBucketStoreTest {
+
+    private static final BucketSpec SPEC = new BucketSpec("test", 3, Duration.ofMinutes(3));
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    private final InMemoryTokenBucketStore store = new InMemoryTokenBucketStore();
+
+    @Test
+    void tryConsume_WhenEmpty_ShouldRejectUntilATokenRefills() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            assertThat(store.tryConsume("key", SPEC, NOW).consumed()).isTrue();
+        }
+
+        // When
+        ConsumptionProbe rejected = store.tryConsume("key", SPEC, NOW.plusSeconds(30));
+        ConsumptionProbe refilled = store.tryConsume("key", SPEC, NOW.plusSeconds(60));
+
+        // Then
+        assertThat(rejected.consumed()).isFalse();
+        assertThat(rejected.retryAfter()).isEqualTo(Duration.ofSeconds(30));
+        assertThat(refilled.consumed()).isTrue();
+    }
+
+    @Test
+    void timeUntilToken_ShouldNotConsume() {
+        // Given
+        store.tryConsume("key", SPEC, NOW);
+
+        // When
+        Duration wait = store.timeUntilToken("key", SPEC, NOW);
+
+        // Then
+        assertThat(wait).isZero();
+        assertThat(store.tryConsume("key", SPEC, NOW).consumed()).isTrue();
+        assertThat(store.tryConsume("key", SPEC, NOW).consumed()).isTrue();
+        assertThat(store.tryConsume("key", SPEC, NOW).consumed()).isFalse();
+    }
+
+    @Test
+    void tryConsume_FromManyThreads_ShouldNeverHandOutMoreThanCapacity() throws Exception {
+        // Given
+        BucketSpec spec = new BucketSpec("test", 100, Duration.ofDays(1));
+        AtomicInteger consumed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 1000; i++) {
+                executor.submit(() -> {
+                    start.await();
+                    if (store.tryConsume("key", spec, NOW).consumed()) {
+                        consumed.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        }
+
+        // Then
+        assertThat(consumed.get()).isEqualTo(100);
+    }
+
+    @Test
+    void evictIdleSince_ShouldDropOnlyBucketsUntouchedSinceCutoff() {
+        // Given
+        store.tryConsume("idle", SPEC, NOW);
+        store.tryConsume("active", SPEC, NOW.plusSeconds(600));
+
+        // When
+        int evicted = store.evictIdleSince(NOW.plusSeconds(300));
+
+        // Then
+        assertThat(evicted).isEqualTo(1);
+        assertThat(store.size()).isEqualTo(1);
+    }
+}
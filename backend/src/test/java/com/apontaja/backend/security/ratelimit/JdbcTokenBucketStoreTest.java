@@ -0,0 +1,108 @@
+package com.apontaja.backend.security.ratelimit;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the upsert against the Flyway schema on a real PostgreSQL, the only database it supports.
+ */
+class JdbcTokenBucketStoreTest {
+
+    private static final BucketSpec SPEC = new BucketSpec("test", 3, Duration.ofMinutes(3));
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+
+    private final JdbcTokenBucketStore store = new JdbcTokenBucketStore(jdbcTemplate);
+
+    @BeforeAll
+    static void startPostgres() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM rate_limit_buckets");
+    }
+
+    @Test
+    void tryConsume_WhenEmpty_ShouldRejectUntilATokenRefills() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            assertThat(store.tryConsume("key", SPEC, NOW).consumed()).isTrue();
+        }
+
+        // When
+        ConsumptionProbe rejected = store.tryConsume("key", SPEC, NOW.plusSeconds(30));
+        ConsumptionProbe refilled = store.tryConsume("key", SPEC, NOW.plusSeconds(60));
+
+        // Then
+        assertThat(rejected.consumed()).isFalse();
+        assertThat(rejected.retryAfter()).isEqualTo(Duration.ofSeconds(30));
+        assertThat(refilled.consumed()).isTrue();
+    }
+
+    @Test
+    void tryConsume_FromManyConnections_ShouldNeverHandOutMoreThanCapacity() throws Exception {
+        // Given
+        BucketSpec spec = new BucketSpec("test", 20, Duration.ofDays(1));
+        AtomicInteger consumed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 100; i++) {
+                executor.submit(() -> {
+                    start.await();
+                    if (store.tryConsume("key", spec, NOW).consumed()) {
+                        consumed.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        }
+
+        // Then
+        assertThat(consumed.get()).isEqualTo(20);
+    }
+
+    @Test
+    void resetAndEvict_ShouldRemoveBuckets() {
+        // Given
+        store.tryConsume("reset", SPEC, NOW);
+        store.tryConsume("idle", SPEC, NOW);
+        store.tryConsume("active", SPEC, NOW.plusSeconds(600));
+
+        // When
+        store.reset("reset");
+        int evicted = store.evictIdleSince(NOW.plusSeconds(300));
+
+        // Then
+        assertThat(evicted).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("SELECT bucket_key FROM rate_limit_buckets", String.class))
+                .containsExactly("active");
+    }
+}
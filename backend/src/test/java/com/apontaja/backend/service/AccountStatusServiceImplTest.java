@@ -0,0 +1,107 @@
+package com.apontaja.backend.service;
+
+import com.apontaja.backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountStatusServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private AccountStatusServiceImpl accountStatusService;
+
+    @BeforeEach
+    void setUp() {
+        accountStatusService = new AccountStatusServiceImpl(
+                userRepository, new SimpleMeterRegistry(), Duration.ofSeconds(30), 100);
+    }
+
+    @Test
+    void isActive_WithEnabledUser_ShouldReturnTrue() {
+        // Given
+        when(userRepository.findEnabledById(1L)).thenReturn(Optional.of(true));
+
+        // When & Then
+        assertThat(accountStatusService.isActive(1L)).isTrue();
+    }
+
+    @Test
+    void isActive_WithDisabledUser_ShouldReturnFalse() {
+        // Given
+        when(userRepository.findEnabledById(1L)).thenReturn(Optional.of(false));
+
+        // When & Then
+        assertThat(accountStatusService.isActive(1L)).isFalse();
+    }
+
+    @Test
+    void isActive_WithUnknownUser_ShouldReturnFalse() {
+        // Given
+        when(userRepository.findEnabledById(99L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThat(accountStatusService.isActive(99L)).isFalse();
+    }
+
+    @Test
+    void isActive_CalledTwice_ShouldQueryDatabaseOnce() {
+        // Given
+        when(userRepository.findEnabledById(1L)).thenReturn(Optional.of(true));
+
+        // When
+        accountStatusService.isActive(1L);
+        accountStatusService.isActive(1L);
+
+        // Then
+        verify(userRepository, times(1)).findEnabledById(1L);
+    }
+
+    @Test
+    void invalidate_ShouldForceNextCheckToQueryDatabase() {
+        // Given
+        when(userRepository.findEnabledById(1L))
+                .thenReturn(Optional.of(true))
+                .thenReturn(Optional.of(false));
+        accountStatusService.isActive(1L);
+
+        // When
+        accountStatusService.invalidate(1L);
+
+        // Then
+        assertThat(accountStatusService.isActive(1L)).isFalse();
+        verify(userRepository, times(2)).findEnabledById(1L);
+    }
+
+    @Test
+    void isActive_WhenInvalidatedDuringQuery_ShouldNotCacheStaleStatus() {
+        // Given
+        when(userRepository.findEnabledById(1L))
+                .thenAnswer(invocation -> {
+                    // The account is disabled and evicted while the first query is in flight
+                    accountStatusService.invalidate(1L);
+                    return Optional.of(true);
+                })
+                .thenReturn(Optional.of(false));
+
+        // When
+        boolean duringChange = accountStatusService.isActive(1L);
+        boolean afterChange = accountStatusService.isActive(1L);
+
+        // Then
+        assertThat(duringChange).isTrue();
+        assertThat(afterChange).isFalse();
+        verify(userRepository, times(2)).findEnabledById(1L);
+    }
+}
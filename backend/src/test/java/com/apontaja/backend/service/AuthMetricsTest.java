@@ -0,0 +1,61 @@
+package com.apontaja.backend.service;
+
+import com.apontaja.backend.exception.TokenRefreshException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuthMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuthMetrics authMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        authMetrics = new AuthMetrics(meterRegistry);
+    }
+
+    @Test
+    void record_WithSuccessfulCall_ShouldTimeItAndReturnResult() {
+        // When
+        String result = authMetrics.record(AuthMetrics.LOGIN, () -> "response");
+
+        // Then
+        assertThat(result).isEqualTo("response");
+        assertThat(meterRegistry.get("auth.requests").tags("operation", "login", "outcome", "success").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("auth.outcomes").tags("operation", "login", "outcome", "success").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void record_WithExpiredRefreshToken_ShouldTagOutcomeAndRethrow() {
+        // Given
+        TokenRefreshException expired = new TokenRefreshException("token", TokenRefreshException.Reason.EXPIRED, "Refresh token was expired");
+
+        // When & Then
+        assertThatThrownBy(() -> authMetrics.record(AuthMetrics.REFRESH, () -> {
+            throw expired;
+        })).isSameAs(expired);
+
+        assertThat(meterRegistry.get("auth.requests").tags("operation", "refresh", "outcome", "expired_refresh").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void rejected_OutsideAuthEndpoints_ShouldNotCreateSeries() {
+        // When
+        authMetrics.rejected("/api/auth/register", AuthMetrics.VALIDATION_ERROR);
+        authMetrics.rejected("/api/auth/unknown", AuthMetrics.VALIDATION_ERROR);
+        authMetrics.rejected("/api/users/me", AuthMetrics.VALIDATION_ERROR);
+
+        // Then
+        assertThat(meterRegistry.find("auth.outcomes").counters()).hasSize(1);
+        assertThat(meterRegistry.get("auth.outcomes").tags("operation", "register", "outcome", "validation_error").counter().count())
+                .isEqualTo(1.0);
+    }
+}
@@ -5,6 +5,7 @@ import com.apontaja.backend.dto.LoginRequest;
 import com.apontaja.backend.dto.RefreshTokenRequest;
 import com.apontaja.backend.dto.RegisterRequest;
 import com.apontaja.backend.exception.TokenRefreshException;
+import com.apontaja.backend.exception.TooManyRequestsException;
 import com.apontaja.backend.model.RefreshToken;
 import com.apontaja.backend.model.Role;
 import com.apontaja.backend.model.User;
@@ -13,13 +14,18 @@ import com.apontaja.backend.security.jwt.JwtTokenProvider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.util.Optional;
@@ -27,7 +33,6 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -51,6 +56,15 @@ class AuthenticationServiceImplTest {
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private LoginAttemptService loginAttemptService;
+
+    @Mock
+    private RegisteredEmailFilter registeredEmailFilter;
+
     @InjectMocks
     private AuthenticationServiceImpl authenticationService;
 
@@ -62,6 +76,9 @@ class AuthenticationServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
         registerRequest = RegisterRequest.builder()
                 .email("test@example.com")
                 .password("Password123!")
@@ -99,10 +116,10 @@ class AuthenticationServiceImplTest {
     @Test
     void register_WithNewEmail_ShouldCreateUserAndReturnAuthResponse() {
         // Given
-        when(userRepository.existsByEmail(registerRequest.getEmail())).thenReturn(false);
+        when(registeredEmailFilter.mightContain(registerRequest.getEmail())).thenReturn(false);
         when(passwordEncoder.encode(registerRequest.getPassword())).thenReturn("encoded-password");
-        when(userRepository.save(any(User.class))).thenReturn(user);
-        when(jwtTokenProvider.generateAccessToken(registerRequest.getEmail())).thenReturn("access-token");
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
+        when(jwtTokenProvider.generateAccessToken(any(User.class))).thenReturn("access-token");
         when(jwtTokenProvider.getAccessTokenExpiration()).thenReturn(3600L);
         when(refreshTokenService.createRefreshToken(any(User.class))).thenReturn(refreshToken);
 
@@ -116,17 +133,18 @@ class AuthenticationServiceImplTest {
         assertThat(response.getTokenType()).isEqualTo("Bearer");
         assertThat(response.getExpiresIn()).isEqualTo(3600L);
 
-        verify(userRepository).existsByEmail(registerRequest.getEmail());
+        verify(userRepository, never()).existsByEmail(any());
         verify(passwordEncoder).encode(registerRequest.getPassword());
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
         verify(emailService).sendRegistrationVerificationEmail(registerRequest.getEmail(), registerRequest.getFirstName());
-        verify(jwtTokenProvider).generateAccessToken(registerRequest.getEmail());
+        verify(jwtTokenProvider).generateAccessToken(user);
         verify(refreshTokenService).createRefreshToken(any(User.class));
     }
 
     @Test
     void register_WithExistingEmail_ShouldSendNotificationAndThrowException() {
         // Given
+        when(registeredEmailFilter.mightContain(registerRequest.getEmail())).thenReturn(true);
         when(userRepository.existsByEmail(registerRequest.getEmail())).thenReturn(true);
 
         // When & Then
@@ -136,8 +154,40 @@ class AuthenticationServiceImplTest {
 
         verify(userRepository).existsByEmail(registerRequest.getEmail());
         verify(emailService).sendExistingEmailNotification(registerRequest.getEmail());
-        verify(userRepository, never()).save(any(User.class));
-        verify(jwtTokenProvider, never()).generateAccessToken(anyString());
+        verify(userRepository, never()).saveAndFlush(any(User.class));
+        verify(jwtTokenProvider, never()).generateAccessToken(any(User.class));
+    }
+
+    @Test
+    void register_WhenFilterMatchesUnknownEmail_ShouldRecordFalsePositiveAndRegister() {
+        // Given
+        when(registeredEmailFilter.mightContain(registerRequest.getEmail())).thenReturn(true);
+        when(userRepository.existsByEmail(registerRequest.getEmail())).thenReturn(false);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
+        when(refreshTokenService.createRefreshToken(any(User.class))).thenReturn(refreshToken);
+
+        // When
+        authenticationService.register(registerRequest);
+
+        // Then
+        verify(registeredEmailFilter).recordFalsePositive();
+        verify(userRepository).saveAndFlush(any(User.class));
+    }
+
+    @Test
+    void register_WhenUniqueConstraintFails_ShouldTreatEmailAsExisting() {
+        // Given
+        when(registeredEmailFilter.mightContain(registerRequest.getEmail())).thenReturn(false);
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint"));
+
+        // When & Then
+        assertThatThrownBy(() -> authenticationService.register(registerRequest))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Registration request processed");
+
+        verify(emailService).sendExistingEmailNotification(registerRequest.getEmail());
+        verify(jwtTokenProvider, never()).generateAccessToken(any(User.class));
     }
 
     @Test
@@ -165,14 +215,82 @@ class AuthenticationServiceImplTest {
         verify(refreshTokenService).deleteByUser(user);
         verify(jwtTokenProvider).generateAccessToken(authentication);
         verify(refreshTokenService).createRefreshToken(user);
+        verify(loginAttemptService).loginSucceeded(loginRequest.getEmail());
     }
 
     @Test
-    void refreshToken_WithValidToken_ShouldReturnNewAuthResponse() {
+    void login_ShouldCheckPasswordBeforeOpeningTransaction() {
         // Given
-        when(refreshTokenService.findByToken("valid-refresh-token")).thenReturn(Optional.of(refreshToken));
-        when(refreshTokenService.verifyExpiration(refreshToken)).thenReturn(refreshToken);
-        when(jwtTokenProvider.generateAccessToken(user.getEmail())).thenReturn("new-access-token");
+        Authentication authentication = mock(Authentication.class);
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(authentication);
+        when(authentication.getPrincipal()).thenReturn(user);
+        when(refreshTokenService.createRefreshToken(user)).thenReturn(refreshToken);
+
+        // When
+        authenticationService.login(loginRequest);
+
+        // Then
+        InOrder inOrder = inOrder(authenticationManager, transactionTemplate, refreshTokenService);
+        inOrder.verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
+        inOrder.verify(transactionTemplate).execute(any());
+        inOrder.verify(refreshTokenService).deleteByUser(user);
+        inOrder.verify(refreshTokenService).createRefreshToken(user);
+    }
+
+    @Test
+    void login_WhenRateLimited_ShouldRejectBeforeCheckingPassword() {
+        // Given
+        doThrow(new TooManyRequestsException("Too many attempts, please retry later", 60))
+                .when(loginAttemptService).checkLogin(loginRequest.getEmail());
+
+        // When & Then
+        assertThatThrownBy(() -> authenticationService.login(loginRequest))
+                .isInstanceOf(TooManyRequestsException.class);
+
+        verify(authenticationManager, never()).authenticate(any());
+        verify(refreshTokenService, never()).createRefreshToken(any(User.class));
+    }
+
+    @Test
+    void login_WithWrongPassword_ShouldRecordFailure() {
+        // Given
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+
+        // When & Then
+        assertThatThrownBy(() -> authenticationService.login(loginRequest))
+                .isInstanceOf(BadCredentialsException.class);
+
+        verify(loginAttemptService).loginFailed(loginRequest.getEmail());
+        verify(loginAttemptService, never()).loginSucceeded(any());
+    }
+
+    @Test
+    void register_WhenRateLimited_ShouldRejectBeforeHashingPassword() {
+        // Given
+        doThrow(new TooManyRequestsException("Too many attempts, please retry later", 60))
+                .when(loginAttemptService).checkRegistration();
+
+        // When & Then
+        assertThatThrownBy(() -> authenticationService.register(registerRequest))
+                .isInstanceOf(TooManyRequestsException.class);
+
+        verify(passwordEncoder, never()).encode(any());
+        verify(userRepository, never()).saveAndFlush(any(User.class));
+    }
+
+    @Test
+    void refreshToken_WithValidToken_ShouldReturnNewAuthResponseWithRotatedToken() {
+        // Given
+        RefreshToken successor = RefreshToken.builder()
+                .id(2L)
+                .token("rotated-refresh-token")
+                .user(user)
+                .expiryDate(refreshToken.getExpiryDate())
+                .build();
+        when(refreshTokenService.rotate("valid-refresh-token")).thenReturn(successor);
+        when(jwtTokenProvider.generateAccessToken(user)).thenReturn("new-access-token");
         when(jwtTokenProvider.getAccessTokenExpiration()).thenReturn(3600L);
 
         // When
@@ -181,19 +299,20 @@ class AuthenticationServiceImplTest {
         // Then
         assertThat(response).isNotNull();
         assertThat(response.getAccessToken()).isEqualTo("new-access-token");
-        assertThat(response.getRefreshToken()).isEqualTo("valid-refresh-token");
+        assertThat(response.getRefreshToken()).isEqualTo("rotated-refresh-token");
         assertThat(response.getTokenType()).isEqualTo("Bearer");
         assertThat(response.getExpiresIn()).isEqualTo(3600L);
 
-        verify(refreshTokenService).findByToken("valid-refresh-token");
-        verify(refreshTokenService).verifyExpiration(refreshToken);
-        verify(jwtTokenProvider).generateAccessToken(user.getEmail());
+        verify(refreshTokenService).rotate("valid-refresh-token");
+        verifyNoMoreInteractions(refreshTokenService);
+        verify(jwtTokenProvider).generateAccessToken(user);
     }
 
     @Test
     void refreshToken_WithInvalidToken_ShouldThrowTokenRefreshException() {
         // Given
-        when(refreshTokenService.findByToken("invalid-token")).thenReturn(Optional.empty());
+        when(refreshTokenService.rotate("invalid-token"))
+                .thenThrow(new TokenRefreshException("invalid-token", "Refresh token not found"));
         RefreshTokenRequest invalidRequest = RefreshTokenRequest.builder()
                 .refreshToken("invalid-token")
                 .build();
@@ -203,33 +322,16 @@ class AuthenticationServiceImplTest {
                 .isInstanceOf(TokenRefreshException.class)
                 .hasMessageContaining("Refresh token not found");
 
-        verify(refreshTokenService).findByToken("invalid-token");
-        verify(jwtTokenProvider, never()).generateAccessToken(anyString());
+        verify(jwtTokenProvider, never()).generateAccessToken(any(User.class));
     }
 
     @Test
-    void logout_WithValidRefreshToken_ShouldDeleteToken() {
-        // Given
-        when(refreshTokenService.findByToken("valid-refresh-token")).thenReturn(Optional.of(refreshToken));
-
+    void logout_ShouldRevokeTokenFamilyWithoutLoadingIt() {
         // When
         authenticationService.logout("valid-refresh-token");
 
         // Then
-        verify(refreshTokenService).findByToken("valid-refresh-token");
-        verify(refreshTokenService).deleteToken(refreshToken);
-    }
-
-    @Test
-    void logout_WithInvalidRefreshToken_ShouldNotDeleteToken() {
-        // Given
-        when(refreshTokenService.findByToken("invalid-token")).thenReturn(Optional.empty());
-
-        // When
-        authenticationService.logout("invalid-token");
-
-        // Then
-        verify(refreshTokenService).findByToken("invalid-token");
-        verify(refreshTokenService, never()).deleteToken(any(RefreshToken.class));
+        verify(refreshTokenService).revokeFamily("valid-refresh-token");
+        verifyNoMoreInteractions(refreshTokenService);
     }
 }
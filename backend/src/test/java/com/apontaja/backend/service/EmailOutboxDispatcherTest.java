@@ -0,0 +1,193 @@
+package com.apontaja.backend.service;
+
+import com.apontaja.backend.config.tracing.Tracing;
+import com.apontaja.backend.model.EmailOutboxMessage;
+import com.apontaja.backend.model.EmailOutboxStatus;
+import com.apontaja.backend.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxDispatcherTest {
+
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Mock
+    private JavaMailSender mailSender;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Captor
+    private ArgumentCaptor<List<EmailOutboxMessage>> failedCaptor;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EmailOutboxDispatcher dispatcher;
+
+    private EmailOutboxMessage first;
+    private EmailOutboxMessage second;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new EmailOutboxDispatcher(emailOutboxRepository, mailSender, transactionManager, meterRegistry,
+                Tracing.noop());
+        ReflectionTestUtils.setField(dispatcher, "fromEmail", "noreply@apontaja.com");
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 50);
+        ReflectionTestUtils.setField(dispatcher, "maxBatchesPerRun", 10);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoff", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(dispatcher, "maxBackoff", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(dispatcher, "lease", Duration.ofMinutes(5));
+
+        first = message(1L, "first@example.com");
+        second = message(2L, "second@example.com");
+    }
+
+    @Test
+    void dispatchBatch_WithDueMessages_ShouldSendAllOverOneCallAndMarkSent() {
+        // Given
+        when(emailOutboxRepository.findPendingDueForUpdate(any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(first, second));
+
+        // When
+        int dispatched = dispatcher.dispatchBatch();
+
+        // Then
+        assertThat(dispatched).isEqualTo(2);
+        verify(mailSender, times(1)).send(any(SimpleMailMessage[].class));
+        verify(emailOutboxRepository).markSent(eq(List.of(1L, 2L)), eq(EmailOutboxStatus.SENT), any(Instant.class));
+        verify(emailOutboxRepository, never()).saveAll(anyList());
+        assertThat(meterRegistry.get("mail.send").tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void dispatchBatch_FromVirtualThread_ShouldTalkToSmtpOnPlatformThread() throws Exception {
+        // Given
+        when(emailOutboxRepository.findPendingDueForUpdate(any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(first));
+        AtomicReference<Thread> sendingThread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            sendingThread.set(Thread.currentThread());
+            return null;
+        }).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        // When
+        Thread.ofVirtual().start(dispatcher::dispatchBatch).join();
+
+        // Then
+        assertThat(sendingThread.get().isVirtual()).isFalse();
+        assertThat(sendingThread.get().getName()).isEqualTo("email-outbox-smtp");
+        verify(emailOutboxRepository).markSent(eq(List.of(1L)), eq(EmailOutboxStatus.SENT), any(Instant.class));
+    }
+
+    @Test
+    void dispatchBatch_WithNothingDue_ShouldNotContactMailServer() {
+        // Given
+        when(emailOutboxRepository.findPendingDueForUpdate(any(), any())).thenReturn(List.of());
+
+        // When
+        int dispatched = dispatcher.dispatchBatch();
+
+        // Then
+        assertThat(dispatched).isZero();
+        verifyNoInteractions(mailSender);
+    }
+
+    @Test
+    void dispatchBatch_WhenMailServerFails_ShouldScheduleRetryWithBackoff() {
+        // Given
+        when(emailOutboxRepository.findPendingDueForUpdate(any(), any())).thenReturn(List.of(first));
+        doThrow(new MailSendException("Connection refused")).when(mailSender).send(any(SimpleMailMessage[].class));
+        Instant before = Instant.now();
+
+        // When
+        dispatcher.dispatchBatch();
+
+        // Then
+        verify(emailOutboxRepository).saveAll(failedCaptor.capture());
+        EmailOutboxMessage retried = failedCaptor.getValue().get(0);
+        assertThat(retried.getStatus()).isEqualTo(EmailOutboxStatus.PENDING);
+        assertThat(retried.getAttempts()).isEqualTo(1);
+        assertThat(retried.getLastError()).contains("Connection refused");
+        assertThat(retried.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(30));
+        verify(emailOutboxRepository, never()).markSent(anyList(), any(), any());
+        assertThat(meterRegistry.get("mail.send").tag("outcome", "failure").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void dispatchBatch_OnLastAttempt_ShouldMoveMessageToDeadLetter() {
+        // Given
+        first.setAttempts(2);
+        when(emailOutboxRepository.findPendingDueForUpdate(any(), any())).thenReturn(List.of(first));
+        doThrow(new MailSendException("Mailbox unavailable")).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        // When
+        dispatcher.dispatchBatch();
+
+        // Then
+        verify(emailOutboxRepository).saveAll(failedCaptor.capture());
+        assertThat(failedCaptor.getValue().get(0).getStatus()).isEqualTo(EmailOutboxStatus.DEAD);
+    }
+
+    @Test
+    void dispatchBatch_WithIdenticalMailsWhenOneFails_ShouldRetryOnlyTheFailedOne() {
+        // Given: two identical notices to the same address, the second one rejected
+        EmailOutboxMessage duplicate = message(3L, "first@example.com");
+        when(emailOutboxRepository.findPendingDueForUpdate(any(), any())).thenReturn(List.of(first, duplicate));
+        doAnswer(invocation -> {
+            throw new MailSendException(Map.of(invocation.getArgument(1), new MessagingException("Mailbox busy")));
+        }).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        // When
+        dispatcher.dispatchBatch();
+
+        // Then
+        verify(emailOutboxRepository).markSent(eq(List.of(1L)), eq(EmailOutboxStatus.SENT), any(Instant.class));
+        verify(emailOutboxRepository).saveAll(failedCaptor.capture());
+        assertThat(failedCaptor.getValue()).extracting(EmailOutboxMessage::getId).containsExactly(3L);
+        assertThat(meterRegistry.get("mail.send").tag("outcome", "partial").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void backoff_ShouldDoubleEachAttemptUpToMaximum() {
+        assertThat(dispatcher.backoff(1)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(dispatcher.backoff(2)).isEqualTo(Duration.ofSeconds(60));
+        assertThat(dispatcher.backoff(3)).isEqualTo(Duration.ofSeconds(120));
+        assertThat(dispatcher.backoff(10)).isEqualTo(Duration.ofMinutes(10));
+    }
+
+    private static EmailOutboxMessage message(Long id, String recipient) {
+        return EmailOutboxMessage.builder()
+                .id(id)
+                .recipient(recipient)
+                .subject("Subject")
+                .body("Body")
+                .nextAttemptAt(Instant.now())
+                .build();
+    }
+}
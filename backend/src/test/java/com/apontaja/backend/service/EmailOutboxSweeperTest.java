@@ -0,0 +1,119 @@
+package com.apontaja.backend.service;
+
+import com.apontaja.backend.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxSweeperTest {
+
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EmailOutboxSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new EmailOutboxSweeper(emailOutboxRepository, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(sweeper, "batchSize", 2);
+        ReflectionTestUtils.setField(sweeper, "maxRunDuration", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(sweeper, "sentRetention", Duration.ofDays(7));
+        ReflectionTestUtils.setField(sweeper, "deadRetention", Duration.ofDays(30));
+    }
+
+    @Test
+    void sweep_WithSeveralFullBatches_ShouldDeleteSentEmailsPastRetention() {
+        // Given
+        when(emailOutboxRepository.findSentIdsForUpdate(any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        when(emailOutboxRepository.findDeadIdsForUpdate(any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(emailOutboxRepository.deleteByIdIn(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        Instant before = Instant.now();
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(emailOutboxRepository, times(2)).findSentIdsForUpdate(cutoff.capture(), any(Pageable.class));
+        assertThat(cutoff.getValue()).isBetween(before.minus(Duration.ofDays(7)), Instant.now().minus(Duration.ofDays(7)));
+        verify(emailOutboxRepository, times(2)).deleteByIdIn(anyList());
+        assertThat(meterRegistry.get("mail.outbox.deleted").tag("status", "sent").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("mail.outbox.deleted").tag("status", "dead").counter().count()).isZero();
+    }
+
+    @Test
+    void sweep_WithDeadEmails_ShouldDeleteThosePastDeadRetention() {
+        // Given
+        when(emailOutboxRepository.findSentIdsForUpdate(any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(emailOutboxRepository.findDeadIdsForUpdate(any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(4L));
+        when(emailOutboxRepository.deleteByIdIn(anyList())).thenReturn(1);
+        Instant before = Instant.now();
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(emailOutboxRepository).findDeadIdsForUpdate(cutoff.capture(), any(Pageable.class));
+        assertThat(cutoff.getValue()).isBetween(before.minus(Duration.ofDays(30)), Instant.now().minus(Duration.ofDays(30)));
+        verify(emailOutboxRepository).deleteByIdIn(List.of(4L));
+        assertThat(meterRegistry.get("mail.outbox.deleted").tag("status", "dead").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void sweep_WithNothingPastRetention_ShouldNotDelete() {
+        // Given
+        when(emailOutboxRepository.findSentIdsForUpdate(any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(emailOutboxRepository.findDeadIdsForUpdate(any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        verify(emailOutboxRepository, never()).deleteByIdIn(anyList());
+    }
+
+    @Test
+    void sweep_WhenTimeBudgetIsSpent_ShouldStopAfterCurrentBatch() {
+        // Given
+        ReflectionTestUtils.setField(sweeper, "maxRunDuration", Duration.ZERO);
+        when(emailOutboxRepository.findSentIdsForUpdate(any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L));
+        when(emailOutboxRepository.deleteByIdIn(anyList())).thenReturn(2);
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        verify(emailOutboxRepository, times(1)).deleteByIdIn(anyList());
+        verify(emailOutboxRepository, never()).findDeadIdsForUpdate(any(Instant.class), any(Pageable.class));
+    }
+}
@@ -0,0 +1,101 @@
+package com.apontaja.backend.service;
+
+import com.apontaja.backend.exception.TooManyRequestsException;
+import com.apontaja.backend.security.ratelimit.InMemoryTokenBucketStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginAttemptServiceImplTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoginAttemptServiceImpl loginAttemptService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loginAttemptService = new LoginAttemptServiceImpl(new InMemoryTokenBucketStore(), meterRegistry, true,
+                3, Duration.ofMinutes(1),
+                2, Duration.ofMinutes(10),
+                1, Duration.ofHours(1));
+        fromIp("203.0.113.7");
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void checkLogin_AfterTooManyFailures_ShouldLockAccountWhateverTheCase() {
+        // Given
+        loginAttemptService.checkLogin("test@example.com");
+        loginAttemptService.loginFailed("test@example.com");
+        loginAttemptService.checkLogin("test@example.com");
+        loginAttemptService.loginFailed("Test@Example.com");
+        fromIp("198.51.100.1");
+
+        // When & Then
+        assertThatThrownBy(() -> loginAttemptService.checkLogin("TEST@example.com"))
+                .isInstanceOf(TooManyRequestsException.class)
+                .hasMessage("Too many attempts, please retry later")
+                .satisfies(ex -> assertThat(((TooManyRequestsException) ex).getRetryAfterSeconds()).isEqualTo(300));
+        assertThat(meterRegistry.get("auth.rate-limit.rejected").tag("limit", "login-account").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void loginSucceeded_ShouldClearFailures() {
+        // Given
+        loginAttemptService.loginFailed("test@example.com");
+        loginAttemptService.loginFailed("test@example.com");
+
+        // When
+        loginAttemptService.loginSucceeded("test@example.com");
+
+        // Then
+        assertThatCode(() -> loginAttemptService.checkLogin("test@example.com")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void checkLogin_OverIpLimit_ShouldRejectOnlyThatIp() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            loginAttemptService.checkLogin("user" + i + "@example.com");
+        }
+
+        // When & Then
+        assertThatThrownBy(() -> loginAttemptService.checkLogin("other@example.com"))
+                .isInstanceOf(TooManyRequestsException.class);
+        fromIp("198.51.100.1");
+        assertThatCode(() -> loginAttemptService.checkLogin("other@example.com")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void checkRegistration_OverIpLimit_ShouldReject() {
+        // Given
+        loginAttemptService.checkRegistration();
+
+        // When & Then
+        assertThatThrownBy(() -> loginAttemptService.checkRegistration())
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThat(meterRegistry.get("auth.rate-limit.rejected").tag("limit", "register-ip").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    private static void fromIp(String ip) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(ip);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}
@@ -4,7 +4,9 @@ import com.apontaja.backend.exception.TokenRefreshException;
 import com.apontaja.backend.model.RefreshToken;
 import com.apontaja.backend.model.Role;
 import com.apontaja.backend.model.User;
-import com.apontaja.backend.repository.RefreshTokenRepository;
+import com.apontaja.backend.repository.RefreshTokenState;
+import com.apontaja.backend.repository.RefreshTokenStore;
+import com.apontaja.backend.security.OpaqueTokens;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,17 +19,19 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.Instant;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class RefreshTokenServiceImplTest {
 
     @Mock
-    private RefreshTokenRepository refreshTokenRepository;
+    private RefreshTokenStore refreshTokenStore;
 
     @InjectMocks
     private RefreshTokenServiceImpl refreshTokenService;
@@ -37,7 +41,6 @@ class RefreshTokenServiceImplTest {
 
     private User user;
     private RefreshToken validToken;
-    private RefreshToken expiredToken;
     private static final Long REFRESH_TOKEN_DURATION_MS = 86400000L; // 24 heures
 
     @BeforeEach
@@ -57,22 +60,17 @@ class RefreshTokenServiceImplTest {
         validToken = RefreshToken.builder()
                 .id(1L)
                 .token("valid-token-123")
+                .tokenHash(OpaqueTokens.sha256("valid-token-123"))
                 .user(user)
+                .familyId(UUID.randomUUID())
                 .expiryDate(Instant.now().plusMillis(REFRESH_TOKEN_DURATION_MS))
                 .build();
-
-        expiredToken = RefreshToken.builder()
-                .id(2L)
-                .token("expired-token-456")
-                .user(user)
-                .expiryDate(Instant.now().minusMillis(3600000L)) // Expiré il y a 1 heure
-                .build();
     }
 
     @Test
     void createRefreshToken_WithValidUser_ShouldCreateAndSaveToken() {
         // Given
-        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> {
+        when(refreshTokenStore.save(any(RefreshToken.class))).thenAnswer(invocation -> {
             RefreshToken token = invocation.getArgument(0);
             return RefreshToken.builder()
                     .id(1L)
@@ -86,12 +84,13 @@ class RefreshTokenServiceImplTest {
         RefreshToken result = refreshTokenService.createRefreshToken(user);
 
         // Then
-        verify(refreshTokenRepository).save(refreshTokenCaptor.capture());
+        verify(refreshTokenStore).save(refreshTokenCaptor.capture());
         RefreshToken savedToken = refreshTokenCaptor.getValue();
 
         assertThat(result).isNotNull();
         assertThat(savedToken.getUser()).isEqualTo(user);
         assertThat(savedToken.getToken()).isNotNull().isNotEmpty();
+        assertThat(savedToken.getFamilyId()).isNotNull();
         assertThat(savedToken.getExpiryDate()).isAfter(Instant.now());
         assertThat(savedToken.getExpiryDate()).isBefore(Instant.now().plusMillis(REFRESH_TOKEN_DURATION_MS + 1000));
     }
@@ -99,7 +98,7 @@ class RefreshTokenServiceImplTest {
     @Test
     void createRefreshToken_ShouldGenerateUniqueToken() {
         // Given
-        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(refreshTokenStore.save(any(RefreshToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
         RefreshToken token1 = refreshTokenService.createRefreshToken(user);
@@ -107,81 +106,118 @@ class RefreshTokenServiceImplTest {
 
         // Then
         assertThat(token1.getToken()).isNotEqualTo(token2.getToken());
-        verify(refreshTokenRepository, times(2)).save(any(RefreshToken.class));
+        verify(refreshTokenStore, times(2)).save(any(RefreshToken.class));
     }
 
     @Test
-    void findByToken_WithExistingToken_ShouldReturnToken() {
+    void createRefreshToken_ShouldStoreOnlyDigestOfToken() {
         // Given
-        when(refreshTokenRepository.findByToken("valid-token-123")).thenReturn(Optional.of(validToken));
+        when(refreshTokenStore.save(any(RefreshToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
-        Optional<RefreshToken> result = refreshTokenService.findByToken("valid-token-123");
+        RefreshToken result = refreshTokenService.createRefreshToken(user);
 
         // Then
-        assertThat(result).isPresent().contains(validToken);
-        verify(refreshTokenRepository).findByToken("valid-token-123");
+        assertThat(result.getToken()).hasSize(43);
+        assertThat(result.getTokenHash()).hasSize(32).isEqualTo(OpaqueTokens.sha256(result.getToken()));
     }
 
     @Test
-    void findByToken_WithNonExistingToken_ShouldReturnEmpty() {
+    void rotate_WithUnusedToken_ShouldReturnSuccessorWithNewRawToken() {
         // Given
-        when(refreshTokenRepository.findByToken("non-existing-token")).thenReturn(Optional.empty());
+        RefreshToken successor = RefreshToken.builder()
+                .id(3L)
+                .user(user)
+                .familyId(validToken.getFamilyId())
+                .expiryDate(validToken.getExpiryDate())
+                .build();
+        when(refreshTokenStore.rotate(aryEq(OpaqueTokens.sha256("valid-token-123")), any(byte[].class), any(Instant.class)))
+                .thenAnswer(invocation -> {
+                    successor.setTokenHash(invocation.getArgument(1));
+                    return Optional.of(successor);
+                });
 
         // When
-        Optional<RefreshToken> result = refreshTokenService.findByToken("non-existing-token");
+        RefreshToken result = refreshTokenService.rotate("valid-token-123");
 
         // Then
-        assertThat(result).isEmpty();
-        verify(refreshTokenRepository).findByToken("non-existing-token");
+        assertThat(result.getUser()).isEqualTo(user);
+        assertThat(result.getToken()).isNotEqualTo("valid-token-123");
+        assertThat(result.getTokenHash()).isEqualTo(OpaqueTokens.sha256(result.getToken()));
+        verify(refreshTokenStore, never()).findByTokenHash(any(byte[].class));
     }
 
     @Test
-    void verifyExpiration_WithValidToken_ShouldReturnToken() {
-        // Given & When
-        RefreshToken result = refreshTokenService.verifyExpiration(validToken);
+    void rotate_WithAlreadyRotatedToken_ShouldRevokeWholeFamily() {
+        // Given
+        UUID familyId = UUID.randomUUID();
+        when(refreshTokenStore.rotate(any(byte[].class), any(byte[].class), any(Instant.class)))
+                .thenReturn(Optional.empty());
+        when(refreshTokenStore.findStateByTokenHash(aryEq(OpaqueTokens.sha256("valid-token-123"))))
+                .thenReturn(Optional.of(new RefreshTokenState(1L, 1L, familyId,
+                        Instant.now().plusSeconds(3600), Instant.now().minusSeconds(60))));
+        when(refreshTokenStore.deleteByFamilyId(familyId)).thenReturn(3);
 
-        // Then
-        assertThat(result).isEqualTo(validToken);
-        verify(refreshTokenRepository, never()).delete(any(RefreshToken.class));
+        // When & Then
+        assertThatThrownBy(() -> refreshTokenService.rotate("valid-token-123"))
+                .isInstanceOf(TokenRefreshException.class)
+                .hasMessageContaining("already used");
+
+        verify(refreshTokenStore).deleteByFamilyId(familyId);
+        verify(refreshTokenStore, never()).findByTokenHash(any(byte[].class));
     }
 
     @Test
-    void verifyExpiration_WithExpiredToken_ShouldDeleteTokenAndThrowException() {
+    void rotate_WithExpiredToken_ShouldDeleteItAndThrow() {
         // Given
-        doNothing().when(refreshTokenRepository).delete(expiredToken);
+        when(refreshTokenStore.rotate(any(byte[].class), any(byte[].class), any(Instant.class)))
+                .thenReturn(Optional.empty());
+        when(refreshTokenStore.findStateByTokenHash(aryEq(OpaqueTokens.sha256("expired-token-456"))))
+                .thenReturn(Optional.of(new RefreshTokenState(2L, 1L, UUID.randomUUID(),
+                        Instant.now().minusSeconds(3600), null)));
 
         // When & Then
-        assertThatThrownBy(() -> refreshTokenService.verifyExpiration(expiredToken))
+        assertThatThrownBy(() -> refreshTokenService.rotate("expired-token-456"))
                 .isInstanceOf(TokenRefreshException.class)
-                .hasMessageContaining("Refresh token was expired")
-                .hasMessageContaining("expired-token-456");
+                .hasMessageContaining("Refresh token was expired");
 
-        verify(refreshTokenRepository).delete(expiredToken);
+        verify(refreshTokenStore).deleteByTokenHash(aryEq(OpaqueTokens.sha256("expired-token-456")));
+        verify(refreshTokenStore, never()).deleteByFamilyId(any());
     }
 
     @Test
-    void deleteByUser_WithValidUser_ShouldDeleteTokens() {
+    void rotate_WithUnknownToken_ShouldThrowNotFound() {
         // Given
-        doNothing().when(refreshTokenRepository).deleteByUser(user);
+        when(refreshTokenStore.rotate(any(byte[].class), any(byte[].class), any(Instant.class)))
+                .thenReturn(Optional.empty());
+        when(refreshTokenStore.findStateByTokenHash(any(byte[].class))).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> refreshTokenService.rotate("unknown-token"))
+                .isInstanceOf(TokenRefreshException.class)
+                .hasMessageContaining("Refresh token not found");
+    }
+
+    @Test
+    void revokeFamily_ShouldDeleteByDigestInOneStatement() {
+        // Given
+        when(refreshTokenStore.deleteFamilyByTokenHash(aryEq(OpaqueTokens.sha256("valid-token-123")))).thenReturn(2);
 
         // When
-        refreshTokenService.deleteByUser(user);
+        refreshTokenService.revokeFamily("valid-token-123");
 
         // Then
-        verify(refreshTokenRepository).deleteByUser(user);
+        verify(refreshTokenStore).deleteFamilyByTokenHash(aryEq(OpaqueTokens.sha256("valid-token-123")));
+        verifyNoMoreInteractions(refreshTokenStore);
     }
 
     @Test
-    void deleteToken_WithValidToken_ShouldDeleteToken() {
-        // Given
-        doNothing().when(refreshTokenRepository).delete(validToken);
-
+    void deleteByUser_WithValidUser_ShouldDeleteTokens() {
         // When
-        refreshTokenService.deleteToken(validToken);
+        refreshTokenService.deleteByUser(user);
 
         // Then
-        verify(refreshTokenRepository).delete(validToken);
+        verify(refreshTokenStore).deleteByUser(user);
     }
 
     @Test
@@ -189,7 +225,7 @@ class RefreshTokenServiceImplTest {
         // Given
         Long customDuration = 3600000L; // 1 heure
         ReflectionTestUtils.setField(refreshTokenService, "refreshTokenDurationMs", customDuration);
-        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(refreshTokenStore.save(any(RefreshToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
         RefreshToken result = refreshTokenService.createRefreshToken(user);
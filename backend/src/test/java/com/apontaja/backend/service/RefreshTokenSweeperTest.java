@@ -0,0 +1,132 @@
+package com.apontaja.backend.service;
+
+import com.apontaja.backend.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenSweeperTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RefreshTokenSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new RefreshTokenSweeper(refreshTokenRepository, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(sweeper, "batchSize", 2);
+        ReflectionTestUtils.setField(sweeper, "maxRunDuration", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(sweeper, "reuseDetectionWindow", Duration.ofDays(1));
+    }
+
+    @Test
+    void sweep_WithSeveralFullBatches_ShouldKeepDeletingUntilBatchIsPartial() {
+        // Given
+        when(refreshTokenRepository.findExpiredIdsForUpdate(any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L, 4L))
+                .thenReturn(List.of(5L));
+        when(refreshTokenRepository.deleteByIdIn(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        when(refreshTokenRepository.estimateRowCount()).thenReturn(10L);
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        verify(refreshTokenRepository, times(3)).deleteByIdIn(anyList());
+        assertThat(meterRegistry.get("auth.refresh.tokens.deleted").counter().count()).isEqualTo(5);
+        assertThat(meterRegistry.get("auth.refresh.tokens.rows").gauge().value()).isEqualTo(10);
+    }
+
+    @Test
+    void sweep_WithNothingExpired_ShouldNotDelete() {
+        // Given
+        when(refreshTokenRepository.findExpiredIdsForUpdate(any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        verify(refreshTokenRepository, never()).deleteByIdIn(anyList());
+        assertThat(meterRegistry.get("auth.refresh.tokens.deleted").counter().count()).isZero();
+    }
+
+    @Test
+    void sweep_WithRotatedTokens_ShouldPruneThosePastReuseDetectionWindow() {
+        // Given
+        when(refreshTokenRepository.findExpiredIdsForUpdate(any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(refreshTokenRepository.findRotatedIdsForUpdate(any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        when(refreshTokenRepository.deleteByIdIn(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        Instant before = Instant.now();
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(refreshTokenRepository, times(2)).findRotatedIdsForUpdate(cutoff.capture(), any(Pageable.class));
+        assertThat(cutoff.getValue()).isBetween(before.minus(Duration.ofDays(1)), Instant.now().minus(Duration.ofDays(1)));
+        assertThat(meterRegistry.get("auth.refresh.tokens.pruned").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("auth.refresh.tokens.deleted").counter().count()).isZero();
+    }
+
+    @Test
+    void sweep_WhenTimeBudgetIsSpent_ShouldStopAfterCurrentBatch() {
+        // Given
+        ReflectionTestUtils.setField(sweeper, "maxRunDuration", Duration.ZERO);
+        when(refreshTokenRepository.findExpiredIdsForUpdate(any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L));
+        when(refreshTokenRepository.deleteByIdIn(anyList())).thenReturn(2);
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        verify(refreshTokenRepository, times(1)).deleteByIdIn(anyList());
+        verify(refreshTokenRepository, never()).findRotatedIdsForUpdate(any(Instant.class), any(Pageable.class));
+    }
+
+    @Test
+    void sweep_WhenRowEstimateIsUnsupported_ShouldStopAskingForIt() {
+        // Given
+        when(refreshTokenRepository.findExpiredIdsForUpdate(any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(refreshTokenRepository.estimateRowCount()).thenThrow(new InvalidDataAccessResourceUsageException("pg_class"));
+
+        // When
+        sweeper.sweep();
+        sweeper.sweep();
+
+        // Then
+        verify(refreshTokenRepository, times(1)).estimateRowCount();
+        verify(refreshTokenRepository, never()).count();
+        assertThat(meterRegistry.get("auth.refresh.tokens.rows").gauge().value()).isZero();
+    }
+}
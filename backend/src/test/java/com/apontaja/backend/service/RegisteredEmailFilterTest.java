@@ -0,0 +1,78 @@
+package com.apontaja.backend.service;
+
+import com.apontaja.backend.event.UserChangedEvent;
+import com.apontaja.backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RegisteredEmailFilterTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RegisteredEmailFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RegisteredEmailFilter(userRepository, transactionManager, meterRegistry, 10_000, 0.01);
+    }
+
+    @Test
+    void mightContain_BeforeRebuild_ShouldReportEveryEmailAsPossiblyPresent() {
+        // When & Then
+        assertThat(filter.mightContain("new@example.com")).isTrue();
+    }
+
+    @Test
+    void mightContain_AfterRebuild_ShouldKnowLoadedAndNewlyInsertedEmails() {
+        // Given
+        when(userRepository.streamAllEmails()).thenReturn(Stream.of("existing@example.com"));
+        filter.rebuild();
+
+        // When
+        filter.onUserChanged(new UserChangedEvent(2L, "registered@example.com"));
+
+        // Then
+        assertThat(filter.mightContain("Existing@Example.com")).isTrue();
+        assertThat(filter.mightContain("registered@example.com")).isTrue();
+        assertThat(filter.mightContain("new@example.com")).isFalse();
+        assertThat(meterRegistry.get("auth.email-filter.lookups").tag("result", "absent").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void mightContain_AtExpectedLoad_ShouldStayNearConfiguredFalsePositiveRate() {
+        // Given
+        when(userRepository.streamAllEmails())
+                .thenReturn(IntStream.range(0, 10_000).mapToObj(i -> "user" + i + "@example.com"));
+        filter.rebuild();
+
+        // When
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> filter.mightContain("unknown" + i + "@example.com"))
+                .count();
+
+        // Then
+        assertThat(falsePositives).isLessThan(200);
+        assertThat(meterRegistry.get("auth.email-filter.expected-false-positive-rate").gauge().value())
+                .isBetween(0.005, 0.02);
+        assertThat(meterRegistry.get("auth.email-filter.memory").gauge().value()).isLessThan(16 * 1024);
+    }
+}
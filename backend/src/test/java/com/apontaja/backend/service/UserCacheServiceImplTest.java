@@ -0,0 +1,195 @@
+package com.apontaja.backend.service;
+
+import com.apontaja.backend.event.UserChangedEvent;
+import com.apontaja.backend.model.Role;
+import com.apontaja.backend.model.User;
+import com.apontaja.backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private AccountStatusService accountStatusService;
+
+    private UserCacheServiceImpl userCacheService;
+
+    private User user;
+    private static final String TEST_EMAIL = "test@example.com";
+
+    @BeforeEach
+    void setUp() {
+        userCacheService = new UserCacheServiceImpl(
+                userRepository, accountStatusService, new SimpleMeterRegistry(), Duration.ofMinutes(5), 100);
+
+        user = User.builder()
+                .id(1L)
+                .email(TEST_EMAIL)
+                .password("encoded-password")
+                .firstName("John")
+                .lastName("Doe")
+                .role(Role.USER)
+                .enabled(true)
+                .build();
+    }
+
+    @Test
+    void findByEmail_CalledTwice_ShouldQueryDatabaseOnce() {
+        // Given
+        when(userRepository.findByEmail(TEST_EMAIL)).thenReturn(Optional.of(user));
+
+        // When
+        Optional<User> first = userCacheService.findByEmail(TEST_EMAIL);
+        Optional<User> second = userCacheService.findByEmail(TEST_EMAIL);
+
+        // Then
+        assertThat(first).contains(user);
+        assertThat(second).contains(user);
+        verify(userRepository, times(1)).findByEmail(TEST_EMAIL);
+    }
+
+    @Test
+    void findByEmail_WithUnknownEmail_ShouldNotCacheMiss() {
+        // Given
+        when(userRepository.findByEmail(TEST_EMAIL))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(user));
+
+        // When
+        Optional<User> beforeRegistration = userCacheService.findByEmail(TEST_EMAIL);
+        Optional<User> afterRegistration = userCacheService.findByEmail(TEST_EMAIL);
+
+        // Then
+        assertThat(beforeRegistration).isEmpty();
+        assertThat(afterRegistration).contains(user);
+    }
+
+    @Test
+    void onUserChanged_ShouldEvictUserAndAccountStatus() {
+        // Given
+        when(userRepository.findByEmail(TEST_EMAIL)).thenReturn(Optional.of(user));
+        userCacheService.findByEmail(TEST_EMAIL);
+
+        // When
+        userCacheService.onUserChanged(new UserChangedEvent(1L, TEST_EMAIL));
+        userCacheService.findByEmail(TEST_EMAIL);
+
+        // Then
+        verify(userRepository, times(2)).findByEmail(TEST_EMAIL);
+        verify(accountStatusService).invalidate(1L);
+    }
+
+    @Test
+    void onUserChanged_WithChangedEmail_ShouldEvictEntryUnderPreviousEmail() {
+        // Given
+        when(userRepository.findByEmail(TEST_EMAIL)).thenReturn(Optional.of(user));
+        userCacheService.findByEmail(TEST_EMAIL);
+
+        // When
+        userCacheService.onUserChanged(new UserChangedEvent(1L, "new@example.com"));
+        userCacheService.findByEmail(TEST_EMAIL);
+
+        // Then
+        verify(userRepository, times(2)).findByEmail(TEST_EMAIL);
+    }
+
+    @Test
+    void findByEmail_WhenUserChangesDuringQuery_ShouldNotCacheStaleRow() {
+        // Given
+        User disabled = User.builder().id(1L).email(TEST_EMAIL).role(Role.USER).enabled(false).build();
+        when(userRepository.findByEmail(TEST_EMAIL))
+                .thenAnswer(invocation -> {
+                    // The change commits and is evicted while the first query is in flight
+                    userCacheService.onUserChanged(new UserChangedEvent(1L, TEST_EMAIL));
+                    return Optional.of(user);
+                })
+                .thenReturn(Optional.of(disabled));
+
+        // When
+        Optional<User> duringChange = userCacheService.findByEmail(TEST_EMAIL);
+        Optional<User> afterChange = userCacheService.findByEmail(TEST_EMAIL);
+
+        // Then
+        assertThat(duringChange).contains(user);
+        assertThat(afterChange).contains(disabled);
+        verify(userRepository, times(2)).findByEmail(TEST_EMAIL);
+    }
+
+    @Test
+    void findByEmail_WhenEmailChangesDuringQuery_ShouldNotCacheRowUnderPreviousEmail() {
+        // Given
+        when(userRepository.findByEmail(TEST_EMAIL))
+                .thenAnswer(invocation -> {
+                    // Not indexed by id yet, so the event cannot find the entry to evict
+                    userCacheService.onUserChanged(new UserChangedEvent(1L, "new@example.com"));
+                    return Optional.of(user);
+                })
+                .thenReturn(Optional.empty());
+
+        // When
+        userCacheService.findByEmail(TEST_EMAIL);
+        Optional<User> afterChange = userCacheService.findByEmail(TEST_EMAIL);
+
+        // Then
+        assertThat(afterChange).isEmpty();
+        verify(userRepository, times(2)).findByEmail(TEST_EMAIL);
+    }
+
+    @Test
+    void onUserChanged_ShouldKeepOtherUsersCached() {
+        // Given
+        User other = User.builder().id(2L).email("other@example.com").role(Role.USER).enabled(true).build();
+        when(userRepository.findByEmail("other@example.com")).thenReturn(Optional.of(other));
+        userCacheService.findByEmail("other@example.com");
+
+        // When
+        userCacheService.onUserChanged(new UserChangedEvent(1L, TEST_EMAIL));
+        userCacheService.findByEmail("other@example.com");
+
+        // Then
+        verify(userRepository, times(1)).findByEmail("other@example.com");
+    }
+
+    @Test
+    void findByEmail_OnVirtualThread_ShouldNotPinCarrierWhileLoading() throws Exception {
+        // Given
+        when(userRepository.findByEmail(TEST_EMAIL)).thenAnswer(invocation -> {
+            Thread.sleep(50); // blocking JDBC call
+            return Optional.of(user);
+        });
+        List<RecordedEvent> pinnedEvents = new CopyOnWriteArrayList<>();
+
+        // When
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO);
+            recording.onEvent("jdk.VirtualThreadPinned", pinnedEvents::add);
+            recording.startAsync();
+
+            Thread.ofVirtual().start(() -> userCacheService.findByEmail(TEST_EMAIL)).join();
+            recording.stop();
+        }
+
+        // Then
+        assertThat(pinnedEvents).isEmpty();
+        assertThat(userCacheService.findByEmail(TEST_EMAIL)).contains(user);
+        verify(userRepository, times(1)).findByEmail(TEST_EMAIL);
+    }
+}
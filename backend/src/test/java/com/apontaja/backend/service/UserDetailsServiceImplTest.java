@@ -2,7 +2,6 @@ package com.apontaja.backend.service;
 
 import com.apontaja.backend.model.Role;
 import com.apontaja.backend.model.User;
-import com.apontaja.backend.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,7 +22,7 @@ import static org.mockito.Mockito.when;
 class UserDetailsServiceImplTest {
 
     @Mock
-    private UserRepository userRepository;
+    private UserCacheService userCacheService;
 
     @InjectMocks
     private UserDetailsServiceImpl userDetailsService;
@@ -48,7 +47,7 @@ class UserDetailsServiceImplTest {
     @Test
     void loadUserByUsername_WithExistingEmail_ShouldReturnUserDetails() {
         // Given
-        when(userRepository.findByEmail(TEST_EMAIL)).thenReturn(Optional.of(user));
+        when(userCacheService.findByEmail(TEST_EMAIL)).thenReturn(Optional.of(user));
 
         // When
         UserDetails result = userDetailsService.loadUserByUsername(TEST_EMAIL);
@@ -61,20 +60,20 @@ class UserDetailsServiceImplTest {
         assertThat(result.getAuthorities()).hasSize(1);
         assertThat(result.getAuthorities().iterator().next().getAuthority()).isEqualTo("ROLE_USER");
 
-        verify(userRepository).findByEmail(TEST_EMAIL);
+        verify(userCacheService).findByEmail(TEST_EMAIL);
     }
 
     @Test
     void loadUserByUsername_WithNonExistingEmail_ShouldThrowUsernameNotFoundException() {
         // Given
-        when(userRepository.findByEmail(NON_EXISTING_EMAIL)).thenReturn(Optional.empty());
+        when(userCacheService.findByEmail(NON_EXISTING_EMAIL)).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> userDetailsService.loadUserByUsername(NON_EXISTING_EMAIL))
                 .isInstanceOf(UsernameNotFoundException.class)
                 .hasMessageContaining("User not found with email: " + NON_EXISTING_EMAIL);
 
-        verify(userRepository).findByEmail(NON_EXISTING_EMAIL);
+        verify(userCacheService).findByEmail(NON_EXISTING_EMAIL);
     }
 
     @Test
@@ -89,7 +88,7 @@ class UserDetailsServiceImplTest {
                 .role(Role.USER)
                 .enabled(false)
                 .build();
-        when(userRepository.findByEmail("disabled@example.com")).thenReturn(Optional.of(disabledUser));
+        when(userCacheService.findByEmail("disabled@example.com")).thenReturn(Optional.of(disabledUser));
 
         // When
         UserDetails result = userDetailsService.loadUserByUsername("disabled@example.com");
@@ -99,7 +98,7 @@ class UserDetailsServiceImplTest {
         assertThat(result.isEnabled()).isFalse();
         assertThat(result.getUsername()).isEqualTo("disabled@example.com");
 
-        verify(userRepository).findByEmail("disabled@example.com");
+        verify(userCacheService).findByEmail("disabled@example.com");
     }
 
     @Test
@@ -114,7 +113,7 @@ class UserDetailsServiceImplTest {
                 .role(Role.ADMIN)
                 .enabled(true)
                 .build();
-        when(userRepository.findByEmail("admin@example.com")).thenReturn(Optional.of(adminUser));
+        when(userCacheService.findByEmail("admin@example.com")).thenReturn(Optional.of(adminUser));
 
         // When
         UserDetails result = userDetailsService.loadUserByUsername("admin@example.com");
@@ -124,14 +123,14 @@ class UserDetailsServiceImplTest {
         assertThat(result.getAuthorities()).hasSize(1);
         assertThat(result.getAuthorities().iterator().next().getAuthority()).isEqualTo("ROLE_ADMIN");
 
-        verify(userRepository).findByEmail("admin@example.com");
+        verify(userCacheService).findByEmail("admin@example.com");
     }
 
     @Test
     void loadUserByUsername_WithEmailContainingUppercase_ShouldHandleCorrectly() {
         // Given
         String uppercaseEmail = "Test@Example.COM";
-        when(userRepository.findByEmail(uppercaseEmail)).thenReturn(Optional.of(user));
+        when(userCacheService.findByEmail(uppercaseEmail)).thenReturn(Optional.of(user));
 
         // When
         UserDetails result = userDetailsService.loadUserByUsername(uppercaseEmail);
@@ -140,6 +139,6 @@ class UserDetailsServiceImplTest {
         assertThat(result).isNotNull();
         assertThat(result.getUsername()).isEqualTo(TEST_EMAIL);
 
-        verify(userRepository).findByEmail(uppercaseEmail);
+        verify(userCacheService).findByEmail(uppercaseEmail);
     }
 }